@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+/**
+ * Maven plugin goal that compiles the OTM models of the project and reports the changes
+ * that the <code>publish-api</code> goal would make to the WSO2 API Management server,
+ * without publishing anything.  This is equivalent to running <code>publish-api</code>
+ * with the <code>dryRun</code> parameter enabled.
+ * 
+ * @author S. Livezey
+ */
+@Mojo( name = "plan", threadSafe=true )
+public class APIPlanMojo extends APIPublisherMojo {
+	
+	/**
+	 * @see org.opentravel.otm.forum2016.APIPublisherMojo#execute()
+	 */
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		dryRun = true;
+		super.execute();
+	}
+	
+}
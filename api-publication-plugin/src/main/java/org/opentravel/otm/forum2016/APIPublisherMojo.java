@@ -16,18 +16,21 @@
 
 package org.opentravel.otm.forum2016;
 
-import io.swagger.codegen.ClientOptInput;
-import io.swagger.codegen.ClientOpts;
-import io.swagger.codegen.CodegenConfig;
-import io.swagger.codegen.DefaultGenerator;
-import io.swagger.models.Swagger;
-import io.swagger.parser.SwaggerParser;
-
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ServiceLoader;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -38,26 +41,29 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.opentravel.otm.forum2016.am.APIDetails;
+import org.opentravel.otm.forum2016.am.APIDocumentUploader;
 import org.opentravel.otm.forum2016.am.APIDocument;
 import org.opentravel.otm.forum2016.am.APIOperationFactory;
+import org.opentravel.otm.forum2016.am.APIRetirer;
 import org.opentravel.otm.forum2016.am.APIStatusAction;
 import org.opentravel.otm.forum2016.am.APISummary;
 import org.opentravel.otm.forum2016.am.APIVisibility;
 import org.opentravel.otm.forum2016.am.ChangeAPIStatusOperation;
-import org.opentravel.otm.forum2016.am.CreateAPIDocumentOperation;
 import org.opentravel.otm.forum2016.am.CreateAPIOperation;
-import org.opentravel.otm.forum2016.am.DeleteAPIDocumentOperation;
+import org.opentravel.otm.forum2016.am.GetAPIDetailsOperation;
 import org.opentravel.otm.forum2016.am.GetAllAPIDocumentsOperation;
-import org.opentravel.otm.forum2016.am.GetAllAPIsOperation;
 import org.opentravel.otm.forum2016.am.OAuth2ClientConfig;
 import org.opentravel.otm.forum2016.am.SwaggerDocument;
 import org.opentravel.otm.forum2016.am.UpdateAPIOperation;
-import org.opentravel.otm.forum2016.am.UploadAPIDocumentOperation;
 import org.opentravel.schemacompiler.ioc.CompilerExtensionRegistry;
 import org.opentravel.schemacompiler.model.TLModel;
 import org.opentravel.schemacompiler.task.SwaggerCompilerTask;
 import org.opentravel.schemacompiler.util.SchemaCompilerException;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
 /**
  * Maven plugin that scans all top-level project directories for OTM models.  API
  * specifications are compiled for any models that are discovered and all of the
@@ -69,7 +75,7 @@ import org.opentravel.schemacompiler.util.SchemaCompilerException;
 @Execute( goal = "publish-api", phase = LifecyclePhase.INSTALL )
 public class APIPublisherMojo extends AbstractMojo {
 	
-	private static final String SWAGGER_DOCUMENT_FORMAT = "html";
+	private static final String HTML_CACHE_FOLDER = "/.target/.html-cache";
 	
 	private APIOperationFactory opFactory = new APIOperationFactory();
 	protected Log log = getLog();
@@ -86,12 +92,156 @@ public class APIPublisherMojo extends AbstractMojo {
 	@Parameter
     protected String bindingStyle;
 	
+	/**
+	 * Flag indicating whether all OTM projects in a context should be compiled from a
+	 * single shared model (default is true).
+	 */
+	@Parameter( defaultValue = "true" )
+	protected boolean sharedContextModel;
+	
+	/**
+	 * Folder name globs that should be skipped when scanning for OTM projects.  If not
+	 * specified, the <code>ProjectFolderScanner</code> default excludes will be used.
+	 */
+	@Parameter
+	protected List<String> scanExcludes;
+	
+	/**
+	 * The maximum number of API documents that may be uploaded concurrently.
+	 */
+	@Parameter( defaultValue = "4" )
+	protected int documentUploadThreads;
+	
+	/**
+	 * The maximum number of attempts that will be made to publish each API document.
+	 */
+	@Parameter( defaultValue = "3" )
+	protected int documentUploadAttempts;
+	
+	/**
+	 * The maximum number of HTML API documents that may be generated concurrently.
+	 */
+	@Parameter( defaultValue = "2" )
+	protected int documentGenerationThreads;
+	
+	/**
+	 * Flag indicating that the publication should only be planned.  In a dry run, the
+	 * existing state of the API Manager is retrieved and the intended changes are
+	 * reported, but no API's or documents are created, updated or deleted.
+	 */
+	@Parameter( property = "dryRun", defaultValue = "false" )
+	protected boolean dryRun;
+	
+	/**
+	 * The file to which the publication plan is written during a dry run.
+	 */
+	@Parameter( defaultValue = "${project.basedir}/.target/api-publication-plan.json" )
+	protected File planFile;
+	
+	/**
+	 * Flag indicating whether API's that are no longer produced by any of the project's
+	 * OTM models should be retired and deleted from the API Manager (default is false).
+	 */
+	@Parameter( property = "retireStaleApis", defaultValue = "false" )
+	protected boolean retireStaleApis;
+	
+	/**
+	 * Only API's from this provider are considered for retirement.  If not specified,
+	 * the user ID of the publisher's OAuth2 configuration is used.  Because the same
+	 * account is typically used to publish the API's of many projects, either this
+	 * parameter or the <code>reconcileContextPrefix</code> must be specified when
+	 * stale API's are retired.
+	 */
+	@Parameter
+	protected String reconcileProvider;
+	
+	/**
+	 * If specified, only API's whose context begins with this prefix (e.g. "/Hotel")
+	 * are considered for retirement.  Either this parameter or the <code>reconcileProvider</code>
+	 * must be specified when stale API's are retired.
+	 */
+	@Parameter
+	protected String reconcileContextPrefix;
+	
+	/**
+	 * The maximum number of stale API's that may be retired concurrently.
+	 */
+	@Parameter( defaultValue = "4" )
+	protected int reconcileThreads;
+	
+	/**
+	 * Flag indicating whether request bodies sent to the API Manager should be
+	 * gzip-compressed (default is true).  Compression is disabled automatically for
+	 * servers that reject compressed requests.
+	 */
+	@Parameter( defaultValue = "true" )
+	protected boolean compressRequests;
+	
+	protected boolean publishApis = true;
+	
+	private APIDocumentUploader documentUploader;
+	private SwaggerDocGenerator docGenerator;
+	private PublicationPlan publicationPlan;
+	private List<APISummary> existingApis;
+	private Map<String,List<APIDocument>> obsoleteDocuments = new LinkedHashMap<>();
+	private Set<String> producedApis = new HashSet<>();
+	private boolean modelErrors = false;
+	
 	/**
 	 * @see org.apache.maven.plugin.Mojo#execute()
 	 */
 	@Override
 	public void execute() throws MojoExecutionException, MojoFailureException {
-		List<File> contextFolders = OTMProjectUtils.getContextFolders( projectFolder );
+		if (retireStaleApis && (reconcileProvider == null) && (reconcileContextPrefix == null)) {
+			throw new MojoExecutionException( "Stale API's cannot be retired unless the reconcileProvider"
+					+ " or reconcileContextPrefix is specified." );
+		}
+		opFactory.setMaxConnections( Math.max( documentUploadThreads, APIOperationFactory.DEFAULT_MAX_CONNECTIONS ) );
+		opFactory.setCompressRequests( compressRequests );
+		documentUploader = new APIDocumentUploader( opFactory, documentUploadThreads, documentUploadAttempts );
+		docGenerator = new SwaggerDocGenerator( new File( projectFolder, HTML_CACHE_FOLDER ), documentGenerationThreads );
+		
+		try {
+			if (!opFactory.initializeAccessToken()) {
+				log.info("Combined access token not granted - requesting separate tokens for each scope.");
+			}
+			if (dryRun) {
+				publicationPlan = new PublicationPlan();
+			}
+			publishAllContexts();
+			
+			if (!dryRun) {
+				deleteObsoleteDocuments();
+			}
+			if (retireStaleApis) {
+				retireStaleAPIs();
+			}
+			if (dryRun) {
+				reportPublicationPlan();
+			}
+			
+		} finally {
+			documentUploader.shutdown();
+			docGenerator.shutdown();
+			log.info("API Manager traffic: " + opFactory.getTrafficStatistics());
+			
+			try {
+				opFactory.close();
+				
+			} catch (IOException e) {
+				log.warn("Error closing connections to the API Manager server.");
+			}
+		}
+	}
+	
+	/**
+	 * Scans all of the context folders in the project and publishes the API's for each
+	 * of the OTM models that are discovered.
+	 */
+	private void publishAllContexts() {
+		ProjectFolderScanner scanner = (scanExcludes == null) ?
+				new ProjectFolderScanner() : new ProjectFolderScanner( scanExcludes );
+		List<File> contextFolders = scanner.getContextFolders( projectFolder );
 		
 		// Initialize the binding style before compiling any models
 		if (bindingStyle != null) {
@@ -100,39 +250,102 @@ public class APIPublisherMojo extends AbstractMojo {
 		
 		for (File contextFolder : contextFolders) {
 			String context = contextFolder.getName().replaceAll( "\\s+", "_" );
-			List<File> otpFiles;
-			
-			OTMProjectUtils.findOTMProjects( contextFolder, (otpFiles = new ArrayList<>() ) );
+			List<File> otpFiles = scanner.findOTMProjects( contextFolder );
 			
 			if (!otpFiles.isEmpty()) {
 				log.info("Processing OTM Models for Context: " + context);
 				
+				if (sharedContextModel && (otpFiles.size() > 1)) {
+					try {
+						log.info("  Compiling " + otpFiles.size() + " OTM Projects as a shared context model");
+						TLModel model = OTMProjectUtils.loadContextModel( otpFiles );
+						
+						if (model != null) {
+							publishModel( model, context, new File( projectFolder, "/.target/" + context + "/context-model" ) );
+							continue;
+						}
+						log.info("  Unable to load shared context model - compiling projects individually");
+						
+					} catch (SchemaCompilerException e) {
+						log.error("  Unknown error while loading shared context model", e);
+						
+					} catch (Exception e) {
+						log.error("  Unexpected error during API publication", e);
+						modelErrors = true;
+						continue;
+					}
+				}
+				
 				for (File otpFile : otpFiles) {
 					try {
 						log.info("  Compiling OTM Project: " + otpFile.getName());
 						TLModel model = OTMProjectUtils.loadModel( otpFile );
 						
 						if (model != null) {
-							File outputFolder = new File( projectFolder, "/.target/" + context + "/" + otpFile.getName() );
-							List<File> swaggerFiles = compileSwaggerDocuments( model, context, outputFolder );
+							publishModel( model, context, new File( projectFolder, "/.target/" + context + "/" + otpFile.getName() ) );
 							
-							for (File swaggerFile : swaggerFiles) {
-								log.info("  Publishing Swagger Document to WSO2: " + swaggerFile.getName());
-								publishSwaggerAPI( swaggerFile, context );
-							}
+						} else {
+							modelErrors = true;
 						}
 						
 					} catch (SchemaCompilerException e) {
 						log.error("  Unknown error while generating OTM Project", e);
+						modelErrors = true;
 						
 					} catch (Exception e) {
 						log.error("  Unexpected error during API publication", e);
+						modelErrors = true;
 					}
 				}
 			}
 		}
 	}
 	
+	/**
+	 * Compiles Swagger documents for the given model and publishes each of them to
+	 * the WSO2 API Management server.
+	 * 
+	 * @param model  the OTM model to publish
+	 * @param context  the context to which the OTM model belongs
+	 * @param outputFolder  the folder where the Swagger documents should be generated
+	 * @throws SchemaCompilerException  thrown if an error occurs during Swagger document generation
+	 * @throws IOException  thrown if an error occurs during the publication process
+	 */
+	private void publishModel(TLModel model, String context, File outputFolder)
+			throws SchemaCompilerException, IOException {
+		List<File> swaggerFiles = compileSwaggerDocuments( model, context, outputFolder );
+		List<SwaggerDocument> swaggerDocs = new ArrayList<>();
+		List<Future<File>> htmlDocs = new ArrayList<>();
+		
+		for (File swaggerFile : swaggerFiles) {
+			SwaggerDocument swaggerDoc = new SwaggerDocument( swaggerFile );
+			
+			producedApis.add( getApiKey( swaggerDoc.getApiName(), swaggerDoc.getApiVersion(),
+					getApiContext( swaggerDoc, context ) ) );
+			swaggerDocs.add( swaggerDoc );
+		}
+		
+		if (dryRun) {
+			for (SwaggerDocument swaggerDoc : swaggerDocs) {
+				planSwaggerAPI( swaggerDoc, context );
+			}
+			return;
+			
+		} else if (!publishApis) {
+			return;
+		}
+		
+		// Start generating the HTML documentation for all of the API's before publishing
+		for (SwaggerDocument swaggerDoc : swaggerDocs) {
+			htmlDocs.add( docGenerator.submit( swaggerDoc ) );
+		}
+		
+		for (int i = 0; i < swaggerDocs.size(); i++) {
+			log.info("  Publishing Swagger Document to WSO2: " + swaggerFiles.get( i ).getName());
+			publishSwaggerAPI( swaggerDocs.get( i ), htmlDocs.get( i ), context );
+		}
+	}
+	
 	/**
 	 * Recursively deletes the contents of the specified folder.
 	 * 
@@ -180,13 +393,14 @@ public class APIPublisherMojo extends AbstractMojo {
 	/**
 	 * Publishes the Swagger API to the WSO2 API Manager application.
 	 * 
-	 * @param swaggerFile  the Swagger file containing the API to publish
+	 * @param swaggerDoc  the Swagger document containing the API to publish
+	 * @param htmlDoc  the pending result of the API's HTML documentation generation
 	 * @param context  the root context under which the API should be published
 	 * @throws IOException  thrown if the Swagger document cannot be loaded
 	 *						or an error occurs during the publication process
 	 */
-	private void publishSwaggerAPI(File swaggerFile, String context) throws IOException {
-		SwaggerDocument swaggerDoc = new SwaggerDocument( swaggerFile );
+	private void publishSwaggerAPI(SwaggerDocument swaggerDoc, Future<File> htmlDoc, String context) throws IOException {
+		File swaggerFile = swaggerDoc.getSwaggerFile();
 		APIDetails api = createAPIDefinition( swaggerDoc, context );
 		String existingApiId = getExistingApiID( swaggerDoc );
 		
@@ -199,6 +413,7 @@ public class APIPublisherMojo extends AbstractMojo {
 			log.info("    Creating new API definition...");
 			createOp.setApi( api );
 			api = createOp.execute();
+			existingApis.add( api );
 			
 			statusOp.setApiId( api.getId() );
 			statusOp.setAction( APIStatusAction.PUBLISH );
@@ -220,134 +435,305 @@ public class APIPublisherMojo extends AbstractMojo {
 			log.info("    API updated successfully.");
 		}
 		
-		// Generate HTML documentation for the Swagger API
-		Swagger swagger = new SwaggerParser().read( swaggerFile.getAbsolutePath() );
-		ClientOptInput docgenInput = new ClientOptInput().opts( new ClientOpts() ).swagger( swagger );
-		CodegenConfig swaggerDocConfig = getSwaggerDocumentConfig();
-		File docFolder = new File( swaggerFile.getParentFile(), "/html" );
-		File docFile = new File( docFolder, "/index.html" );
-		
-		swaggerDocConfig.additionalProperties().put( "appName", swaggerDoc.getApiName() + " API Specification" );
-		swaggerDocConfig.additionalProperties().put( "version", swaggerDoc.getApiVersion() );
-		swaggerDocConfig.additionalProperties().put( "appDescription", swaggerDoc.getDescription() );
-		swaggerDocConfig.additionalProperties().put( "infoUrl", "http://www.opentravel.org" );
-		swaggerDocConfig.additionalProperties().put( "infoEmail", "info@opentravel.org" );
-		swaggerDocConfig.setOutputDir( docFolder.getAbsolutePath() );
-		docgenInput.setConfig( swaggerDocConfig );
-		new DefaultGenerator().opts( docgenInput ).generate();
-		
 		// Publish all documents associated with the API
 		GetAllAPIDocumentsOperation getDocsOp = opFactory.newGetAllAPIDocumentsOperation();
 		getDocsOp.setApiId( api.getId() );
 		
 		List<APIDocument> existingDocs = getDocsOp.execute();
-		List<String> publishedFilenames = new ArrayList<>();
-		File swaggerFolder = swaggerFile.getParentFile();
+		Map<String,File> apiDocuments = new LinkedHashMap<>();
+		Map<String,File> otherDocuments = getOtherDocuments( swaggerFile.getParentFile() );
+		
+		try {
+			apiDocuments.put( "API Documentation", htmlDoc.get() ); // publish the HTML documentation
+			
+		} catch (ExecutionException e) {
+			log.warn("Unable to generate HTML documentation for API: " + swaggerDoc.getApiName(), e.getCause());
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while generating HTML documentation.", e);
+		}
 		
-		publishAPIDocument( "API Documentation", docFile, api, existingDocs ); // publish the HTML documentation
+		apiDocuments.putAll( otherDocuments );
 		
-		for (File file : swaggerFolder.listFiles()) {
-			if (file.isFile() && !file.getName().toLowerCase().endsWith(".swagger")) {
-				publishAPIDocument( file.getName(), file, api, existingDocs );
-				publishedFilenames.add( file.getName() );
-			}
+		for (Map.Entry<String,Throwable> failedDoc : documentUploader.uploadAll( api.getId(), apiDocuments, existingDocs ).entrySet()) {
+			log.warn("Error publishing API document: " + failedDoc.getKey(), failedDoc.getValue());
 		}
 		
-		// Delete API documents (only of type OTHER) that no longer exist
+		// Schedule the API documents (only of type OTHER) that no longer exist for deletion
+		List<APIDocument> obsoleteDocs = new ArrayList<>();
+		
 		for (APIDocument doc : existingDocs) {
-			if (doc.getType().equals("OTHER") && !publishedFilenames.contains( doc.getName() )) {
-				try {
-					DeleteAPIDocumentOperation deleteDocOp = opFactory.newDeleteAPIDocumentOperation();
-					
-					deleteDocOp.setApiId( api.getApiDefinition() );
-					deleteDocOp.setDocumentId( doc.getId() );
-					deleteDocOp.execute();
-					
-				} catch (IOException e) {
-					log.warn("Unable to delete obsolete API document: " + doc.getName());
-				}
+			if (doc.getType().equals("OTHER") && !otherDocuments.containsKey( doc.getName() )) {
+				obsoleteDocs.add( doc );
 			}
 		}
+		if (!obsoleteDocs.isEmpty()) {
+			obsoleteDocuments.put( api.getId(), obsoleteDocs );
+		}
 		log.info("    API documentation published.");
 	}
 	
 	/**
-	 * Returns the Swagger code generation configuration for generating HTML documentation.
-	 * 
-	 * @return CodegenConfig
+	 * Deletes the obsolete documents of all API's that were published during this build.
+	 * This runs as a separate phase after all documents have been uploaded so that the
+	 * deletions can be performed concurrently.
 	 */
-    private CodegenConfig getSwaggerDocumentConfig() {
-        ServiceLoader<CodegenConfig> loader = ServiceLoader.load(CodegenConfig.class);
-        CodegenConfig config = null;
-        
-        for (CodegenConfig c : loader) {
-            if (SWAGGER_DOCUMENT_FORMAT.equals( c.getName() )) {
-                config = c;
-                break;
-            }
-        }
-        return config;
-    }
-    
+	private void deleteObsoleteDocuments() {
+		int obsoleteCount = 0;
+		
+		for (List<APIDocument> docs : obsoleteDocuments.values()) {
+			obsoleteCount += docs.size();
+		}
+		
+		if (obsoleteCount > 0) {
+			log.info("Deleting " + obsoleteCount + " obsolete API document(s)...");
+			int deleteCount = documentUploader.deleteAll( obsoleteDocuments );
+			
+			log.info("  Reclaimed " + deleteCount + " obsolete API document(s).");
+			
+			if (deleteCount < obsoleteCount) {
+				log.warn("  Unable to delete " + (obsoleteCount - deleteCount) + " obsolete API document(s).");
+			}
+			obsoleteDocuments.clear();
+		}
+	}
+	
 	/**
-	 * Publishes the given file as a document of the API.
-	 * 
-	 * @param docName  the name of the document as it will appear in the API documentation listing
-	 * @param docFile  the document file to publish
-	 * @param api  the API with which the document should be associated
-	 * @param existingDocs  the list of existing documents associated with the API
+	 * Retires and deletes the API's in the live catalogue that are no longer produced by
+	 * any of the project's OTM models.  Only API's that match the configured provider and
+	 * context prefix are considered, and an API is only considered to be produced by the
+	 * project if its name, version and context all match.  If any of the models could not
+	 * be compiled, the set of produced API's is incomplete and the reconciliation is skipped.
 	 */
-	private void publishAPIDocument(String docName, File docFile, APIDetails api, List<APIDocument> existingDocs) {
+	private void retireStaleAPIs() {
+		String provider = (reconcileProvider != null) ? reconcileProvider : OAuth2ClientConfig.getInstance().getUserId();
+		List<APISummary> staleApis = new ArrayList<>();
+		
+		if (modelErrors || producedApis.isEmpty()) {
+			log.warn("Skipping retirement of stale API's because not all OTM models were compiled successfully.");
+			return;
+		}
+		
 		try {
-			UploadAPIDocumentOperation uploadOp = opFactory.newUploadAPIDocumentOperation();
-			String filename = docFile.getName();
-			String contentType = "text/html";
-			String otherTypeName = null;
-			APIDocument apiDoc = null;
-			
-			// Check to see if the document has already been published
-			for (APIDocument doc : existingDocs) {
-				if (docName.equals( doc.getName() )) {
-					apiDoc = doc;
-					break;
+			for (APISummary api : opFactory.newGetAllAPIsOperation().execute()) {
+				if ((provider != null) && !provider.equals( api.getProvider() )) {
+					continue;
+				}
+				if ((reconcileContextPrefix != null) && ((api.getContext() == null)
+						|| !api.getContext().startsWith( reconcileContextPrefix ))) {
+					continue;
+				}
+				if (!producedApis.contains( getApiKey( api.getName(), api.getVersion(), api.getContext() ) )) {
+					staleApis.add( api );
 				}
 			}
 			
-			if (filename.endsWith( ".schema.json" )) {
-				otherTypeName = "JSON Schema";
-				contentType = "application/json";
-				
-			} else if (filename.endsWith( ".xsd" )) {
-				otherTypeName = "XML Schema";
-				contentType = "application/xml";
+		} catch (IOException e) {
+			log.error("Unable to retrieve the API catalogue for reconciliation.", e);
+			return;
+		}
+		
+		if (staleApis.isEmpty()) {
+			log.info("No stale API's found in the API catalogue.");
+			
+		} else if (dryRun) {
+			for (APISummary api : staleApis) {
+				publicationPlan.addStaleAPI( api.getContext(), api.getName(), api.getVersion(), api.getId() );
 			}
 			
-			if (apiDoc == null) { // need to publish a new document record
-				CreateAPIDocumentOperation createDocOp = opFactory.newCreateAPIDocumentOperation();
+		} else {
+			log.info("Retiring " + staleApis.size() + " stale API(s)...");
+			List<String> failedApis = new APIRetirer( opFactory, reconcileThreads ).removeAll( staleApis );
+			
+			for (String failedApi : failedApis) {
+				log.warn("  Unable to retire stale API: " + failedApi);
+			}
+			log.info("  Retired " + (staleApis.size() - failedApis.size()) + " stale API(s).");
+		}
+	}
+	
+	/**
+	 * Returns the key that identifies an API by its name and version.
+	 * 
+	 * @param apiName  the name of the API
+	 * @param apiVersion  the version of the API
+	 * @return String
+	 */
+	private static String getApiKey(String apiName, String apiVersion) {
+		return apiName + ":" + apiVersion;
+	}
+	
+	/**
+	 * Returns the key that identifies an API by its name, version and context.  The API
+	 * Manager may append the version to the context of an API, so a trailing version
+	 * segment is ignored.
+	 * 
+	 * @param apiName  the name of the API
+	 * @param apiVersion  the version of the API
+	 * @param apiContext  the context of the API
+	 * @return String
+	 */
+	private static String getApiKey(String apiName, String apiVersion, String apiContext) {
+		String contextKey = (apiContext == null) ? "" : apiContext;
+		
+		if (contextKey.endsWith( "/" + apiVersion )) {
+			contextKey = contextKey.substring( 0, contextKey.length() - apiVersion.length() - 1 );
+		}
+		return getApiKey( apiName, apiVersion ) + ":" + contextKey;
+	}
+	
+	/**
+	 * Returns the context under which the Swagger document's API is published.
+	 * 
+	 * @param swaggerDoc  the Swagger document for which to return the API context
+	 * @param context  the root context under which the API should be published
+	 * @return String
+	 */
+	private static String getApiContext(SwaggerDocument swaggerDoc, String context) {
+		return "/" + context + "/" + swaggerDoc.getApiName();
+	}
+	
+	/**
+	 * Records the changes that would be made to the API Manager when publishing the
+	 * given Swagger API, without performing any of them.  The details of an existing API
+	 * are retrieved from the server, and the API is planned as UNCHANGED if they already
+	 * match the definition that would be published.
+	 * 
+	 * @param swaggerDoc  the Swagger document containing the API to plan
+	 * @param context  the root context under which the API would be published
+	 * @throws IOException  thrown if an error occurs while retrieving the existing API state
+	 */
+	private void planSwaggerAPI(SwaggerDocument swaggerDoc, String context) throws IOException {
+		String existingApiId = getExistingApiID( swaggerDoc );
+		boolean unchanged = false;
+		
+		if (existingApiId != null) {
+			GetAPIDetailsOperation getApiOp = opFactory.newGetAPIDetailsOperation();
+			
+			getApiOp.setId( existingApiId );
+			unchanged = isUnchangedAPI( createAPIDefinition( swaggerDoc, context ), getApiOp.execute() );
+		}
+		PublicationPlan.APIChange apiChange = publicationPlan.addAPI( context, swaggerDoc.getApiName(),
+				swaggerDoc.getApiVersion(), existingApiId, swaggerDoc.getContentHash(), unchanged );
+		Map<String,File> otherDocuments = getOtherDocuments( swaggerDoc.getSwaggerFile().getParentFile() );
+		List<String> docNames = new ArrayList<>();
+		List<APIDocument> existingDocs = new ArrayList<>();
+		
+		if (existingApiId != null) {
+			GetAllAPIDocumentsOperation getDocsOp = opFactory.newGetAllAPIDocumentsOperation();
+			
+			getDocsOp.setApiId( existingApiId );
+			existingDocs = getDocsOp.execute();
+		}
+		docNames.add( "API Documentation" );
+		docNames.addAll( otherDocuments.keySet() );
+		
+		for (String docName : docNames) {
+			boolean docExists = false;
+			
+			for (APIDocument doc : existingDocs) {
+				docExists |= docName.equals( doc.getName() );
+			}
+			apiChange.addDocument( docName, docExists ?
+					PublicationPlan.Action.UPDATE : PublicationPlan.Action.CREATE );
+		}
+		for (APIDocument doc : existingDocs) {
+			if (doc.getType().equals("OTHER") && !otherDocuments.containsKey( doc.getName() )) {
+				apiChange.addDocument( doc.getName(), PublicationPlan.Action.DELETE );
+			}
+		}
+		log.info("    Planned " + apiChange.getAction().toString().toLowerCase() + " API "
+				+ swaggerDoc.getApiName() + " (" + swaggerDoc.getApiVersion() + ")");
+	}
+	
+	/**
+	 * Returns true if the existing API on the server already matches all of the fields
+	 * of the API definition that would be published.  The Swagger definitions are compared
+	 * as JSON content, so differences in formatting or field order are ignored.
+	 * 
+	 * @param api  the API definition that would be published
+	 * @param existingApi  the details of the existing API that were retrieved from the server
+	 * @return boolean
+	 * @throws IOException  thrown if the Swagger document of the API cannot be read
+	 */
+	private boolean isUnchangedAPI(APIDetails api, APIDetails existingApi) throws IOException {
+		boolean unchanged = (existingApi != null)
+				&& getApiKey( api.getName(), api.getVersion(), api.getContext() ).equals(
+						getApiKey( existingApi.getName(), existingApi.getVersion(), existingApi.getContext() ) )
+				&& Objects.equals( api.getProvider(), existingApi.getProvider() )
+				&& Objects.equals( api.getDescription(), existingApi.getDescription() )
+				&& new HashSet<>( api.getTiers() ).equals( new HashSet<>( existingApi.getTiers() ) )
+				&& Objects.equals( api.getThumbnailUrl(), existingApi.getThumbnailUrl() )
+				&& (api.getVisibility() == existingApi.getVisibility())
+				&& new HashSet<>( api.getVisibleRoles() ).equals( new HashSet<>( existingApi.getVisibleRoles() ) )
+				&& new HashSet<>( api.getVisibleTenants() ).equals( new HashSet<>( existingApi.getVisibleTenants() ) )
+				&& Objects.equals( api.getCacheTimeout(), existingApi.getCacheTimeout() )
+				&& Objects.equals( api.getProductionEndpointType(), existingApi.getProductionEndpointType() )
+				&& Objects.equals( api.getProductionEndpointUrl(), existingApi.getProductionEndpointUrl() )
+				&& (api.isDestinationStatsEnabled() == existingApi.isDestinationStatsEnabled())
+				&& (api.isResponseCachingEnabled() == existingApi.isResponseCachingEnabled())
+				&& (api.isDefaultVersion() == existingApi.isDefaultVersion())
+				&& Objects.equals( api.getTechnicalOwner(), existingApi.getTechnicalOwner() )
+				&& Objects.equals( api.getTechnicalOwnerEmail(), existingApi.getTechnicalOwnerEmail() )
+				&& Objects.equals( api.getBusinessOwner(), existingApi.getBusinessOwner() )
+				&& Objects.equals( api.getBusinessOwnerEmail(), existingApi.getBusinessOwnerEmail() )
+				&& new HashSet<>( api.getTransports() ).equals( new HashSet<>( existingApi.getTransports() ) )
+				&& new HashSet<>( api.getTags() ).equals( new HashSet<>( existingApi.getTags() ) );
+		
+		if (unchanged) {
+			try (Reader in = Files.newBufferedReader( api.getApiDefinitionFile().toPath(), StandardCharsets.UTF_8 )) {
+				JsonElement apiDefinition = new JsonParser().parse( in );
+				JsonElement existingDefinition = (existingApi.getApiDefinition() == null) ? null
+						: new JsonParser().parse( new StringReader( existingApi.getApiDefinition() ) );
 				
-				apiDoc = new APIDocument();
-				apiDoc.setName( docName );
-				apiDoc.setSourceType( "FILE" );
-				apiDoc.setType( (otherTypeName == null) ? "HOWTO" : "OTHER" );
-				apiDoc.setOtherTypeName( otherTypeName );
-				apiDoc.setVisibility( "API_LEVEL" );
+				unchanged = apiDefinition.equals( existingDefinition );
 				
-				createDocOp.setApiId( api.getId() );
-				createDocOp.setDocument( apiDoc );
-				apiDoc = createDocOp.execute();
+			} catch (JsonParseException e) {
+				unchanged = false;
 			}
-			
-			uploadOp.setApiId( api.getId() );
-			uploadOp.setDocumentId( apiDoc.getId() );
-			uploadOp.setContentFile( docFile );
-			uploadOp.setContentType( contentType );
-			uploadOp.execute();
+		}
+		return unchanged;
+	}
+	
+	/**
+	 * Writes the publication plan to the plan file and reports its totals to the log.
+	 */
+	private void reportPublicationPlan() {
+		log.info("Publication plan (dry run - no changes were made):");
+		
+		for (PublicationPlan.Action action : PublicationPlan.Action.values()) {
+			log.info("  " + action + ": " + publicationPlan.getAPICount( action ) + " API(s), "
+					+ publicationPlan.getDocumentCount( action ) + " document(s)");
+		}
+		
+		try {
+			publicationPlan.write( planFile );
+			log.info("Publication plan written to: " + planFile.getAbsolutePath());
 			
 		} catch (IOException e) {
-			log.warn("Error publishing API document: " + docFile.getName());
+			log.warn("Unable to write publication plan: " + planFile.getAbsolutePath(), e);
 		}
 	}
 	
+	/**
+	 * Returns the non-Swagger files (e.g. JSON and XML schemas) in the given folder that
+	 * should be published as documents of the API, keyed by their document names.
+	 * 
+	 * @param swaggerFolder  the folder that contains the Swagger document
+	 * @return Map<String,File>
+	 */
+	private Map<String,File> getOtherDocuments(File swaggerFolder) {
+		Map<String,File> otherDocuments = new LinkedHashMap<>();
+		
+		for (File file : swaggerFolder.listFiles()) {
+			if (file.isFile() && !file.getName().toLowerCase().endsWith(".swagger")) {
+				otherDocuments.put( file.getName(), file );
+			}
+		}
+		return otherDocuments;
+	}
+	
 	/**
 	 * If the API has already been published to the WSO2 server, this method will return
 	 * its ID.  If the API has not yet been published, null will be returned.
@@ -357,10 +743,12 @@ public class APIPublisherMojo extends AbstractMojo {
 	 * @throws IOException  thrown if an error occurs during the call to the WSO2 API Manager
 	 */
 	private String getExistingApiID(SwaggerDocument swaggerDoc) throws IOException {
-		GetAllAPIsOperation getAllOp = opFactory.newGetAllAPIsOperation();
-		List<APISummary> existingApis = getAllOp.execute();
 		String existingApiID = null;
 		
+		if (existingApis == null) { // retrieved once per build
+			existingApis = opFactory.newGetAllAPIsOperation().execute();
+		}
+		
 		for (APISummary api : existingApis) {
 			if (api.getName().equals( swaggerDoc.getApiName() )
 					&& api.getVersion().equals( swaggerDoc.getApiVersion() )) {
@@ -383,7 +771,7 @@ public class APIPublisherMojo extends AbstractMojo {
 		
 		newApi.setName( swaggerDoc.getApiName() );
 		newApi.setVersion( swaggerDoc.getApiVersion() );
-		newApi.setContext( "/" + context + "/" + swaggerDoc.getApiName() );
+		newApi.setContext( getApiContext( swaggerDoc, context ) );
 		newApi.setProvider( OAuth2ClientConfig.getInstance().getUserId() );
 		newApi.setDescription( swaggerDoc.getDescription() );
 		newApi.getTiers().add( "Unlimited" );
@@ -392,7 +780,7 @@ public class APIPublisherMojo extends AbstractMojo {
 		newApi.setCacheTimeout( 300 );
 		newApi.setProductionEndpointType( "http" );
 		newApi.setProductionEndpointUrl( getProductionEndpointUrl( swaggerDoc, context ) );
-		newApi.setApiDefinition( swaggerDoc.getContent().toString() );
+		newApi.setApiDefinitionFile( swaggerDoc.getSwaggerFile() );
 		newApi.setTechnicalOwner( "OpenTravel Alliance" );
 		newApi.setTechnicalOwnerEmail( "info@opentravel.org" );
 		newApi.setBusinessOwner( "OpenTravel Alliance" );
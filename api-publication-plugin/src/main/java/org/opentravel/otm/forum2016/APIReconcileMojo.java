@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+/**
+ * Maven plugin goal that compiles the OTM models of the project and reconciles the
+ * resulting set of API's with the live WSO2 API catalogue.  API's that are no longer
+ * produced by any model are deprecated, retired and deleted; no API's are published.
+ * Combine with the <code>dryRun</code> parameter to report the stale API's without
+ * removing them.
+ * The <code>reconcileProvider</code> or <code>reconcileContextPrefix</code> parameter
+ * must be specified to limit the reconciliation to the API's of this project.
+ * 
+ * @author S. Livezey
+ */
+@Mojo( name = "reconcile-apis", threadSafe=true )
+public class APIReconcileMojo extends APIPublisherMojo {
+	
+	/**
+	 * @see org.opentravel.otm.forum2016.APIPublisherMojo#execute()
+	 */
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		publishApis = false;
+		retireStaleApis = true;
+		super.execute();
+	}
+	
+}
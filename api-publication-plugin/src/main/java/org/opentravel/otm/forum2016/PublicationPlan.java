@@ -0,0 +1,329 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Records the changes that a publication run would make to the API Manager without
+ * performing any of them.  Once all of the API's have been planned, the plan can be
+ * written to a JSON file and its totals reported to the build log.
+ *
+ * @author S. Livezey
+ */
+public class PublicationPlan {
+	
+	/**
+	 * The kinds of changes that can be planned for an API or API document.  Existing API's
+	 * whose definitions on the server already match the ones that would be published are
+	 * planned as UNCHANGED.
+	 */
+	public enum Action { CREATE, UPDATE, DELETE, UNCHANGED }
+	
+	private List<APIChange> apiChanges = Collections.synchronizedList( new ArrayList<APIChange>() );
+	
+	/**
+	 * Adds a planned API change and returns it so that its document changes can be
+	 * recorded.
+	 *
+	 * @param context  the context under which the API is published
+	 * @param apiName  the name of the API
+	 * @param apiVersion  the version of the API
+	 * @param apiId  the ID of the existing API (null for new API's)
+	 * @param swaggerHash  the SHA-256 hash of the API's Swagger document
+	 * @param unchanged  flag indicating whether the existing API on the server already matches the new definition
+	 * @return APIChange
+	 */
+	public APIChange addAPI(String context, String apiName, String apiVersion, String apiId, String swaggerHash,
+			boolean unchanged) {
+		Action action = (apiId == null) ? Action.CREATE : (unchanged ? Action.UNCHANGED : Action.UPDATE);
+		APIChange apiChange = new APIChange( action, context, apiName, apiVersion, apiId, swaggerHash );
+		
+		apiChanges.add( apiChange );
+		return apiChange;
+	}
+	
+	/**
+	 * Adds a planned deletion of a stale API that is no longer produced by any of the
+	 * project's OTM models.
+	 *
+	 * @param context  the context under which the API is published
+	 * @param apiName  the name of the API
+	 * @param apiVersion  the version of the API
+	 * @param apiId  the ID of the API to delete
+	 * @return APIChange
+	 */
+	public APIChange addStaleAPI(String context, String apiName, String apiVersion, String apiId) {
+		APIChange apiChange = new APIChange( Action.DELETE, context, apiName, apiVersion, apiId, null );
+		
+		apiChanges.add( apiChange );
+		return apiChange;
+	}
+	
+	/**
+	 * Returns the list of planned API changes.
+	 *
+	 * @return List<APIChange>
+	 */
+	public List<APIChange> getAPIChanges() {
+		return apiChanges;
+	}
+	
+	/**
+	 * Returns the number of planned API changes with the given action.
+	 *
+	 * @param action  the action to count
+	 * @return int
+	 */
+	public int getAPICount(Action action) {
+		int count = 0;
+		
+		synchronized (apiChanges) {
+			for (APIChange apiChange : apiChanges) {
+				if (apiChange.getAction() == action) count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns the number of planned document changes with the given action.
+	 *
+	 * @param action  the action to count
+	 * @return int
+	 */
+	public int getDocumentCount(Action action) {
+		int count = 0;
+		
+		synchronized (apiChanges) {
+			for (APIChange apiChange : apiChanges) {
+				for (DocumentChange docChange : apiChange.getDocumentChanges()) {
+					if (docChange.getAction() == action) count++;
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Writes the plan to the specified file in JSON format.
+	 *
+	 * @param planFile  the file to which the plan should be written
+	 * @throws IOException  thrown if the plan cannot be written
+	 */
+	public void write(File planFile) throws IOException {
+		Files.createDirectories( planFile.getAbsoluteFile().getParentFile().toPath() );
+		
+		try (Writer out = Files.newBufferedWriter( planFile.toPath(), StandardCharsets.UTF_8 )) {
+			JsonWriter writer = new JsonWriter( out );
+			
+			writer.setIndent( "  " );
+			writer.beginObject();
+			writer.name( "summary" ).beginObject();
+			
+			for (Action action : Action.values()) {
+				writer.name( action.toString().toLowerCase() ).beginObject();
+				writer.name( "apis" ).value( getAPICount( action ) );
+				writer.name( "documents" ).value( getDocumentCount( action ) );
+				writer.endObject();
+			}
+			writer.endObject();
+			writer.name( "apis" ).beginArray();
+			
+			synchronized (apiChanges) {
+				for (APIChange apiChange : apiChanges) {
+					writer.beginObject();
+					writer.name( "action" ).value( apiChange.getAction().toString() );
+					writer.name( "context" ).value( apiChange.getContext() );
+					writer.name( "name" ).value( apiChange.getApiName() );
+					writer.name( "version" ).value( apiChange.getApiVersion() );
+					writer.name( "id" ).value( apiChange.getApiId() );
+					writer.name( "swaggerHash" ).value( apiChange.getSwaggerHash() );
+					writer.name( "documents" ).beginArray();
+					
+					for (DocumentChange docChange : apiChange.getDocumentChanges()) {
+						writer.beginObject();
+						writer.name( "action" ).value( docChange.getAction().toString() );
+						writer.name( "name" ).value( docChange.getName() );
+						writer.endObject();
+					}
+					writer.endArray();
+					writer.endObject();
+				}
+			}
+			writer.endArray();
+			writer.endObject();
+			writer.flush();
+		}
+	}
+	
+	/**
+	 * A planned change to a single API.
+	 */
+	public static class APIChange {
+		
+		private Action action;
+		private String context;
+		private String apiName;
+		private String apiVersion;
+		private String apiId;
+		private String swaggerHash;
+		private List<DocumentChange> documentChanges = new ArrayList<>();
+		
+		/**
+		 * Constructor that specifies the API to be changed.
+		 *
+		 * @param action  the planned action for the API
+		 * @param context  the context under which the API is published
+		 * @param apiName  the name of the API
+		 * @param apiVersion  the version of the API
+		 * @param apiId  the ID of the existing API (null for new API's)
+		 * @param swaggerHash  the SHA-256 hash of the API's Swagger document (null for deletions)
+		 */
+		public APIChange(Action action, String context, String apiName, String apiVersion, String apiId, String swaggerHash) {
+			this.action = action;
+			this.context = context;
+			this.apiName = apiName;
+			this.apiVersion = apiVersion;
+			this.apiId = apiId;
+			this.swaggerHash = swaggerHash;
+		}
+		
+		/**
+		 * Records a planned change to one of the API's documents.
+		 *
+		 * @param name  the name of the document
+		 * @param action  the planned action for the document
+		 */
+		public void addDocument(String name, Action action) {
+			documentChanges.add( new DocumentChange( name, action ) );
+		}
+		
+		/**
+		 * Returns the planned action for the API.
+		 *
+		 * @return Action
+		 */
+		public Action getAction() {
+			return action;
+		}
+		
+		/**
+		 * Returns the context under which the API is published.
+		 *
+		 * @return String
+		 */
+		public String getContext() {
+			return context;
+		}
+		
+		/**
+		 * Returns the name of the API.
+		 *
+		 * @return String
+		 */
+		public String getApiName() {
+			return apiName;
+		}
+		
+		/**
+		 * Returns the version of the API.
+		 *
+		 * @return String
+		 */
+		public String getApiVersion() {
+			return apiVersion;
+		}
+		
+		/**
+		 * Returns the ID of the existing API (null for new API's).
+		 *
+		 * @return String
+		 */
+		public String getApiId() {
+			return apiId;
+		}
+		
+		/**
+		 * Returns the SHA-256 hash of the API's Swagger document.
+		 *
+		 * @return String
+		 */
+		public String getSwaggerHash() {
+			return swaggerHash;
+		}
+		
+		/**
+		 * Returns the planned changes to the API's documents.
+		 *
+		 * @return List<DocumentChange>
+		 */
+		public List<DocumentChange> getDocumentChanges() {
+			return documentChanges;
+		}
+		
+	}
+	
+	/**
+	 * A planned change to a single API document.
+	 */
+	public static class DocumentChange {
+		
+		private String name;
+		private Action action;
+		
+		/**
+		 * Constructor that specifies the document name and planned action.
+		 *
+		 * @param name  the name of the document
+		 * @param action  the planned action for the document
+		 */
+		public DocumentChange(String name, Action action) {
+			this.name = name;
+			this.action = action;
+		}
+		
+		/**
+		 * Returns the name of the document.
+		 *
+		 * @return String
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * Returns the planned action for the document.
+		 *
+		 * @return Action
+		 */
+		public Action getAction() {
+			return action;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.ClientOpts;
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.DefaultGenerator;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.opentravel.otm.forum2016.am.SwaggerDocument;
+
+/**
+ * Generates the HTML documentation for Swagger API's on a background thread pool so
+ * that documentation generation can overlap with the publication of the API's
+ * themselves.  Generated documentation is stored in a cache folder keyed by the hash of
+ * the Swagger content, and generation is skipped for any Swagger document whose content
+ * has not changed since the last build.
+ *
+ * @author S. Livezey
+ */
+public class SwaggerDocGenerator {
+	
+	public static final int DEFAULT_THREADS = 2;
+	
+	private static final String SWAGGER_DOCUMENT_FORMAT = "html";
+	private static final String HTML_DOC_FILENAME = "index.html";
+	
+	private static Class<? extends CodegenConfig> swaggerDocConfigType;
+	
+	private File cacheFolder;
+	private ExecutorService executor;
+	
+	/**
+	 * Constructor that specifies the cache folder and the size of the generator's
+	 * thread pool.
+	 *
+	 * @param cacheFolder  the folder where generated documentation is cached
+	 * @param threads  the maximum number of documents to generate concurrently
+	 */
+	public SwaggerDocGenerator(File cacheFolder, int threads) {
+		this.cacheFolder = cacheFolder;
+		this.executor = Executors.newFixedThreadPool( Math.max( 1, threads ) );
+	}
+	
+	/**
+	 * Submits the given Swagger document for HTML documentation generation.  The future
+	 * that is returned provides the generated (or previously cached) HTML file.
+	 *
+	 * @param swaggerDoc  the Swagger document for which to generate documentation
+	 * @return Future<File>
+	 */
+	public Future<File> submit(final SwaggerDocument swaggerDoc) {
+		return executor.submit( new Callable<File>() {
+			public File call() throws Exception {
+				return generateDocumentation( swaggerDoc );
+			}
+		});
+	}
+	
+	/**
+	 * Shuts down the generator's thread pool.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+	/**
+	 * Generates the HTML documentation for the given Swagger document and returns the
+	 * resulting file.  If documentation for the same Swagger content already exists in
+	 * the cache, the cached file is returned without regenerating it.
+	 *
+	 * @param swaggerDoc  the Swagger document for which to generate documentation
+	 * @return File
+	 * @throws IOException  thrown if the documentation cannot be generated
+	 */
+	private File generateDocumentation(SwaggerDocument swaggerDoc) throws IOException {
+		File swaggerFile = swaggerDoc.getSwaggerFile();
+		File docFolder = new File( cacheFolder, swaggerDoc.getContentHash() );
+		File docFile = new File( docFolder, HTML_DOC_FILENAME );
+		
+		if (!docFile.exists()) {
+			Files.createDirectories( cacheFolder.toPath() );
+			File tempFolder = Files.createTempDirectory( cacheFolder.toPath(), "html-" ).toFile();
+			
+			try {
+				// The publisher never builds a full Swagger model; SwaggerDocument reads only
+				// the 'info' section so that the API definition can be streamed from disk.
+				// The document is therefore parsed here, once, and only on a cache miss.
+				Swagger swagger = new SwaggerParser().read( swaggerFile.getAbsolutePath() );
+				ClientOptInput docgenInput = new ClientOptInput().opts( new ClientOpts() ).swagger( swagger );
+				CodegenConfig swaggerDocConfig = newSwaggerDocumentConfig();
+				
+				swaggerDocConfig.additionalProperties().put( "appName", swaggerDoc.getApiName() + " API Specification" );
+				swaggerDocConfig.additionalProperties().put( "version", swaggerDoc.getApiVersion() );
+				swaggerDocConfig.additionalProperties().put( "appDescription", swaggerDoc.getDescription() );
+				swaggerDocConfig.additionalProperties().put( "infoUrl", "http://www.opentravel.org" );
+				swaggerDocConfig.additionalProperties().put( "infoEmail", "info@opentravel.org" );
+				swaggerDocConfig.setOutputDir( tempFolder.getAbsolutePath() );
+				docgenInput.setConfig( swaggerDocConfig );
+				new DefaultGenerator().opts( docgenInput ).generate();
+				
+				// Move the finished documentation into place so that a partially generated
+				// file is never mistaken for a cached one
+				Files.createDirectories( docFolder.toPath() );
+				Files.move( new File( tempFolder, HTML_DOC_FILENAME ).toPath(), docFile.toPath(),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+				
+			} finally {
+				deleteFolder( tempFolder );
+			}
+		}
+		return docFile;
+	}
+	
+	/**
+	 * Recursively deletes the specified folder and its contents.
+	 *
+	 * @param folder  the folder to delete
+	 */
+	private static void deleteFolder(File folder) {
+		File[] folderItems = folder.listFiles();
+		
+		if (folderItems != null) {
+			for (File folderItem : folderItems) {
+				deleteFolder( folderItem );
+			}
+		}
+		folder.delete();
+	}
+	
+	/**
+	 * Returns a new instance of the Swagger code generation configuration for HTML
+	 * documentation.  The configuration class is located through the
+	 * <code>ServiceLoader</code> only once, but a new instance is created for each
+	 * generation since configurations retain state between runs.
+	 *
+	 * @return CodegenConfig
+	 * @throws IOException  thrown if the configuration cannot be created
+	 */
+	private static CodegenConfig newSwaggerDocumentConfig() throws IOException {
+		try {
+			return getSwaggerDocumentConfigType().newInstance();
+			
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new IOException("Unable to create the Swagger documentation configuration.", e);
+		}
+	}
+	
+	/**
+	 * Returns the type of the Swagger code generation configuration for generating HTML
+	 * documentation.
+	 *
+	 * @return Class<? extends CodegenConfig>
+	 * @throws IOException  thrown if no HTML configuration is available
+	 */
+	private static synchronized Class<? extends CodegenConfig> getSwaggerDocumentConfigType() throws IOException {
+		if (swaggerDocConfigType == null) {
+			for (CodegenConfig config : ServiceLoader.load( CodegenConfig.class )) {
+				if (SWAGGER_DOCUMENT_FORMAT.equals( config.getName() )) {
+					swaggerDocConfigType = config.getClass();
+					break;
+				}
+			}
+			if (swaggerDocConfigType == null) {
+				throw new IOException("Swagger code generation configuration not found: " + SWAGGER_DOCUMENT_FORMAT);
+			}
+		}
+		return swaggerDocConfigType;
+	}
+	
+}
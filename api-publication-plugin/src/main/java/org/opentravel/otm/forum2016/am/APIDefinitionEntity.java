@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.opentravel.otm.forum2016.util.JsonUtils;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * HTTP entity that writes the JSON representation of an API directly to the request
+ * stream.  If the API's definition is provided as a file, the content of the file is
+ * escaped on the fly and written as the value of the 'apiDefinition' field, so the
+ * Swagger document is never held in memory as a string.
+ * 
+ * @author S. Livezey
+ */
+public class APIDefinitionEntity extends AbstractHttpEntity {
+	
+	private APIDetails api;
+	
+	/**
+	 * Constructor that specifies the API to be written.
+	 * 
+	 * @param api  the API whose JSON representation is the content of the entity
+	 */
+	public APIDefinitionEntity(APIDetails api) {
+		this.api = api;
+		setContentType( ContentType.APPLICATION_JSON.toString() );
+		setChunked( true );
+	}
+	
+	/**
+	 * @see org.apache.http.HttpEntity#writeTo(java.io.OutputStream)
+	 */
+	@Override
+	public void writeTo(OutputStream outstream) throws IOException {
+		Writer out = new BufferedWriter( new OutputStreamWriter( outstream, StandardCharsets.UTF_8 ) );
+		
+		if (api.getApiDefinitionFile() == null) {
+			APIManagerJson.getGson().toJson( api, APIDetails.class, out );
+			
+		} else {
+			JsonWriter jsonWriter = new JsonWriter( out );
+			
+			// Null fields are omitted, as they are by the shared Gson instance and by the
+			// JSON objects that were previously sent for create and update requests.  The
+			// closing brace is written manually after the streamed definition, so the
+			// JSON writer is flushed but never closed.
+			jsonWriter.setSerializeNulls( false );
+			jsonWriter.beginObject();
+			api.writeFields( jsonWriter );
+			jsonWriter.flush();
+			out.write( ",\"apiDefinition\":\"" );
+			
+			try (Reader in = Files.newBufferedReader( api.getApiDefinitionFile().toPath(), StandardCharsets.UTF_8 )) {
+				JsonUtils.writeEscaped( in, out );
+			}
+			out.write( "\"}" );
+		}
+		out.flush();
+	}
+	
+	/**
+	 * @see org.apache.http.HttpEntity#getContent()
+	 */
+	@Override
+	public InputStream getContent() throws IOException {
+		Path contentFile = Files.createTempFile( "api-definition-", ".json" );
+		boolean success = false;
+		
+		// The content is only needed as a stream by callers that consume the entity
+		// outside of the request (e.g. EntityUtils), so it is spooled to a temporary
+		// file that is deleted when the stream is closed.
+		try {
+			try (OutputStream out = Files.newOutputStream( contentFile )) {
+				writeTo( out );
+			}
+			InputStream in = Files.newInputStream( contentFile, StandardOpenOption.DELETE_ON_CLOSE );
+			
+			success = true;
+			return in;
+			
+		} finally {
+			if (!success) {
+				Files.deleteIfExists( contentFile );
+			}
+		}
+	}
+	
+	/**
+	 * @see org.apache.http.HttpEntity#getContentLength()
+	 */
+	@Override
+	public long getContentLength() {
+		return -1L;
+	}
+	
+	/**
+	 * @see org.apache.http.HttpEntity#isRepeatable()
+	 */
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+	
+	/**
+	 * @see org.apache.http.HttpEntity#isStreaming()
+	 */
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+	
+}
@@ -16,13 +16,18 @@
 
 package org.opentravel.otm.forum2016.am;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import org.opentravel.otm.forum2016.util.JsonUtils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Details of an API that has been registered with the API Manager application.
@@ -41,6 +46,7 @@ public class APIDetails extends APISummary {
 	private String productionEndpointUrl;
 	private boolean destinationStatsEnabled;
 	private String apiDefinition;
+	private File apiDefinitionFile;
 	private boolean responseCachingEnabled;
 	private boolean defaultVersion;
 	private String technicalOwner;
@@ -56,105 +62,194 @@ public class APIDetails extends APISummary {
 	public APIDetails() {}
 	
 	/**
-	 * Constructor that obtains all information from the API Manger JSON response.
-	 * 
-	 * @param jsonValues  the JSON field values for the API
-	 */
-	@SuppressWarnings("unchecked")
-	public APIDetails(Map<String,Object> jsonValues) {
-		super( jsonValues );
-		Map<String,Object> jsonBizInfo = (Map<String,Object>) jsonValues.get( "businessInformation" );
-		Double jsonCacheTimeout = (Double) jsonValues.get( "cacheTimeout" );
-		String jsonEndpointConfig = (String) jsonValues.get( "endpointConfig" );
-		String jsonVisibilty = (String) jsonValues.get( "visibility" );
-		Boolean jsonDefaultVersion = (Boolean) jsonValues.get( "defaultVersion" );
-		
-		this.tiers = (List<String>) jsonValues.get( "tiers" );
-		this.thumbnailUrl = (String) jsonValues.get( "thumbnailUrl" );
+	 * @see org.opentravel.otm.forum2016.am.APISummary#readField(java.lang.String, com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	protected boolean readField(String fieldName, JsonReader reader) throws IOException {
+		boolean recognized = true;
 		
-		if (jsonVisibilty != null) {
-			this.visibility = APIVisibility.valueOf( jsonVisibilty );
+		switch (fieldName) {
+			case "tiers":
+				this.tiers = JsonUtils.nextStringList( reader );
+				break;
+			case "thumbnailUrl":
+				this.thumbnailUrl = JsonUtils.nextString( reader );
+				break;
+			case "visibility":
+				String jsonVisibility = JsonUtils.nextString( reader );
+				this.visibility = (jsonVisibility == null) ? null : APIVisibility.valueOf( jsonVisibility );
+				break;
+			case "visibleRoles":
+				this.visibleRoles = JsonUtils.nextStringList( reader );
+				break;
+			case "visibleTenants":
+				this.visibleTenants = JsonUtils.nextStringList( reader );
+				break;
+			case "cacheTimeout":
+				String jsonCacheTimeout = JsonUtils.nextString( reader );
+				this.cacheTimeout = (jsonCacheTimeout == null) ? null : (int) Double.parseDouble( jsonCacheTimeout );
+				break;
+			case "endpointConfig":
+				readEndpointConfig( JsonUtils.nextString( reader ) );
+				break;
+			case "destinationStatsEnabled":
+				this.destinationStatsEnabled = "Enabled".equals( JsonUtils.nextString( reader ) );
+				break;
+			case "apiDefinition":
+				this.apiDefinition = JsonUtils.nextString( reader );
+				break;
+			case "responseCaching":
+				this.responseCachingEnabled = "Enabled".equals( JsonUtils.nextString( reader ) );
+				break;
+			case "defaultVersion":
+			case "isDefaultVersion":
+				this.defaultVersion = "true".equals( JsonUtils.nextString( reader ) );
+				break;
+			case "businessInformation":
+				readBusinessInformation( reader );
+				break;
+			case "transport":
+				this.transports = JsonUtils.nextStringList( reader );
+				break;
+			case "tags":
+				this.tags = JsonUtils.nextStringList( reader );
+				break;
+			default:
+				recognized = super.readField( fieldName, reader );
+				break;
 		}
-		this.visibleRoles = (List<String>) jsonValues.get( "visibleRoles" );
-		this.visibleTenants = (List<String>) jsonValues.get( "visibleTenants" );
-		if (jsonCacheTimeout != null) {
-			this.cacheTimeout = jsonCacheTimeout.intValue();
-		}
-		if (jsonEndpointConfig != null) {
-			JsonObject ecValue = new Gson().fromJson( jsonEndpointConfig, JsonObject.class );
-			JsonObject jsonProdEndpoint = ecValue.getAsJsonObject( "production_endpoints" );
-			
-			this.productionEndpointUrl = jsonProdEndpoint.get( "url" ).getAsString();
-			this.productionEndpointType = ecValue.get( "endpoint_type" ).getAsString();
-		}
-		this.destinationStatsEnabled = "Enabled".equals( (String) jsonValues.get( "destinationStatsEnabled" ) );
-		this.apiDefinition = (String) jsonValues.get( "apiDefinition" );
-		this.responseCachingEnabled = "Enabled".equals( (String) jsonValues.get( "responseCaching" ) );
-		this.defaultVersion = (jsonDefaultVersion != null) && jsonDefaultVersion.booleanValue();
-		
-		if (jsonBizInfo != null) {
-			this.technicalOwner = (String) jsonBizInfo.get( "technicalOwner" );
-			this.technicalOwnerEmail = (String) jsonBizInfo.get( "technicalOwnerEmail" );
-			this.businessOwner = (String) jsonBizInfo.get( "businessOwner" );
-			this.businessOwnerEmail = (String) jsonBizInfo.get( "businessOwnerEmail" );
+		return recognized;
+	}
+	
+	/**
+	 * Assigns the production endpoint fields from the given endpoint configuration.  In
+	 * the API Manager representation, the configuration is a JSON document that is embedded
+	 * as a string value.
+	 * 
+	 * @param endpointConfig  the endpoint configuration JSON string (may be null)
+	 * @throws IOException  thrown if the endpoint configuration is not valid JSON
+	 */
+	private void readEndpointConfig(String endpointConfig) throws IOException {
+		if (endpointConfig != null) {
+			try (JsonReader reader = new JsonReader( new StringReader( endpointConfig ) )) {
+				reader.beginObject();
+				
+				while (reader.hasNext()) {
+					String fieldName = reader.nextName();
+					
+					if (fieldName.equals( "endpoint_type" )) {
+						this.productionEndpointType = JsonUtils.nextString( reader );
+						
+					} else if (fieldName.equals( "production_endpoints" ) && (reader.peek() == JsonToken.BEGIN_OBJECT)) {
+						reader.beginObject();
+						
+						while (reader.hasNext()) {
+							if (reader.nextName().equals( "url" )) {
+								this.productionEndpointUrl = JsonUtils.nextString( reader );
+							} else {
+								reader.skipValue();
+							}
+						}
+						reader.endObject();
+						
+					} else {
+						reader.skipValue();
+					}
+				}
+				reader.endObject();
+			}
 		}
-		this.transports = (List<String>) jsonValues.get( "transport" );
-		this.tags = (List<String>) jsonValues.get( "tags" );
 	}
 	
 	/**
-	 * Returns this instance as a JSON object.
+	 * Assigns the owner fields from the 'businessInformation' object of the API.
 	 * 
-	 * @return JsonObject
+	 * @param reader  the JSON reader positioned at the business information object
+	 * @throws IOException  thrown if the business information cannot be read
 	 */
-	public JsonObject toJson() {
-		JsonObject jsonEndpointConfig = new JsonObject();
-		JsonObject jsonProdEndpoint = new JsonObject();
-		JsonObject jsonBizInfo = new JsonObject();
-		JsonObject json = super.toJson();
+	private void readBusinessInformation(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			
+		} else {
+			reader.beginObject();
+			
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+					case "technicalOwner":
+						this.technicalOwner = JsonUtils.nextString( reader );
+						break;
+					case "technicalOwnerEmail":
+						this.technicalOwnerEmail = JsonUtils.nextString( reader );
+						break;
+					case "businessOwner":
+						this.businessOwner = JsonUtils.nextString( reader );
+						break;
+					case "businessOwnerEmail":
+						this.businessOwnerEmail = JsonUtils.nextString( reader );
+						break;
+					default:
+						reader.skipValue();
+						break;
+				}
+			}
+			reader.endObject();
+		}
+	}
+	
+	/**
+	 * @see org.opentravel.otm.forum2016.am.APISummary#writeFields(com.google.gson.stream.JsonWriter)
+	 */
+	@Override
+	protected void writeFields(JsonWriter writer) throws IOException {
+		super.writeFields( writer );
+		writer.name( "sequences" ).beginArray().endArray();
+		JsonUtils.writeStringList( writer, "tiers", tiers );
+		writer.name( "thumbnailUrl" ).value( thumbnailUrl );
+		writer.name( "visibility" ).value( (visibility == null) ? null : visibility.toString() );
+		JsonUtils.writeStringList( writer, "visibleRoles", visibleRoles );
+		JsonUtils.writeStringList( writer, "visibleTenants", visibleTenants );
+		writer.name( "cacheTimeout" ).value( cacheTimeout );
+		writer.name( "endpointConfig" ).value( getEndpointConfig() );
+		writer.name( "subscriptionAvailability" ).nullValue();
+		writer.name( "subscriptionAvailableTenants" ).beginArray().endArray();
+		writer.name( "destinationStatsEnabled" ).value( destinationStatsEnabled ? "Enabled" : "Disabled" );
 		
-		json.add( "sequences", new JsonArray() );
-		json.add( "tiers", toJsonArray( tiers ) );
-		json.addProperty( "thumbnailUrl", thumbnailUrl );
-		json.addProperty( "visibility", (visibility == null) ? null : visibility.toString() );
-		json.add( "visibleRoles", toJsonArray( visibleRoles ) );
-		json.add( "visibleTenants", toJsonArray( visibleTenants ) );
-		json.addProperty( "cacheTimeout", cacheTimeout );
-		jsonEndpointConfig.add( "production_endpoints", jsonProdEndpoint );
-		jsonEndpointConfig.addProperty( "endpoint_type", productionEndpointType );
-		jsonProdEndpoint.addProperty( "url", productionEndpointUrl );
-		jsonProdEndpoint.add( "config", null );
-		json.addProperty( "endpointConfig", jsonEndpointConfig.toString() );
-		json.add( "subscriptionAvailability", null );
-		json.add( "subscriptionAvailableTenants", new JsonArray() );
-		json.addProperty( "destinationStatsEnabled", destinationStatsEnabled ? "Enabled" : "Disabled" );
-		json.addProperty( "apiDefinition", apiDefinition );
-		json.addProperty( "responseCaching", responseCachingEnabled ? "Enabled" : "Disabled" );
-		json.addProperty( "isDefaultVersion", defaultVersion );
-		json.addProperty( "gatewayEnvironments", "Production and Sandbox" );
-		jsonBizInfo.addProperty( "technicalOwner", technicalOwner );
-		jsonBizInfo.addProperty( "technicalOwnerEmail", technicalOwnerEmail );
-		jsonBizInfo.addProperty( "businessOwner", businessOwner );
-		jsonBizInfo.addProperty( "businessOwnerEmail", businessOwnerEmail );
-		json.add( "businessInformation", jsonBizInfo );
-		json.add( "transport", toJsonArray( transports ) );
-		json.add( "tags", toJsonArray( tags ) );
-		return json;
+		if (apiDefinitionFile == null) { // otherwise streamed from the file by APIDefinitionEntity
+			writer.name( "apiDefinition" ).value( apiDefinition );
+		}
+		writer.name( "responseCaching" ).value( responseCachingEnabled ? "Enabled" : "Disabled" );
+		writer.name( "isDefaultVersion" ).value( defaultVersion );
+		writer.name( "gatewayEnvironments" ).value( "Production and Sandbox" );
+		writer.name( "businessInformation" ).beginObject();
+		writer.name( "technicalOwner" ).value( technicalOwner );
+		writer.name( "technicalOwnerEmail" ).value( technicalOwnerEmail );
+		writer.name( "businessOwner" ).value( businessOwner );
+		writer.name( "businessOwnerEmail" ).value( businessOwnerEmail );
+		writer.endObject();
+		JsonUtils.writeStringList( writer, "transport", transports );
+		JsonUtils.writeStringList( writer, "tags", tags );
 	}
 	
 	/**
-	 * Returns the given list of strings as an array of JSON string values.
+	 * Returns the endpoint configuration of the API as a JSON string.
 	 * 
-	 * @param list  the list of strings to convert
-	 * @return JsonArray
+	 * @return String
+	 * @throws IOException  thrown if the endpoint configuration cannot be written
 	 */
-	private JsonArray toJsonArray(List<String> list) {
-		JsonArray jsonArray = new JsonArray();
+	private String getEndpointConfig() throws IOException {
+		StringWriter endpointConfig = new StringWriter();
 		
-		for (String value : list) {
-			jsonArray.add( value );
+		try (JsonWriter writer = new JsonWriter( endpointConfig )) {
+			writer.beginObject();
+			writer.name( "production_endpoints" ).beginObject();
+			writer.name( "url" ).value( productionEndpointUrl );
+			writer.name( "config" ).nullValue();
+			writer.endObject();
+			writer.name( "endpoint_type" ).value( productionEndpointType );
+			writer.endObject();
 		}
-		return jsonArray;
+		return endpointConfig.toString();
 	}
 
 	/**
@@ -310,6 +405,26 @@ public class APIDetails extends APISummary {
 		this.apiDefinition = apiDefinition;
 	}
 
+	/**
+	 * Returns the file from which the API definition will be streamed when the API is
+	 * published.  If assigned, this takes the place of the 'apiDefinition' field.
+	 *
+	 * @return File
+	 */
+	public File getApiDefinitionFile() {
+		return apiDefinitionFile;
+	}
+
+	/**
+	 * Assigns the file from which the API definition will be streamed when the API is
+	 * published.
+	 *
+	 * @param apiDefinitionFile  the field value to assign
+	 */
+	public void setApiDefinitionFile(File apiDefinitionFile) {
+		this.apiDefinitionFile = apiDefinitionFile;
+	}
+
 	/**
 	 * Returns the value of the 'responseCachingEnabled' field.
 	 *
@@ -16,9 +16,12 @@
 
 package org.opentravel.otm.forum2016.am;
 
-import java.util.Map;
+import java.io.IOException;
 
-import com.google.gson.JsonObject;
+import org.opentravel.otm.forum2016.util.JsonUtils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Describes a document that is associated with a published API.
@@ -42,38 +45,66 @@ public class APIDocument {
 	public APIDocument() {}
 	
 	/**
-	 * Constructor that obtains all information from the API Manger JSON response.
+	 * Assigns the value of the given field from the API Manager JSON representation of
+	 * the document.  Returns false if the field is not recognized, in which case the
+	 * caller is responsible for skipping its value.
 	 * 
-	 * @param jsonValues  the JSON field values for the API
-	 */
-	public APIDocument(Map<String,Object> jsonValues) {
-		this.id = (String) jsonValues.get( "documentId" );
-		this.name = (String) jsonValues.get( "name" );
-		this.summary = (String) jsonValues.get( "summary" );
-		this.type = (String) jsonValues.get( "type" );
-		this.otherTypeName = (String) jsonValues.get( "otherTypeName" );
-		this.visibility = (String) jsonValues.get( "visibility" );
-		this.sourceType = (String) jsonValues.get( "sourceType" );
-		this.sourceUrl = (String) jsonValues.get( "sourceUrl" );
+	 * @param fieldName  the name of the JSON field
+	 * @param reader  the JSON reader positioned at the value of the field
+	 * @return boolean
+	 * @throws IOException  thrown if the field value cannot be read
+	 */
+	protected boolean readField(String fieldName, JsonReader reader) throws IOException {
+		boolean recognized = true;
+		
+		switch (fieldName) {
+			case "documentId":
+				this.id = JsonUtils.nextString( reader );
+				break;
+			case "name":
+				this.name = JsonUtils.nextString( reader );
+				break;
+			case "summary":
+				this.summary = JsonUtils.nextString( reader );
+				break;
+			case "type":
+				this.type = JsonUtils.nextString( reader );
+				break;
+			case "otherTypeName":
+				this.otherTypeName = JsonUtils.nextString( reader );
+				break;
+			case "visibility":
+				this.visibility = JsonUtils.nextString( reader );
+				break;
+			case "sourceType":
+				this.sourceType = JsonUtils.nextString( reader );
+				break;
+			case "sourceUrl":
+				this.sourceUrl = JsonUtils.nextString( reader );
+				break;
+			default:
+				recognized = false;
+				break;
+		}
+		return recognized;
 	}
 	
 	/**
-	 * Returns this instance as a JSON object.
+	 * Writes the fields of this instance to the API Manager JSON representation of the
+	 * document.
 	 * 
-	 * @return JsonObject
-	 */
-	public JsonObject toJson() {
-		JsonObject json = new JsonObject();
-		
-		json.addProperty( "documentId", id );
-		json.addProperty( "name", name );
-		json.addProperty( "summary", summary );
-		json.addProperty( "type", type );
-		json.addProperty( "otherTypeName", otherTypeName );
-		json.addProperty( "visibility", visibility );
-		json.addProperty( "sourceType", sourceType );
-		json.addProperty( "sourceUrl", sourceUrl );
-		return json;
+	 * @param writer  the JSON writer positioned inside the document object
+	 * @throws IOException  thrown if the fields cannot be written
+	 */
+	protected void writeFields(JsonWriter writer) throws IOException {
+		writer.name( "documentId" ).value( id );
+		writer.name( "name" ).value( name );
+		writer.name( "summary" ).value( summary );
+		writer.name( "type" ).value( type );
+		writer.name( "otherTypeName" ).value( otherTypeName );
+		writer.name( "visibility" ).value( visibility );
+		writer.name( "sourceType" ).value( sourceType );
+		writer.name( "sourceUrl" ).value( sourceUrl );
 	}
 
 	/**
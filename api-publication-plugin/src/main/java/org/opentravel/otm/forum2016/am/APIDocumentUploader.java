@@ -0,0 +1,340 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Uploads (and deletes) the documents of an API concurrently.  The number of documents that are in
+ * flight at any one time is bounded by the size of the uploader's thread pool, and each
+ * document is retried independently so that a single failure does not abort the
+ * publication of the remaining documents.
+ * 
+ * <p>Only the content upload is repeated by the uploader, since uploading the same content
+ * to an existing document is safe.  The creation of a document record is not idempotent, so
+ * the uploader checks whether an earlier (apparently failed) request created the record
+ * before it sends another one.  Transient errors of the individual requests are handled by
+ * the <code>RetryPolicy</code> of the operations themselves.
+ *
+ * @author S. Livezey
+ */
+public class APIDocumentUploader {
+	
+	public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+	public static final int DEFAULT_MAX_ATTEMPTS  = 3;
+	
+	private static final long RETRY_DELAY = 1000L;
+	
+	private APIOperationFactory factory;
+	private ExecutorService executor;
+	private int maxAttempts;
+	
+	/**
+	 * Constructor that uses the default in-flight window and retry count.
+	 *
+	 * @param factory  the factory to use when creating API Manager operations
+	 */
+	public APIDocumentUploader(APIOperationFactory factory) {
+		this( factory, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_ATTEMPTS );
+	}
+	
+	/**
+	 * Constructor that specifies the in-flight window and retry count.
+	 *
+	 * @param factory  the factory to use when creating API Manager operations
+	 * @param maxInFlight  the maximum number of documents to upload concurrently
+	 * @param maxAttempts  the maximum number of attempts for each document
+	 */
+	public APIDocumentUploader(APIOperationFactory factory, int maxInFlight, int maxAttempts) {
+		this.factory = factory;
+		this.executor = Executors.newFixedThreadPool( Math.max( 1, maxInFlight ) );
+		this.maxAttempts = Math.max( 1, maxAttempts );
+	}
+	
+	/**
+	 * Uploads all of the given documents for the specified API and waits for the uploads
+	 * to complete.  Documents that do not yet exist on the server are created before their
+	 * content is uploaded.  The documents that could not be published after all retry
+	 * attempts are returned, along with the error that caused the final attempt to fail.
+	 *
+	 * @param apiId  the ID of the API with which the documents are associated
+	 * @param documents  the document files to upload, keyed by the document name
+	 * @param existingDocs  the list of existing documents associated with the API
+	 * @return Map<String,Throwable>
+	 */
+	public Map<String,Throwable> uploadAll(String apiId, Map<String,File> documents, List<APIDocument> existingDocs) {
+		List<Future<Void>> results = new ArrayList<>();
+		List<String> docNames = new ArrayList<>();
+		Map<String,Throwable> failedDocs = new LinkedHashMap<>();
+		
+		for (Map.Entry<String,File> entry : documents.entrySet()) {
+			String docName = entry.getKey();
+			
+			results.add( executor.submit( new UploadTask( apiId, docName, entry.getValue(),
+					findDocument( docName, existingDocs ) ) ) );
+			docNames.add( docName );
+		}
+		
+		for (int i = 0; i < results.size(); i++) {
+			try {
+				results.get( i ).get();
+				
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failedDocs.put( docNames.get( i ), e );
+				
+			} catch (ExecutionException e) {
+				failedDocs.put( docNames.get( i ), e.getCause() );
+			}
+		}
+		return failedDocs;
+	}
+	
+	/**
+	 * Deletes all of the given documents concurrently and waits for the deletions to
+	 * complete.  The number of documents that were successfully deleted is returned.
+	 *
+	 * @param documents  the documents to delete, keyed by the ID of the API that owns them
+	 * @return int
+	 */
+	public int deleteAll(Map<String,List<APIDocument>> documents) {
+		List<Future<Boolean>> results = new ArrayList<>();
+		int deleteCount = 0;
+		
+		for (Map.Entry<String,List<APIDocument>> entry : documents.entrySet()) {
+			for (APIDocument doc : entry.getValue()) {
+				results.add( executor.submit( new DeleteTask( entry.getKey(), doc ) ) );
+			}
+		}
+		
+		for (Future<Boolean> result : results) {
+			try {
+				if (result.get()) {
+					deleteCount++;
+				}
+				
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+				
+			} catch (ExecutionException e) {
+				// Ignore - failed deletions are not counted
+			}
+		}
+		return deleteCount;
+	}
+	
+	/**
+	 * Shuts down the uploader's thread pool.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+	/**
+	 * Returns the existing document with the given name or null if no such document
+	 * has been published.
+	 *
+	 * @param docName  the name of the document to find
+	 * @param existingDocs  the list of existing documents associated with the API
+	 * @return APIDocument
+	 */
+	private APIDocument findDocument(String docName, List<APIDocument> existingDocs) {
+		APIDocument apiDoc = null;
+		
+		for (APIDocument doc : existingDocs) {
+			if (docName.equals( doc.getName() )) {
+				apiDoc = doc;
+				break;
+			}
+		}
+		return apiDoc;
+	}
+	
+	/**
+	 * Task that creates (if necessary) and uploads the content of a single API document.
+	 */
+	private class UploadTask implements Callable<Void> {
+		
+		private String apiId;
+		private String docName;
+		private File docFile;
+		private APIDocument apiDoc;
+		private String contentType = "text/html";
+		private String otherTypeName;
+		
+		/**
+		 * Constructor that specifies the document to be uploaded.
+		 *
+		 * @param apiId  the ID of the API with which the document is associated
+		 * @param docName  the name of the document as it will appear in the API documentation listing
+		 * @param docFile  the document file to publish
+		 * @param apiDoc  the existing document record (may be null)
+		 */
+		public UploadTask(String apiId, String docName, File docFile, APIDocument apiDoc) {
+			String filename = docFile.getName();
+			
+			this.apiId = apiId;
+			this.docName = docName;
+			this.docFile = docFile;
+			this.apiDoc = apiDoc;
+			
+			if (filename.endsWith( ".schema.json" )) {
+				otherTypeName = "JSON Schema";
+				contentType = "application/json";
+				
+			} else if (filename.endsWith( ".xsd" )) {
+				otherTypeName = "XML Schema";
+				contentType = "application/xml";
+			}
+		}
+		
+		/**
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public Void call() throws Exception {
+			IOException lastError = null;
+			
+			for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+				try {
+					if (apiDoc == null) {
+						apiDoc = (attempt == 1) ? createDocument() : findOrCreateDocument();
+					}
+					uploadContent();
+					return null;
+					
+				} catch (IOException e) {
+					lastError = e;
+					
+					if (attempt < maxAttempts) {
+						Thread.sleep( RETRY_DELAY * attempt );
+					}
+				}
+			}
+			throw lastError;
+		}
+		
+		/**
+		 * Returns the document record if an earlier attempt managed to create it before
+		 * failing, or creates a new record otherwise.
+		 *
+		 * @return APIDocument
+		 * @throws IOException  thrown if an error occurs during the call to the API Manager
+		 */
+		private APIDocument findOrCreateDocument() throws IOException {
+			GetAllAPIDocumentsOperation getDocsOp = factory.newGetAllAPIDocumentsOperation();
+			APIDocument doc;
+			
+			getDocsOp.setApiId( apiId );
+			doc = findDocument( docName, getDocsOp.execute() );
+			
+			if (doc == null) {
+				doc = createDocument();
+			}
+			return doc;
+		}
+		
+		/**
+		 * Publishes a new document record for the document.
+		 *
+		 * @return APIDocument
+		 * @throws IOException  thrown if an error occurs during the call to the API Manager
+		 */
+		private APIDocument createDocument() throws IOException {
+			CreateAPIDocumentOperation createDocOp = factory.newCreateAPIDocumentOperation();
+			APIDocument newDoc = new APIDocument();
+			
+			newDoc.setName( docName );
+			newDoc.setSourceType( "FILE" );
+			newDoc.setType( (otherTypeName == null) ? "HOWTO" : "OTHER" );
+			newDoc.setOtherTypeName( otherTypeName );
+			newDoc.setVisibility( "API_LEVEL" );
+			
+			createDocOp.setApiId( apiId );
+			createDocOp.setDocument( newDoc );
+			return createDocOp.execute();
+		}
+		
+		/**
+		 * Uploads the content of the document.
+		 *
+		 * @throws IOException  thrown if an error occurs during the call to the API Manager
+		 */
+		private void uploadContent() throws IOException {
+			UploadAPIDocumentOperation uploadOp = factory.newUploadAPIDocumentOperation();
+			
+			uploadOp.setApiId( apiId );
+			uploadOp.setDocumentId( apiDoc.getId() );
+			uploadOp.setContentFile( docFile );
+			uploadOp.setContentType( contentType );
+			uploadOp.execute();
+		}
+		
+	}
+	
+	/**
+	 * Task that deletes a single API document.
+	 */
+	private class DeleteTask implements Callable<Boolean> {
+		
+		private String apiId;
+		private APIDocument apiDoc;
+		
+		/**
+		 * Constructor that specifies the document to be deleted.
+		 *
+		 * @param apiId  the ID of the API with which the document is associated
+		 * @param apiDoc  the document to delete
+		 */
+		public DeleteTask(String apiId, APIDocument apiDoc) {
+			this.apiId = apiId;
+			this.apiDoc = apiDoc;
+		}
+		
+		/**
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public Boolean call() throws Exception {
+			DeleteAPIDocumentOperation deleteDocOp = factory.newDeleteAPIDocumentOperation();
+			
+			deleteDocOp.setApiId( apiId );
+			deleteDocOp.setDocumentId( apiDoc.getId() );
+			
+			try {
+				deleteDocOp.execute();
+				return true;
+				
+			} catch (IOException e) {
+				return false;
+			}
+		}
+		
+	}
+	
+}
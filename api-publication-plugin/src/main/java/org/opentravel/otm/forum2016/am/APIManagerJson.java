@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Provides the shared <code>Gson</code> instance that is used to marshall and unmarshall
+ * API Manager content.  Type adapters are registered for each of the API Manager model
+ * classes so that their JSON representations are read and written directly, without
+ * reflection or intermediate maps.
+ * 
+ * @author S. Livezey
+ */
+public class APIManagerJson {
+	
+	private static final Gson gson = new GsonBuilder()
+			.registerTypeAdapter( APISummary.class, new APISummaryAdapter() )
+			.registerTypeAdapter( APIDetails.class, new APIDetailsAdapter() )
+			.registerTypeAdapter( APIDocument.class, new APIDocumentAdapter() )
+			.registerTypeAdapter( OAuth2AccessToken.class, new OAuth2AccessTokenAdapter() )
+			.disableHtmlEscaping().create();
+	
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private APIManagerJson() {}
+	
+	/**
+	 * Returns the shared <code>Gson</code> instance for API Manager content.
+	 * 
+	 * @return Gson
+	 */
+	public static Gson getGson() {
+		return gson;
+	}
+	
+	/**
+	 * Base class for type adapters of API Manager objects.  Null values and unrecognized
+	 * fields are handled here; the reading and writing of individual fields is delegated
+	 * to the model object.
+	 *
+	 * @param <T>  the type of model object handled by the adapter
+	 */
+	private static abstract class ObjectAdapter<T> extends TypeAdapter<T> {
+		
+		/**
+		 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+		 */
+		@Override
+		public T read(JsonReader reader) throws IOException {
+			T value = null;
+			
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				
+			} else {
+				value = newInstance();
+				reader.beginObject();
+				
+				while (reader.hasNext()) {
+					if (!readField( value, reader.nextName(), reader )) {
+						reader.skipValue();
+					}
+				}
+				reader.endObject();
+			}
+			return value;
+		}
+		
+		/**
+		 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
+		 */
+		@Override
+		public void write(JsonWriter writer, T value) throws IOException {
+			if (value == null) {
+				writer.nullValue();
+				
+			} else {
+				writer.beginObject();
+				writeFields( value, writer );
+				writer.endObject();
+			}
+		}
+		
+		/**
+		 * Returns a new (empty) instance of the model object.
+		 * 
+		 * @return T
+		 */
+		protected abstract T newInstance();
+		
+		/**
+		 * Assigns the value of the given field of the model object.
+		 * 
+		 * @param value  the model object being read
+		 * @param fieldName  the name of the JSON field
+		 * @param reader  the JSON reader positioned at the value of the field
+		 * @return boolean  false if the field is not recognized
+		 * @throws IOException  thrown if the field value cannot be read
+		 */
+		protected abstract boolean readField(T value, String fieldName, JsonReader reader) throws IOException;
+		
+		/**
+		 * Writes the fields of the model object.
+		 * 
+		 * @param value  the model object being written
+		 * @param writer  the JSON writer positioned inside the object
+		 * @throws IOException  thrown if the fields cannot be written
+		 */
+		protected abstract void writeFields(T value, JsonWriter writer) throws IOException;
+		
+	}
+	
+	/**
+	 * Type adapter for <code>APISummary</code> objects.
+	 */
+	private static class APISummaryAdapter extends ObjectAdapter<APISummary> {
+		
+		protected APISummary newInstance() {
+			return new APISummary();
+		}
+		
+		protected boolean readField(APISummary value, String fieldName, JsonReader reader) throws IOException {
+			return value.readField( fieldName, reader );
+		}
+		
+		protected void writeFields(APISummary value, JsonWriter writer) throws IOException {
+			value.writeFields( writer );
+		}
+		
+	}
+	
+	/**
+	 * Type adapter for <code>APIDetails</code> objects.
+	 */
+	private static class APIDetailsAdapter extends ObjectAdapter<APIDetails> {
+		
+		protected APIDetails newInstance() {
+			return new APIDetails();
+		}
+		
+		protected boolean readField(APIDetails value, String fieldName, JsonReader reader) throws IOException {
+			return value.readField( fieldName, reader );
+		}
+		
+		protected void writeFields(APIDetails value, JsonWriter writer) throws IOException {
+			value.writeFields( writer );
+		}
+		
+	}
+	
+	/**
+	 * Type adapter for <code>APIDocument</code> objects.
+	 */
+	private static class APIDocumentAdapter extends ObjectAdapter<APIDocument> {
+		
+		protected APIDocument newInstance() {
+			return new APIDocument();
+		}
+		
+		protected boolean readField(APIDocument value, String fieldName, JsonReader reader) throws IOException {
+			return value.readField( fieldName, reader );
+		}
+		
+		protected void writeFields(APIDocument value, JsonWriter writer) throws IOException {
+			value.writeFields( writer );
+		}
+		
+	}
+	
+	/**
+	 * Type adapter for the OAuth2 token server's response.
+	 */
+	private static class OAuth2AccessTokenAdapter extends ObjectAdapter<OAuth2AccessToken> {
+		
+		protected OAuth2AccessToken newInstance() {
+			return new OAuth2AccessToken();
+		}
+		
+		protected boolean readField(OAuth2AccessToken value, String fieldName, JsonReader reader) throws IOException {
+			return value.readField( fieldName, reader );
+		}
+		
+		protected void writeFields(OAuth2AccessToken value, JsonWriter writer) throws IOException {
+			value.writeFields( writer );
+		}
+		
+	}
+	
+}
@@ -17,19 +17,41 @@
 package org.opentravel.otm.forum2016.am;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -37,17 +59,36 @@ import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 import org.apache.http.ssl.SSLContexts;
 
 /**
  * Factory class used to create <code>APIManagerClientOperations</code>.  It also handles
- * the creation of OAuth2 access tokens.
+ * the creation of OAuth2 access tokens and owns the pooled HTTP client that is shared
+ * by all of the operations it creates.  The factory should be closed when it is no
+ * longer needed in order to release its pooled connections.
  * 
  * @author S. Livezey
  */
-public class APIOperationFactory {
+public class APIOperationFactory implements Closeable {
 	
-	private Map<String,OAuth2AccessToken> tokenRegistry = new HashMap<>();
+	public static final int DEFAULT_MAX_CONNECTIONS = 10;
+	public static final int DEFAULT_COMPRESSION_THRESHOLD = 4096;
+	
+	private static final long TOKEN_REFRESH_MARGIN = 60000L;
+	
+	private ConcurrentMap<String,Future<OAuth2AccessToken>> tokenRegistry = new ConcurrentHashMap<>();
+	private ConcurrentMap<String,String> scopeAliases = new ConcurrentHashMap<>();
+	private ConcurrentMap<String,CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+	private RetryPolicy retryPolicy = RetryPolicy.getInstance();
+	private ScheduledExecutorService refreshScheduler;
+	private Set<String> uncompressedHosts = Collections.newSetFromMap( new ConcurrentHashMap<String,Boolean>() );
+	private TrafficStatistics trafficStatistics = new TrafficStatistics();
+	private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+	private boolean compressRequests = true;
+	private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+	private CloseableHttpClient httpClient;
 	
 	/**
 	 * Returns a new <code>GetAllAPIsOperation</code> instance.
@@ -140,42 +181,464 @@ public class APIOperationFactory {
 	}
 	
 	/**
-	 * Returns an API Manager authorization token for the specified scope.
+	 * Requests a single access token that covers the security scopes of every operation
+	 * type created by this factory.  Once obtained, the combined token is used for all of
+	 * the scopes granted by the server.  If the server refuses the combined request (or
+	 * grants only some of the scopes), separate tokens will be requested on demand for the
+	 * remaining scopes.
+	 * 
+	 * @return boolean  true if a single token was granted for all of the required scopes
+	 */
+	public boolean initializeAccessToken() {
+		return initializeAccessToken( Arrays.<RESTClientOperation<?>>asList(
+				newGetAllAPIsOperation(), newGetAPIDetailsOperation(), newCreateAPIOperation(),
+				newUpdateAPIOperation(), newChangeAPIStatusOperation(), newDeleteAPIOperation(),
+				newGetAllAPIDocumentsOperation(), newCreateAPIDocumentOperation(),
+				newDeleteAPIDocumentOperation(), newUploadAPIDocumentOperation() ) );
+	}
+	
+	/**
+	 * Requests a single access token that covers the security scopes of the given
+	 * operations.
+	 * 
+	 * @param operations  the operations whose security scopes should be covered by the token
+	 * @return boolean  true if a single token was granted for all of the required scopes
+	 */
+	public boolean initializeAccessToken(List<RESTClientOperation<?>> operations) {
+		Set<String> requiredScopes = new TreeSet<>();
+		boolean success = false;
+		
+		for (RESTClientOperation<?> operation : operations) {
+			requiredScopes.add( operation.getSecurityScope() );
+		}
+		
+		if (requiredScopes.size() > 1) {
+			StringBuilder combinedScope = new StringBuilder();
+			
+			for (String scope : requiredScopes) {
+				if (combinedScope.length() > 0) combinedScope.append( ' ' );
+				combinedScope.append( scope );
+			}
+			
+			try {
+				OAuth2AccessToken token = getAccessToken( combinedScope.toString() );
+				Set<String> grantedScopes = requiredScopes;
+				
+				if (token.getScope() != null) {
+					grantedScopes = new HashSet<>( Arrays.asList( token.getScope().trim().split( "\\s+" ) ) );
+				}
+				for (String scope : requiredScopes) {
+					if (grantedScopes.contains( scope )) {
+						scopeAliases.put( scope, combinedScope.toString() );
+					}
+				}
+				success = grantedScopes.containsAll( requiredScopes );
+				
+			} catch (RuntimeException e) {
+				// Ignore - separate tokens will be requested for each scope
+			}
+		}
+		return success;
+	}
+	
+	/**
+	 * Returns an API Manager authorization token for the specified scope.  Tokens are
+	 * cached until they expire and are refreshed in the background shortly before their
+	 * expiration.  If a token for the scope is currently being requested, the caller will
+	 * wait for that request to complete instead of issuing a new one.
 	 * 
 	 * @param scope  the security scope for the token to return
 	 * @return OAuth2AccessToken
 	 */
-	protected synchronized OAuth2AccessToken getAccessToken(String scope) {
-		OAuth2AccessToken token = tokenRegistry.get( scope );
+	protected OAuth2AccessToken getAccessToken(String scope) {
+		OAuth2AccessToken token = null;
 		
-		if (token == null) {
-			OAuth2ClientConfig oauth2Config = OAuth2ClientConfig.getInstance();
-			HttpPost tokenRequest = new HttpPost( oauth2Config.getTokenUrl() );
-			StringBuilder postData = new StringBuilder()
-					.append( "grant_type=" ).append( oauth2Config.getGrantType() )
-					.append( "&username=" ).append( oauth2Config.getUserId() )
-					.append( "&password=" ).append( oauth2Config.getPassword() )
-					.append( "&scope=" ).append( scope );
+		while (token == null) {
+			String registryKey = getRegistryKey( scope );
+			Future<OAuth2AccessToken> tokenFuture = tokenRegistry.get( registryKey );
 			
-			tokenRequest.addHeader( "Content-Type", "application/x-www-form-urlencoded" );
-			tokenRequest.addHeader( "Authorization", "Basic " + Base64.encodeBase64String(
-					(oauth2Config.getClientKey() + ":" + oauth2Config.getClientSecret()).getBytes() ) );
-			tokenRequest.setEntity( new StringEntity( postData.toString(), Charset.defaultCharset() ) );
+			if (tokenFuture == null) {
+				TokenTask tokenTask = new TokenTask( registryKey, null, true );
+				
+				if ((tokenFuture = tokenRegistry.putIfAbsent( registryKey, tokenTask )) == null) {
+					tokenFuture = tokenTask;
+					tokenTask.run();
+				}
+			}
 			
-			try (CloseableHttpClient client = newHttpClient()) {
-				HttpResponse response = client.execute( tokenRequest );
-				String responsePayload = readPayload( response );
+			try {
+				token = tokenFuture.get();
 				
-				token = new OAuth2AccessToken( responsePayload );
-				tokenRegistry.put( scope, token );
+				if (token.isExpired()) { // background refresh did not succeed
+					tokenRegistry.remove( registryKey, tokenFuture );
+					token = null;
+				}
+				
+			} catch (ExecutionException e) {
+				tokenRegistry.remove( registryKey, tokenFuture );
+				
+				if (!scopeAliases.remove( scope, registryKey )) { // no per-scope fallback available
+					throw new RuntimeException("Error obtaining access token from the API managment server.", e.getCause());
+				}
+				
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while obtaining an access token.", e);
+			}
+		}
+		return token;
+	}
+	
+	/**
+	 * Discards the given token from the cache (e.g. because it was rejected by the API
+	 * Manager server) so that a new one will be requested on the next call to
+	 * <code>getAccessToken()</code>.
+	 * 
+	 * @param scope  the security scope of the token to discard
+	 * @param token  the token to discard
+	 */
+	protected void invalidateAccessToken(String scope, OAuth2AccessToken token) {
+		String registryKey = getRegistryKey( scope );
+		Future<OAuth2AccessToken> tokenFuture = tokenRegistry.get( registryKey );
+		
+		try {
+			if ((tokenFuture != null) && tokenFuture.isDone() && (tokenFuture.get() == token)) {
+				tokenRegistry.remove( registryKey, tokenFuture );
+			}
+			
+		} catch (InterruptedException | ExecutionException e) {
+			tokenRegistry.remove( registryKey, tokenFuture );
+		}
+	}
+	
+	/**
+	 * Returns the key of the token registry entry that holds the token for the given
+	 * scope.  This is the combined scope if the scope is covered by the token obtained
+	 * from <code>initializeAccessToken()</code>, or the scope itself otherwise.
+	 * 
+	 * @param scope  the security scope for which to return the registry key
+	 * @return String
+	 */
+	private String getRegistryKey(String scope) {
+		String combinedScope = scopeAliases.get( scope );
+		
+		return (combinedScope == null) ? scope : combinedScope;
+	}
+	
+	/**
+	 * Requests a new token from the OAuth2 token server.  If a refresh token is provided,
+	 * a refresh grant will be attempted first; if the refresh is rejected, this method
+	 * falls back to the configured grant type.
+	 * 
+	 * @param scope  the security scope of the token to request
+	 * @param refreshToken  the refresh token of the current token (may be null)
+	 * @return OAuth2AccessToken
+	 * @throws IOException  thrown if the token server cannot be reached or refuses the request
+	 */
+	private OAuth2AccessToken requestToken(String scope, String refreshToken) throws IOException {
+		OAuth2ClientConfig oauth2Config = OAuth2ClientConfig.getInstance();
+		OAuth2AccessToken token = null;
+		
+		if (refreshToken != null) {
+			try {
+				token = requestToken( new StringBuilder()
+						.append( "grant_type=refresh_token" )
+						.append( "&refresh_token=" ).append( urlEncode( refreshToken ) )
+						.append( "&scope=" ).append( urlEncode( scope ) ).toString() );
 				
 			} catch (IOException e) {
-				throw new RuntimeException("Error obtaining access token from the API managment server.", e);
+				// Ignore and fall back to the configured grant type
 			}
 		}
+		if (token == null) {
+			token = requestToken( new StringBuilder()
+					.append( "grant_type=" ).append( urlEncode( oauth2Config.getGrantType() ) )
+					.append( "&username=" ).append( urlEncode( oauth2Config.getUserId() ) )
+					.append( "&password=" ).append( urlEncode( oauth2Config.getPassword() ) )
+					.append( "&scope=" ).append( urlEncode( scope ) ).toString() );
+		}
 		return token;
 	}
 	
+	/**
+	 * Posts the given form data to the OAuth2 token server and returns the resulting token.
+	 * 
+	 * @param postData  the URL-encoded form data for the token request
+	 * @return OAuth2AccessToken
+	 * @throws IOException  thrown if the token server cannot be reached or refuses the request
+	 */
+	private OAuth2AccessToken requestToken(String postData) throws IOException {
+		OAuth2ClientConfig oauth2Config = OAuth2ClientConfig.getInstance();
+		HttpPost tokenRequest = new HttpPost( oauth2Config.getTokenUrl() );
+		
+		tokenRequest.addHeader( "Content-Type", "application/x-www-form-urlencoded" );
+		tokenRequest.addHeader( "Authorization", "Basic " + Base64.encodeBase64String(
+				(oauth2Config.getClientKey() + ":" + oauth2Config.getClientSecret()).getBytes() ) );
+		tokenRequest.setEntity( new StringEntity( postData, Charset.defaultCharset() ) );
+		
+		try (CloseableHttpResponse response = getHttpClient().execute( tokenRequest )) {
+			int statusCode = response.getStatusLine().getStatusCode();
+			String responsePayload = readPayload( response );
+			
+			if ((statusCode < 200) || (statusCode > 299)) {
+				throw new IOException("Token request refused [" + statusCode + "]:" + responsePayload);
+			}
+			return APIManagerJson.getGson().fromJson( responsePayload, OAuth2AccessToken.class );
+		}
+	}
+	
+	/**
+	 * Schedules a background refresh of the given token shortly before it expires.  If
+	 * the token does not specify an expiration or has already expired, no refresh is
+	 * scheduled.  Tokens whose lifetime is shorter than the refresh margin are refreshed
+	 * half-way through their lifetime so that the token server is not polled in a loop.
+	 * 
+	 * <p>The refresh is skipped if the registry entry has been invalidated or replaced in
+	 * the meantime, and the refreshed token only schedules its own refresh once it has
+	 * taken the place of the original entry in the registry.
+	 * 
+	 * @param scope  the security scope of the token
+	 * @param tokenFuture  the registry entry that currently holds the token
+	 * @param token  the token to be refreshed
+	 */
+	private void scheduleRefresh(final String scope, final Future<OAuth2AccessToken> tokenFuture,
+			final OAuth2AccessToken token) {
+		long lifetime = token.getExpirationTimestamp() - System.currentTimeMillis();
+		
+		if ((token.getExpirationTimestamp() > 0) && (lifetime > 0)) {
+			long delay = (lifetime > TOKEN_REFRESH_MARGIN) ? (lifetime - TOKEN_REFRESH_MARGIN) : (lifetime / 2);
+			
+			getRefreshScheduler().schedule( new Runnable() {
+				public void run() {
+					if (tokenRegistry.get( scope ) != tokenFuture) {
+						return; // token was invalidated or replaced since the refresh was scheduled
+					}
+					TokenTask refreshTask = new TokenTask( scope, token.getRefreshToken(), false );
+					
+					refreshTask.run();
+					
+					try {
+						OAuth2AccessToken refreshedToken = refreshTask.get();
+						
+						if (tokenRegistry.replace( scope, tokenFuture, refreshTask )) {
+							scheduleRefresh( scope, refreshTask, refreshedToken );
+						}
+						
+					} catch (InterruptedException | ExecutionException e) {
+						// Ignore - a new token will be requested once the current one expires
+					}
+				}
+			}, delay, TimeUnit.MILLISECONDS );
+		}
+	}
+	
+	/**
+	 * Returns the scheduler used to refresh tokens in the background.
+	 * 
+	 * @return ScheduledExecutorService
+	 */
+	private synchronized ScheduledExecutorService getRefreshScheduler() {
+		if (refreshScheduler == null) {
+			refreshScheduler = Executors.newSingleThreadScheduledExecutor( new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread( r, "oauth2-token-refresh" );
+					
+					t.setDaemon( true );
+					return t;
+				}
+			});
+		}
+		return refreshScheduler;
+	}
+	
+	/**
+	 * Returns the URL-encoded form of the given value.
+	 * 
+	 * @param value  the value to encode
+	 * @return String
+	 */
+	private static String urlEncode(String value) {
+		try {
+			return (value == null) ? "" : URLEncoder.encode( value, "UTF-8" );
+			
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException( e ); // should never happen
+		}
+	}
+	
+	/**
+	 * Returns the circuit breaker for the host of the given request URI.
+	 * 
+	 * @param requestUri  the URI of the request to be sent
+	 * @return CircuitBreaker
+	 */
+	protected CircuitBreaker getCircuitBreaker(URI requestUri) {
+		String host = requestUri.getAuthority();
+		CircuitBreaker circuitBreaker = circuitBreakers.get( host );
+		
+		if (circuitBreaker == null) {
+			CircuitBreaker newBreaker = new CircuitBreaker( host, retryPolicy );
+			
+			circuitBreaker = circuitBreakers.putIfAbsent( host, newBreaker );
+			
+			if (circuitBreaker == null) {
+				circuitBreaker = newBreaker;
+			}
+		}
+		return circuitBreaker;
+	}
+	
+	/**
+	 * Returns true if request bodies sent to the host of the given URI should be
+	 * compressed.  Compression is disabled for a host after it has rejected a
+	 * compressed request.
+	 * 
+	 * @param requestUri  the URI of the request to be sent
+	 * @return boolean
+	 */
+	protected boolean isCompressionEnabled(URI requestUri) {
+		return compressRequests && !uncompressedHosts.contains( requestUri.getAuthority() );
+	}
+	
+	/**
+	 * Disables the compression of request bodies for the host of the given URI.
+	 * 
+	 * @param requestUri  the URI of the request that was rejected by the host
+	 */
+	protected void disableCompression(URI requestUri) {
+		uncompressedHosts.add( requestUri.getAuthority() );
+	}
+	
+	/**
+	 * Returns the pooled HTTP client that is shared by all operations created by this
+	 * factory.  The client is created on first use and remains open until the factory
+	 * is closed.
+	 * 
+	 * <p>Connections are kept alive and reused across operations, and gzip-encoded
+	 * responses are accepted and decoded by the client.  The bytes received from the
+	 * server are counted before they are decoded.
+	 * 
+	 * @return CloseableHttpClient
+	 * @throws IOException  thrown if an error occurs while constructing the HTTP client
+	 */
+	protected synchronized CloseableHttpClient getHttpClient() throws IOException {
+		if (httpClient == null) {
+			httpClient = newHttpClientBuilder()
+					.setMaxConnTotal( maxConnections )
+					.setMaxConnPerRoute( maxConnections )
+					.addInterceptorFirst( new HttpResponseInterceptor() {
+						public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+							HttpEntity entity = response.getEntity();
+							
+							if (entity != null) {
+								response.setEntity( new CountingEntity( entity,
+										trafficStatistics.getBytesReceivedCounter() ) );
+							}
+						}
+					}).build();
+		}
+		return httpClient;
+	}
+	
+	/**
+	 * Closes the shared HTTP client and releases all of its pooled connections.
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (refreshScheduler != null) {
+			refreshScheduler.shutdownNow();
+			refreshScheduler = null;
+		}
+		if (httpClient != null) {
+			try {
+				httpClient.close();
+				
+			} finally {
+				httpClient = null;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the policy that controls the retry of failed API Manager requests.
+	 *
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+	
+	/**
+	 * Returns the maximum number of pooled connections that may be open concurrently
+	 * (default is 10).
+	 *
+	 * @return int
+	 */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+	
+	/**
+	 * Assigns the maximum number of pooled connections that may be open concurrently.
+	 * This value must be assigned before the first operation is executed.
+	 *
+	 * @param maxConnections  the connection limit to assign
+	 */
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+	
+	/**
+	 * Returns true if request bodies should be gzip-compressed when they are sent to the
+	 * server (default is true).
+	 *
+	 * @return boolean
+	 */
+	public boolean isCompressRequests() {
+		return compressRequests;
+	}
+	
+	/**
+	 * Assigns the flag indicating whether request bodies should be gzip-compressed when
+	 * they are sent to the server.
+	 *
+	 * @param compressRequests  the field value to assign
+	 */
+	public void setCompressRequests(boolean compressRequests) {
+		this.compressRequests = compressRequests;
+	}
+	
+	/**
+	 * Returns the minimum size (in bytes) of a request body that will be compressed
+	 * (default is 4096).  Bodies of unknown length are always compressed.
+	 *
+	 * @return int
+	 */
+	public int getCompressionThreshold() {
+		return compressionThreshold;
+	}
+	
+	/**
+	 * Assigns the minimum size (in bytes) of a request body that will be compressed.
+	 *
+	 * @param compressionThreshold  the field value to assign
+	 */
+	public void setCompressionThreshold(int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+	}
+	
+	/**
+	 * Returns the statistics for the HTTP traffic exchanged with the API Manager server
+	 * by the operations of this factory.
+	 *
+	 * @return TrafficStatistics
+	 */
+	public TrafficStatistics getTrafficStatistics() {
+		return trafficStatistics;
+	}
+	
 	/**
 	 * Returns a new HTTP client instance for use with API Manager REST API invocations.
 	 * 
@@ -183,6 +646,17 @@ public class APIOperationFactory {
 	 * @throws IOException  thrown if an error occurs while constructing the HTTP client
 	 */
 	public static CloseableHttpClient newHttpClient() throws IOException {
+		return newHttpClientBuilder().build();
+	}
+	
+	/**
+	 * Returns a new HTTP client builder that is configured for use with the API Manager
+	 * REST API's.
+	 * 
+	 * @return HttpClientBuilder
+	 * @throws IOException  thrown if an error occurs while constructing the SSL context
+	 */
+	private static HttpClientBuilder newHttpClientBuilder() throws IOException {
 		try {
 			SSLContext sslContext = SSLContexts.custom()
 			        .loadTrustMaterial(null, new TrustSelfSignedStrategy()).build();
@@ -190,12 +664,26 @@ public class APIOperationFactory {
 		            new SSLConnectionSocketFactory(sslContext, new NoopHostnameVerifier());
 			
 			return HttpClientBuilder.create().useSystemProperties()
-					.setSSLSocketFactory(connectionFactory).build();
+					.setSSLSocketFactory(connectionFactory);
 			
 		} catch (KeyManagementException | NoSuchAlgorithmException | KeyStoreException e) {
 			throw new IOException("Error constructing SSL context for HTTP client.",  e);
 		}
-
+	}
+	
+	/**
+	 * Consumes any remaining content of the HTTP response so that its connection can
+	 * be returned to the pool.
+	 * 
+	 * @param response  the HTTP response to consume
+	 */
+	public static void consumePayload(HttpResponse response) {
+		try {
+			EntityUtils.consume( response.getEntity() );
+			
+		} catch (IOException e) {
+			// Ignore - the connection will be discarded instead of re-used
+		}
 	}
 	
 	/**
@@ -224,4 +712,48 @@ public class APIOperationFactory {
 		return payload;
 	}
 	
+	/**
+	 * Future task that requests a token from the OAuth2 token server.  Once the token
+	 * has been obtained, a background refresh is scheduled for it unless the task is
+	 * itself a refresh (refresh tasks are re-armed by <code>scheduleRefresh()</code>).
+	 */
+	private class TokenTask extends FutureTask<OAuth2AccessToken> {
+		
+		private String scope;
+		private boolean scheduleRefresh;
+		
+		/**
+		 * Constructor that specifies the scope of the token to request.
+		 * 
+		 * @param scope  the security scope of the token to request
+		 * @param refreshToken  the refresh token to use for the request (may be null)
+		 * @param scheduleRefresh  flag indicating whether a refresh should be scheduled on completion
+		 */
+		public TokenTask(final String scope, final String refreshToken, boolean scheduleRefresh) {
+			super( new Callable<OAuth2AccessToken>() {
+				public OAuth2AccessToken call() throws Exception {
+					return requestToken( scope, refreshToken );
+				}
+			});
+			this.scope = scope;
+			this.scheduleRefresh = scheduleRefresh;
+		}
+		
+		/**
+		 * @see java.util.concurrent.FutureTask#done()
+		 */
+		@Override
+		protected void done() {
+			try {
+				if (scheduleRefresh && !isCancelled()) {
+					scheduleRefresh( scope, this, get() );
+				}
+				
+			} catch (InterruptedException | ExecutionException e) {
+				// No refresh required for failed token requests
+			}
+		}
+		
+	}
+	
 }
@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Removes stale API's from the API Manager concurrently.  Each API is moved through the
+ * lifecycle states required by the server (deprecated, then retired) before it is
+ * deleted.  The number of API's that are processed at any one time is bounded by the
+ * size of the retirer's thread pool.
+ *
+ * @author S. Livezey
+ */
+public class APIRetirer {
+	
+	public static final int DEFAULT_THREADS = 4;
+	
+	private APIOperationFactory factory;
+	private int threads;
+	
+	/**
+	 * Constructor that specifies the maximum number of API's to remove concurrently.
+	 *
+	 * @param factory  the factory to use when creating API Manager operations
+	 * @param threads  the maximum number of API's to remove concurrently
+	 */
+	public APIRetirer(APIOperationFactory factory, int threads) {
+		this.factory = factory;
+		this.threads = Math.max( 1, threads );
+	}
+	
+	/**
+	 * Retires and deletes all of the given API's and waits for the removals to complete.
+	 * The names of any API's that could not be removed are returned.
+	 *
+	 * @param apis  the API's to remove
+	 * @return List<String>
+	 */
+	public List<String> removeAll(List<APISummary> apis) {
+		ExecutorService executor = Executors.newFixedThreadPool( threads );
+		List<Future<Boolean>> results = new ArrayList<>();
+		List<String> failedApis = new ArrayList<>();
+		
+		try {
+			for (APISummary api : apis) {
+				results.add( executor.submit( new RemoveTask( api ) ) );
+			}
+			
+			for (int i = 0; i < results.size(); i++) {
+				APISummary api = apis.get( i );
+				
+				try {
+					if (!results.get( i ).get()) {
+						failedApis.add( api.getName() + " (" + api.getVersion() + ")" );
+					}
+					
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					failedApis.add( api.getName() + " (" + api.getVersion() + ")" );
+					
+				} catch (ExecutionException e) {
+					failedApis.add( api.getName() + " (" + api.getVersion() + ")" );
+				}
+			}
+			
+		} finally {
+			executor.shutdown();
+		}
+		return failedApis;
+	}
+	
+	/**
+	 * Task that moves a single API to the retired state and deletes it.
+	 */
+	private class RemoveTask implements Callable<Boolean> {
+		
+		private APISummary api;
+		
+		/**
+		 * Constructor that specifies the API to be removed.
+		 *
+		 * @param api  the API to remove
+		 */
+		public RemoveTask(APISummary api) {
+			this.api = api;
+		}
+		
+		/**
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public Boolean call() throws Exception {
+			String status = (api.getStatus() == null) ? "" : api.getStatus().toUpperCase();
+			
+			try {
+				if (status.equals( "PUBLISHED" ) || status.equals( "BLOCKED" )) {
+					changeStatus( APIStatusAction.DEPRECATE );
+					status = "DEPRECATED";
+				}
+				if (status.equals( "DEPRECATED" )) {
+					changeStatus( APIStatusAction.RETIRE );
+				}
+				DeleteAPIOperation deleteOp = factory.newDeleteAPIOperation();
+				
+				deleteOp.setId( api.getId() );
+				return deleteOp.execute();
+				
+			} catch (IOException e) {
+				return false;
+			}
+		}
+		
+		/**
+		 * Applies the given lifecycle action to the API.
+		 *
+		 * @param action  the lifecycle action to apply
+		 * @throws IOException  thrown if the status change is not successful
+		 */
+		private void changeStatus(APIStatusAction action) throws IOException {
+			ChangeAPIStatusOperation statusOp = factory.newChangeAPIStatusOperation();
+			
+			statusOp.setApiId( api.getId() );
+			statusOp.setAction( action );
+			
+			if (!statusOp.execute()) {
+				throw new IOException("Unable to change API status: " + action.getActionText());
+			}
+		}
+		
+	}
+	
+}
@@ -16,9 +16,12 @@
 
 package org.opentravel.otm.forum2016.am;
 
-import java.util.Map;
+import java.io.IOException;
 
-import com.google.gson.JsonObject;
+import org.opentravel.otm.forum2016.util.JsonUtils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Summary of an API that has been registered with the API Manager application.
@@ -41,50 +44,62 @@ public class APISummary {
 	public APISummary() {}
 	
 	/**
-	 * Constructor that obtains all information from the API Manger JSON response.
+	 * Assigns the value of the given field from the API Manager JSON representation of
+	 * the API.  Returns false if the field is not recognized, in which case the caller
+	 * is responsible for skipping its value.
 	 * 
-	 * @param jsonValues  the JSON field values for the API
+	 * @param fieldName  the name of the JSON field
+	 * @param reader  the JSON reader positioned at the value of the field
+	 * @return boolean
+	 * @throws IOException  thrown if the field value cannot be read
 	 */
-	public APISummary(Map<String,Object> jsonValues) {
-		this.id = (String) jsonValues.get( "id" );
-		this.name = (String) jsonValues.get( "name" );
-		this.version = (String) jsonValues.get( "version" );
-		this.context = (String) jsonValues.get( "context" );
-		this.provider = (String) jsonValues.get( "provider" );
-		this.description = (String) jsonValues.get( "description" );
-		this.status = (String) jsonValues.get( "status" );
+	protected boolean readField(String fieldName, JsonReader reader) throws IOException {
+		boolean recognized = true;
+		
+		switch (fieldName) {
+			case "id":
+				this.id = JsonUtils.nextString( reader );
+				break;
+			case "name":
+				this.name = JsonUtils.nextString( reader );
+				break;
+			case "version":
+				this.version = JsonUtils.nextString( reader );
+				break;
+			case "context":
+				this.context = JsonUtils.nextString( reader );
+				break;
+			case "provider":
+				this.provider = JsonUtils.nextString( reader );
+				break;
+			case "description":
+				this.description = JsonUtils.nextString( reader );
+				break;
+			case "status":
+				this.status = JsonUtils.nextString( reader );
+				break;
+			default:
+				recognized = false;
+				break;
+		}
+		return recognized;
 	}
 	
 	/**
-	 * Returns this instance as a JSON object.
+	 * Writes the fields of this instance to the API Manager JSON representation of the
+	 * API.  Null values are omitted by the shared <code>Gson</code> instance.
 	 * 
-	 * @return JsonObject
-	 */
-	public JsonObject toJson() {
-		JsonObject json = new JsonObject();
-		
-		if (id != null) {
-			json.addProperty( "id", id );
-		}
-		if (name != null) {
-			json.addProperty( "name", name );
-		}
-		if (version != null) {
-			json.addProperty( "version", version );
-		}
-		if (context != null) {
-			json.addProperty( "context", context );
-		}
-		if (provider != null) {
-			json.addProperty( "provider", provider );
-		}
-		if (description != null) {
-			json.addProperty( "description", description );
-		}
-		if (status != null) {
-			json.addProperty( "status", status );
-		}
-		return json;
+	 * @param writer  the JSON writer positioned inside the API object
+	 * @throws IOException  thrown if the fields cannot be written
+	 */
+	protected void writeFields(JsonWriter writer) throws IOException {
+		writer.name( "id" ).value( id );
+		writer.name( "name" ).value( name );
+		writer.name( "version" ).value( version );
+		writer.name( "context" ).value( context );
+		writer.name( "provider" ).value( provider );
+		writer.name( "description" ).value( description );
+		writer.name( "status" ).value( status );
 	}
 	
 	/**
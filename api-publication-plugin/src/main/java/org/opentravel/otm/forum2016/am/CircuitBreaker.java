@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * Tracks the consecutive failures of requests to a single API Manager host.  Once the
+ * failure threshold is reached the breaker opens, and requests are held back until the
+ * open interval has elapsed.  The breaker is then half-open: a single caller is allowed
+ * to send a trial request while all other callers keep waiting.  The breaker closes if
+ * the trial succeeds and re-opens if it fails.
+ * 
+ * @author S. Livezey
+ */
+public class CircuitBreaker {
+	
+	private String host;
+	private int failureThreshold;
+	private long openInterval;
+	private int consecutiveFailures;
+	private long openUntil;
+	private Thread trialThread;
+	
+	/**
+	 * Constructor that specifies the host and the policy settings of the breaker.
+	 * 
+	 * @param host  the host whose requests are tracked by this breaker
+	 * @param retryPolicy  the policy that provides the breaker's threshold and interval
+	 */
+	public CircuitBreaker(String host, RetryPolicy retryPolicy) {
+		this.host = host;
+		this.failureThreshold = Math.max( 1, retryPolicy.getFailureThreshold() );
+		this.openInterval = retryPolicy.getOpenInterval();
+	}
+	
+	/**
+	 * Blocks until the breaker allows the calling thread to send a request.  Requests are
+	 * allowed immediately while the breaker is closed.  Once the open interval of a tripped
+	 * breaker has elapsed, the first caller becomes the trial and all other callers wait
+	 * until the outcome of the trial has been recorded.
+	 * 
+	 * @param deadline  the time (in epoch milliseconds) after which the caller gives up waiting
+	 * @throws IOException  thrown if the breaker does not allow a request before the deadline
+	 */
+	public synchronized void awaitPermission(long deadline) throws IOException {
+		Thread currentThread = Thread.currentThread();
+		
+		while ((openUntil != 0L) && (trialThread != currentThread)) {
+			long now = System.currentTimeMillis();
+			long waitTime;
+			
+			if (now < openUntil) {
+				waitTime = openUntil - now;
+				
+			} else if (trialThread == null) {
+				trialThread = currentThread;
+				break;
+				
+			} else { // wait for the outcome of the trial
+				waitTime = deadline - now;
+			}
+			if ((waitTime <= 0) || ((now + waitTime) > deadline)) {
+				throw new IOException("Circuit breaker is open for host: " + host);
+			}
+			
+			try {
+				wait( waitTime );
+				
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for the circuit breaker.");
+			}
+		}
+	}
+	
+	/**
+	 * Releases the trial of a half-open breaker if it is held by the calling thread and
+	 * its outcome was never recorded, so that another caller can send the trial request.
+	 */
+	public synchronized void release() {
+		if (trialThread == Thread.currentThread()) {
+			trialThread = null;
+			notifyAll();
+		}
+	}
+	
+	/**
+	 * Records a request that reached the host and was processed.
+	 */
+	public synchronized void recordSuccess() {
+		consecutiveFailures = 0;
+		openUntil = 0L;
+		trialThread = null;
+		notifyAll();
+	}
+	
+	/**
+	 * Records a request that failed because of a transport error or a server-side error.
+	 */
+	public synchronized void recordFailure() {
+		consecutiveFailures++;
+		
+		if (consecutiveFailures >= failureThreshold) {
+			openUntil = System.currentTimeMillis() + openInterval;
+			consecutiveFailures = failureThreshold - 1; // a single failed trial re-opens the breaker
+			trialThread = null;
+			notifyAll();
+		}
+	}
+	
+	/**
+	 * Returns the host whose requests are tracked by this breaker.
+	 *
+	 * @return String
+	 */
+	public String getHost() {
+		return host;
+	}
+	
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Entity wrapper that adds the number of bytes written to (or read from) the wrapped
+ * entity to a shared counter.
+ *
+ * @author S. Livezey
+ */
+public class CountingEntity extends HttpEntityWrapper {
+	
+	private AtomicLong byteCounter;
+	
+	/**
+	 * Constructor that specifies the entity to wrap and the counter to update.
+	 *
+	 * @param wrappedEntity  the entity whose content is to be counted
+	 * @param byteCounter  the counter to which the byte count is added
+	 */
+	public CountingEntity(HttpEntity wrappedEntity, AtomicLong byteCounter) {
+		super( wrappedEntity );
+		this.byteCounter = byteCounter;
+	}
+	
+	/**
+	 * @see org.apache.http.entity.HttpEntityWrapper#writeTo(java.io.OutputStream)
+	 */
+	@Override
+	public void writeTo(OutputStream outstream) throws IOException {
+		super.writeTo( new FilterOutputStream( outstream ) {
+			public void write(int b) throws IOException {
+				out.write( b );
+				byteCounter.incrementAndGet();
+			}
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write( b, off, len );
+				byteCounter.addAndGet( len );
+			}
+		});
+	}
+	
+	/**
+	 * @see org.apache.http.entity.HttpEntityWrapper#getContent()
+	 */
+	@Override
+	public InputStream getContent() throws IOException {
+		return new FilterInputStream( super.getContent() ) {
+			public int read() throws IOException {
+				int b = in.read();
+				
+				if (b >= 0) byteCounter.incrementAndGet();
+				return b;
+			}
+			public int read(byte[] b, int off, int len) throws IOException {
+				int count = in.read( b, off, len );
+				
+				if (count > 0) byteCounter.addAndGet( count );
+				return count;
+			}
+		};
+	}
+	
+}
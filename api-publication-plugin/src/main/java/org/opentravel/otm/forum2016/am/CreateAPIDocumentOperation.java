@@ -17,14 +17,14 @@
 package org.opentravel.otm.forum2016.am;
 
 import java.io.IOException;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.opentravel.otm.forum2016.APIPublisherConfig;
 
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Creates a document that is associated with an API.
@@ -53,18 +53,18 @@ public class CreateAPIDocumentOperation extends RESTClientOperation<APIDocument>
 		HttpPost request = new HttpPost( APIPublisherConfig.getWSO2PublisherApiBaseUrl() + "/" + apiId + "/documents" );
 		
 		request.setHeader( "Content-Type", "application/json" );
-		request.setEntity( new StringEntity( new Gson().toJson( document.toJson() ) ) );
+		request.setEntity( new StringEntity( gson.toJson( document ), StandardCharsets.UTF_8 ) );
 		return execute( request );
 	}
 
 	/**
 	 * @see org.opentravel.otm.forum2016.am.RESTClientOperation#unmarshallResponse(org.apache.http.HttpResponse)
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	protected APIDocument unmarshallResponse(HttpResponse response) throws IOException {
-		Map<String,Object> jsonDocDetails = gson.fromJson( readPayload( response ), Map.class );
-		return new APIDocument( jsonDocDetails );
+		try (JsonReader reader = newJsonReader( response )) {
+			return gson.fromJson( reader, APIDocument.class );
+		}
 	}
 
 	/**
@@ -17,12 +17,13 @@
 package org.opentravel.otm.forum2016.am;
 
 import java.io.IOException;
-import java.util.Map;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.opentravel.otm.forum2016.APIPublisherConfig;
 
+import com.google.gson.stream.JsonReader;
+
 /**
  * Returns the details of an API.
  * 
@@ -52,11 +53,11 @@ public class GetAPIDetailsOperation extends RESTClientOperation<APIDetails> {
 	/**
 	 * @see org.opentravel.otm.forum2016.am.RESTClientOperation#unmarshallResponse(org.apache.http.HttpResponse)
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	protected APIDetails unmarshallResponse(HttpResponse response) throws IOException {
-		Map<String,Object> jsonApiDetails = gson.fromJson( readPayload( response ), Map.class );
-		return new APIDetails( jsonApiDetails );
+		try (JsonReader reader = newJsonReader( response )) {
+			return gson.fromJson( reader, APIDetails.class );
+		}
 	}
 
 	/**
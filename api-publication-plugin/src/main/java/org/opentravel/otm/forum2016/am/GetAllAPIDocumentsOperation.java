@@ -19,15 +19,12 @@ package org.opentravel.otm.forum2016.am;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.opentravel.otm.forum2016.APIPublisherConfig;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Retrieves the list of all documents associated with an API.
@@ -59,16 +56,16 @@ public class GetAllAPIDocumentsOperation extends RESTClientOperation<List<APIDoc
 	/**
 	 * @see org.opentravel.otm.forum2016.am.RESTClientOperation#unmarshallResponse(org.apache.http.HttpResponse)
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	protected List<APIDocument> unmarshallResponse(HttpResponse response) throws IOException {
-		JsonObject responseJson = gson.fromJson( readPayload( response ), JsonObject.class );
-		JsonArray jsonApiList = responseJson.getAsJsonArray( "list" );
 		List<APIDocument> docList = new ArrayList<>();
 		
-		for (JsonElement jsonApi : jsonApiList) {
-			Map<String,Object> apiValues = gson.fromJson( jsonApi, Map.class );
-			docList.add( new APIDocument( apiValues ) );
+		try (JsonReader reader = newJsonReader( response )) {
+			if (beginList( reader )) {
+				while (reader.hasNext()) {
+					docList.add( gson.<APIDocument>fromJson( reader, APIDocument.class ) );
+				}
+			}
 		}
 		return docList;
 	}
@@ -19,15 +19,12 @@ package org.opentravel.otm.forum2016.am;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.opentravel.otm.forum2016.APIPublisherConfig;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Retrieves the list of all API's published for the API Manager application.
@@ -56,16 +53,16 @@ public class GetAllAPIsOperation extends RESTClientOperation<List<APISummary>> {
 	/**
 	 * @see org.opentravel.otm.forum2016.am.RESTClientOperation#unmarshallResponse(org.apache.http.HttpResponse)
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	protected List<APISummary> unmarshallResponse(HttpResponse response) throws IOException {
-		JsonObject responseJson = gson.fromJson( readPayload( response ), JsonObject.class );
-		JsonArray jsonApiList = responseJson.getAsJsonArray( "list" );
 		List<APISummary> apiList = new ArrayList<>();
 		
-		for (JsonElement jsonApi : jsonApiList) {
-			Map<String,Object> apiValues = gson.fromJson( jsonApi, Map.class );
-			apiList.add( new APISummary( apiValues ) );
+		try (JsonReader reader = newJsonReader( response )) {
+			if (beginList( reader )) {
+				while (reader.hasNext()) {
+					apiList.add( gson.<APISummary>fromJson( reader, APISummary.class ) );
+				}
+			}
 		}
 		return apiList;
 	}
@@ -16,9 +16,12 @@
 
 package org.opentravel.otm.forum2016.am;
 
-import java.util.Map;
+import java.io.IOException;
 
-import com.google.gson.Gson;
+import org.opentravel.otm.forum2016.util.JsonUtils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Maintains the contents of an OAuth2 access token.
@@ -32,22 +35,64 @@ public class OAuth2AccessToken {
 	private long expirationTimestamp;
 	
 	/**
-	 * Constructor that initializes the access token from the token server's response.
+	 * Default constructor.
+	 */
+	OAuth2AccessToken() {}
+	
+	/**
+	 * Assigns the value of the given field from the token server's JSON response.  Returns
+	 * false if the field is not recognized, in which case the caller is responsible for
+	 * skipping its value.
 	 * 
-	 * @param tokenResponse  the OAuth2 token response in JSON format
+	 * @param fieldName  the name of the JSON field
+	 * @param reader  the JSON reader positioned at the value of the field
+	 * @return boolean
+	 * @throws IOException  thrown if the field value cannot be read
 	 */
-	@SuppressWarnings("unchecked")
-	public OAuth2AccessToken(String tokenResponse) {
-		Map<String,Object> responseProps = new Gson().fromJson( tokenResponse, Map.class );
-		Double expiresIn = (Double) responseProps.get( "expires_in" );
+	protected boolean readField(String fieldName, JsonReader reader) throws IOException {
+		boolean recognized = true;
 		
-		this.accessToken = (String) responseProps.get( "access_token" );
-		this.tokenType = (String) responseProps.get( "token_type" );
-		this.scope = (String) responseProps.get( "scope" );
-		this.refreshToken = (String) responseProps.get( "refresh_token" );
+		switch (fieldName) {
+			case "access_token":
+				this.accessToken = JsonUtils.nextString( reader );
+				break;
+			case "token_type":
+				this.tokenType = JsonUtils.nextString( reader );
+				break;
+			case "scope":
+				this.scope = JsonUtils.nextString( reader );
+				break;
+			case "refresh_token":
+				this.refreshToken = JsonUtils.nextString( reader );
+				break;
+			case "expires_in":
+				String expiresIn = JsonUtils.nextString( reader );
+				
+				if (expiresIn != null) {
+					this.expirationTimestamp = System.currentTimeMillis() + ((long) Double.parseDouble( expiresIn ) * 1000L);
+				}
+				break;
+			default:
+				recognized = false;
+				break;
+		}
+		return recognized;
+	}
+	
+	/**
+	 * Writes the fields of this token in the format of a token server response.
+	 * 
+	 * @param writer  the JSON writer positioned inside the token object
+	 * @throws IOException  thrown if the fields cannot be written
+	 */
+	protected void writeFields(JsonWriter writer) throws IOException {
+		writer.name( "access_token" ).value( accessToken );
+		writer.name( "token_type" ).value( tokenType );
+		writer.name( "scope" ).value( scope );
+		writer.name( "refresh_token" ).value( refreshToken );
 		
-		if (expiresIn != null) {
-			this.expirationTimestamp = System.currentTimeMillis() + (expiresIn.longValue() * 1000L);
+		if (expirationTimestamp > 0) {
+			writer.name( "expires_in" ).value( Math.max( 0L, (expirationTimestamp - System.currentTimeMillis()) / 1000L ) );
 		}
 	}
 	
@@ -96,4 +141,13 @@ public class OAuth2AccessToken {
 		return expirationTimestamp;
 	}
 	
+	/**
+	 * Returns true if the token has an expiration and that time has passed.
+	 *
+	 * @return boolean
+	 */
+	public boolean isExpired() {
+		return (expirationTimestamp > 0) && (System.currentTimeMillis() >= expirationTimestamp);
+	}
+	
 }
@@ -17,12 +17,22 @@
 package org.opentravel.otm.forum2016.am;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
 
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.CloseableHttpClient;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Base class that provides common functions related to the invocation of remote
@@ -33,7 +43,7 @@ import com.google.gson.Gson;
  */
 public abstract class RESTClientOperation<R> {
 	
-	protected static Gson gson = new Gson();
+	protected static Gson gson = APIManagerJson.getGson();
 	
 	private APIOperationFactory factory;
 	
@@ -71,40 +81,245 @@ public abstract class RESTClientOperation<R> {
 	protected abstract String getSecurityScope();
 	
 	/**
-	 * Invokes the HTTP request using the OAuth2 credentials established by the factory.
+	 * Invokes the HTTP request using the OAuth2 credentials established by the factory.  If
+	 * the server rejects the access token (e.g. because it was revoked before its expiration),
+	 * the token is discarded and the request is retried once with a new token.
+	 * 
+	 * <p>Transient failures (transport errors, 429, 502, 503 and 504 responses) are retried
+	 * according to the factory's <code>RetryPolicy</code>, and requests to a host whose
+	 * circuit breaker is open are held back until the breaker allows a trial request.  A
+	 * delay requested by the server is always respected.  If the operation cannot be
+	 * completed before the policy's deadline, the last error is thrown.
+	 * 
+	 * <p>Request bodies are gzip-compressed when the factory's compression settings allow
+	 * it.  If the server rejects the encoding of a compressed request (a 415 response, or
+	 * a 400 response whose message concerns the content encoding), compression is disabled
+	 * for that host and the request is sent once more without compression.  Other 400
+	 * responses are reported as ordinary errors.
 	 * 
 	 * @param request  the request to be executed
 	 * @return R
 	 * @throws IOException  thrown if an error occurrs during execution of the request
 	 */
 	protected R execute(HttpUriRequest request) throws IOException {
-		OAuth2AccessToken token = factory.getAccessToken( getSecurityScope() );
-		R responseObj = null;
+		CircuitBreaker circuitBreaker = factory.getCircuitBreaker( request.getURI() );
+		long deadline = System.currentTimeMillis() + factory.getRetryPolicy().getOperationTimeout();
 		
-		request.addHeader( "Authorization", token.getTokenType() + " " + token.getAccessToken());
+		// Release the trial of a half-open breaker if this operation ends without recording its outcome
+		try {
+			return executeAttempts( request, getEntity( request ), circuitBreaker, deadline, isRepeatable( request ) );
+			
+		} finally {
+			circuitBreaker.release();
+		}
+	}
+	
+	/**
+	 * Performs the attempts of the given request until it succeeds, fails with an error that
+	 * cannot be retried, or runs out of attempts or time.
+	 * 
+	 * @param request  the request to be executed
+	 * @param requestEntity  the original entity of the request (may be null)
+	 * @param circuitBreaker  the circuit breaker of the request's host
+	 * @param deadline  the time (in epoch milliseconds) by which the operation must complete
+	 * @param repeatable  flag indicating whether the request can be sent more than once
+	 * @return R
+	 * @throws IOException  thrown if an error occurrs during execution of the request
+	 */
+	private R executeAttempts(HttpUriRequest request, HttpEntity requestEntity, CircuitBreaker circuitBreaker,
+			long deadline, boolean repeatable) throws IOException {
+		RetryPolicy retryPolicy = factory.getRetryPolicy();
+		boolean tokenRetryAllowed = repeatable;
+		int attempt = 0;
 		
-		try (CloseableHttpClient client = newHttpClient()) {
-			HttpResponse response = client.execute( request );
-			int statusCode = response.getStatusLine().getStatusCode();
+		while (true) {
+			circuitBreaker.awaitPermission( deadline );
+			OAuth2AccessToken token = factory.getAccessToken( getSecurityScope() );
+			HttpResponse failedResponse = null;
+			String errorPayload = null;
+			IOException error = null;
+			boolean responseReceived = false;
+			boolean retryable = false;
+			boolean compressed = prepareEntity( request, requestEntity );
+			
+			request.setHeader( "Authorization", token.getTokenType() + " " + token.getAccessToken());
+			factory.getTrafficStatistics().recordRequest( compressed );
+			attempt++;
 			
-			if ((statusCode >= 200) && (statusCode <= 299)) {
-				responseObj = unmarshallResponse( response );
+			try (CloseableHttpResponse response = getHttpClient().execute( request )) {
+				int statusCode = response.getStatusLine().getStatusCode();
+				
+				responseReceived = true;
+				
+				if ((statusCode >= 200) && (statusCode <= 299)) {
+					R responseObj = unmarshallResponse( response );
+					
+					circuitBreaker.recordSuccess();
+					APIOperationFactory.consumePayload( response );
+					return responseObj;
+					
+				} else if ((statusCode == HttpStatus.SC_UNAUTHORIZED) && tokenRetryAllowed) {
+					factory.invalidateAccessToken( getSecurityScope(), token );
+					APIOperationFactory.consumePayload( response );
+					tokenRetryAllowed = false;
+					attempt--;
+					continue;
+					
+				} else if (compressed && ((statusCode == HttpStatus.SC_BAD_REQUEST)
+						|| (statusCode == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE))) {
+					errorPayload = readPayload( response );
+					
+					if (isCompressionRejected( statusCode, errorPayload )) {
+						factory.disableCompression( request.getURI() );
+						attempt--;
+						continue;
+					}
+				}
 				
-			} else {
-				throw new IOException("Service invocation error [" + statusCode + "]:" + readPayload( response ));
+				if (statusCode >= 500) {
+					circuitBreaker.recordFailure();
+				} else {
+					circuitBreaker.recordSuccess();
+				}
+				error = new IOException("Service invocation error [" + statusCode + "]:"
+						+ ((errorPayload != null) ? errorPayload : readPayload( response )));
+				retryable = repeatable && retryPolicy.isRetryable( request, statusCode );
+				failedResponse = response;
+				
+			} catch (IOException e) {
+				if (error == null) {
+					if (responseReceived) { // error while reading a successful response
+						circuitBreaker.recordSuccess();
+						throw e;
+					}
+					circuitBreaker.recordFailure(); // transport error
+					retryable = repeatable && retryPolicy.isRetryable( request, 0 );
+					error = e;
+				}
+			}
+			
+			if (!retryable || (attempt >= retryPolicy.getMaxAttempts())) {
+				throw error;
+			}
+			long delay = retryPolicy.getRetryDelay( attempt, failedResponse );
+			
+			if ((System.currentTimeMillis() + delay) > deadline) {
+				throw error;
+			}
+			sleep( delay );
+		}
+	}
+	
+	/**
+	 * Returns true if the given error response indicates that the server does not accept
+	 * compressed request bodies.  A 415 response to a compressed request is always treated
+	 * as a rejection of its encoding, but a 400 response only if its message refers to the
+	 * content encoding; otherwise it is assumed to be an ordinary validation error.
+	 * 
+	 * @param statusCode  the HTTP status code of the response
+	 * @param errorPayload  the content of the error response
+	 * @return boolean
+	 */
+	private static boolean isCompressionRejected(int statusCode, String errorPayload) {
+		boolean rejected = (statusCode == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE);
+		
+		if (!rejected && (errorPayload != null)) {
+			String message = errorPayload.toLowerCase();
+			
+			rejected = message.contains( "content-encoding" ) || message.contains( "gzip" );
+		}
+		return rejected;
+	}
+	
+	/**
+	 * Pauses the current thread for the specified number of milliseconds.
+	 * 
+	 * @param millis  the number of milliseconds to wait
+	 * @throws InterruptedIOException  thrown if the thread is interrupted while waiting
+	 */
+	private static void sleep(long millis) throws InterruptedIOException {
+		try {
+			Thread.sleep( millis );
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to retry the request.");
+		}
+	}
+	
+	/**
+	 * Assigns the entity to be sent with the next attempt of the given request.  The
+	 * original entity is wrapped so that its bytes are counted, and it is gzip-compressed
+	 * if compression is enabled for the host and the entity is repeatable and larger than
+	 * the factory's compression threshold (or of unknown length).  Returns true if the
+	 * entity will be compressed.
+	 * 
+	 * @param request  the request whose entity is to be assigned
+	 * @param requestEntity  the original entity of the request (may be null)
+	 * @return boolean
+	 */
+	private boolean prepareEntity(HttpUriRequest request, HttpEntity requestEntity) {
+		boolean compressed = false;
+		
+		if (requestEntity != null) {
+			TrafficStatistics stats = factory.getTrafficStatistics();
+			HttpEntity entity = new CountingEntity( requestEntity, stats.getUncompressedBytesSentCounter() );
+			long length = requestEntity.getContentLength();
+			
+			compressed = factory.isCompressionEnabled( request.getURI() ) && requestEntity.isRepeatable()
+					&& (requestEntity.getContentEncoding() == null)
+					&& ((length < 0) || (length >= factory.getCompressionThreshold()));
+			
+			if (compressed) {
+				entity = new GzipCompressingEntity( entity );
 			}
-			return responseObj;
+			((HttpEntityEnclosingRequest) request).setEntity(
+					new CountingEntity( entity, stats.getBytesSentCounter() ) );
 		}
+		return compressed;
 	}
 	
 	/**
-	 * Returns a new HTTP client instance for use with API Manager REST API invocations.
+	 * Returns the entity of the given request, or null if the request does not
+	 * enclose an entity.
+	 * 
+	 * @param request  the request whose entity is to be returned
+	 * @return HttpEntity
+	 */
+	private static HttpEntity getEntity(HttpUriRequest request) {
+		HttpEntity entity = null;
+		
+		if (request instanceof HttpEntityEnclosingRequest) {
+			entity = ((HttpEntityEnclosingRequest) request).getEntity();
+		}
+		return entity;
+	}
+	
+	/**
+	 * Returns true if the given request can be sent more than once.
+	 * 
+	 * @param request  the request to check
+	 * @return boolean
+	 */
+	private static boolean isRepeatable(HttpUriRequest request) {
+		boolean repeatable = true;
+		
+		if (request instanceof HttpEntityEnclosingRequest) {
+			HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+			
+			repeatable = (entity == null) || entity.isRepeatable();
+		}
+		return repeatable;
+	}
+	
+	/**
+	 * Returns the pooled HTTP client to be used for API Manager REST API invocations.
 	 * 
 	 * @return CloseableHttpClient
 	 * @throws IOException  thrown if an error occurs while constructing the HTTP client
 	 */
-	protected CloseableHttpClient newHttpClient() throws IOException {
-		return APIOperationFactory.newHttpClient();
+	protected CloseableHttpClient getHttpClient() throws IOException {
+		return factory.getHttpClient();
 	}
 	
 	/**
@@ -119,4 +334,37 @@ public abstract class RESTClientOperation<R> {
 		return APIOperationFactory.readPayload( response );
 	}
 	
+	/**
+	 * Returns a streaming JSON reader for the payload of the HTTP response.
+	 * 
+	 * @param response  the HTTP response to process
+	 * @return JsonReader
+	 * @throws IOException  thrown if the response's entity stream cannot be opened
+	 */
+	protected static JsonReader newJsonReader(HttpResponse response) throws IOException {
+		return new JsonReader( new InputStreamReader( response.getEntity().getContent(), StandardCharsets.UTF_8 ) );
+	}
+	
+	/**
+	 * Advances the reader to the first element of the 'list' array in an API Manager
+	 * list response.  If the response does not contain a list, this method returns false
+	 * and the reader is positioned at the end of the response object.
+	 * 
+	 * @param reader  the JSON reader for the list response
+	 * @return boolean
+	 * @throws IOException  thrown if the response is not a JSON object
+	 */
+	protected static boolean beginList(JsonReader reader) throws IOException {
+		reader.beginObject();
+		
+		while (reader.hasNext()) {
+			if (reader.nextName().equals( "list" ) && (reader.peek() == JsonToken.BEGIN_ARRAY)) {
+				reader.beginArray();
+				return true;
+			}
+			reader.skipValue();
+		}
+		return false;
+	}
+	
 }
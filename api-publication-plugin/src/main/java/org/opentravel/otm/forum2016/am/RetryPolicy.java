@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.DateUtils;
+import org.opentravel.otm.forum2016.APIPublisherConfig;
+
+/**
+ * Contains the settings that control how failed API Manager requests are retried, and
+ * how long a host's circuit breaker remains open once it has tripped.  All settings
+ * are optional and can be overridden in the publisher configuration file.
+ * 
+ * @author S. Livezey
+ */
+public class RetryPolicy {
+	
+	private static final RetryPolicy defaultInstance = new RetryPolicy();
+	private static final String RETRY_CONFIG_PREFIX = "org.opentravel.apiPublisher.retry.";
+	
+	private int maxAttempts;
+	private long initialBackoff;
+	private long maxBackoff;
+	private long operationTimeout;
+	private int failureThreshold;
+	private long openInterval;
+	
+	/**
+	 * Returns the default singleton instance of the retry policy.
+	 * 
+	 * @return RetryPolicy
+	 */
+	public static RetryPolicy getInstance() {
+		return defaultInstance;
+	}
+	
+	/**
+	 * Private constructor.
+	 */
+	private RetryPolicy() {
+		Properties configProps = APIPublisherConfig.getConfigProperties();
+		
+		this.maxAttempts = getIntProperty( configProps, "maxAttempts", 5 );
+		this.initialBackoff = getLongProperty( configProps, "initialBackoff", 500L );
+		this.maxBackoff = getLongProperty( configProps, "maxBackoff", 30000L );
+		this.operationTimeout = getLongProperty( configProps, "operationTimeout", 180000L );
+		this.failureThreshold = getIntProperty( configProps, "circuitBreaker.failureThreshold", 5 );
+		this.openInterval = getLongProperty( configProps, "circuitBreaker.openInterval", 30000L );
+	}
+	
+	/**
+	 * Returns true if a request that received the given response status (or a
+	 * transport error if the status code is zero) may be sent again.  Requests that
+	 * were rejected before processing (429 and 503) are always retryable; gateway errors
+	 * and transport failures are only retried for idempotent requests since the server
+	 * may have processed the original.
+	 * 
+	 * @param request  the request that failed
+	 * @param statusCode  the HTTP status code of the response (zero for transport errors)
+	 * @return boolean
+	 */
+	public boolean isRetryable(HttpUriRequest request, int statusCode) {
+		boolean retryable;
+		
+		switch (statusCode) {
+			case 429:
+			case HttpStatus.SC_SERVICE_UNAVAILABLE:
+				retryable = true;
+				break;
+			case 0:
+			case HttpStatus.SC_BAD_GATEWAY:
+			case HttpStatus.SC_GATEWAY_TIMEOUT:
+				retryable = isIdempotent( request );
+				break;
+			default:
+				retryable = false;
+				break;
+		}
+		return retryable;
+	}
+	
+	/**
+	 * Returns the number of milliseconds to wait before the next attempt.  If the server
+	 * provided a <code>Retry-After</code> or rate-limit reset header, that delay is
+	 * used as-is (it is not capped by the maximum backoff, so the request is never sent
+	 * before the server asked for it); otherwise an exponential backoff with full jitter
+	 * is applied.
+	 * 
+	 * @param attempt  the number of the attempt that just failed (starting at 1)
+	 * @param response  the response that was received (null for transport errors)
+	 * @return long
+	 */
+	public long getRetryDelay(int attempt, HttpResponse response) {
+		long serverDelay = (response == null) ? -1L : getServerDelay( response );
+		long delay;
+		
+		if (serverDelay >= 0) {
+			delay = serverDelay;
+			
+		} else {
+			long ceiling = initialBackoff << Math.min( attempt - 1, 20 );
+			
+			delay = ThreadLocalRandom.current().nextLong( Math.min( ceiling, maxBackoff ) + 1 );
+		}
+		return delay;
+	}
+	
+	/**
+	 * Returns the delay requested by the server through the <code>Retry-After</code> or
+	 * <code>X-RateLimit-Reset</code> headers of the response, or -1 if no delay was
+	 * requested.
+	 * 
+	 * @param response  the response to process
+	 * @return long
+	 */
+	private long getServerDelay(HttpResponse response) {
+		Header retryAfter = response.getFirstHeader( "Retry-After" );
+		Header rateLimitReset = response.getFirstHeader( "X-RateLimit-Reset" );
+		long delay = -1L;
+		
+		try {
+			if (retryAfter != null) {
+				String value = retryAfter.getValue().trim();
+				
+				if (value.matches( "\\d+" )) {
+					delay = Long.parseLong( value ) * 1000L;
+					
+				} else {
+					Date retryDate = DateUtils.parseDate( value );
+					
+					if (retryDate != null) {
+						delay = Math.max( 0L, retryDate.getTime() - System.currentTimeMillis() );
+					}
+				}
+			} else if (rateLimitReset != null) {
+				long resetValue = Long.parseLong( rateLimitReset.getValue().trim() );
+				
+				// Large values are epoch seconds; small values are a delta in seconds
+				if (resetValue > 1000000000L) {
+					delay = Math.max( 0L, (resetValue * 1000L) - System.currentTimeMillis() );
+					
+				} else {
+					delay = resetValue * 1000L;
+				}
+			}
+			
+		} catch (NumberFormatException e) {
+			// Ignore and use the default backoff
+		}
+		return delay;
+	}
+	
+	/**
+	 * Returns true if the given request can safely be repeated after a failure.
+	 * 
+	 * @param request  the request to check
+	 * @return boolean
+	 */
+	private static boolean isIdempotent(HttpUriRequest request) {
+		String method = request.getMethod();
+		
+		return method.equals( "GET" ) || method.equals( "HEAD" )
+				|| method.equals( "PUT" ) || method.equals( "DELETE" );
+	}
+	
+	/**
+	 * Returns the value of the specified integer configuration property.
+	 * 
+	 * @param configProps  the configuration properties
+	 * @param name  the name of the property (without the retry prefix)
+	 * @param defaultValue  the value to return if the property is not defined
+	 * @return int
+	 */
+	private static int getIntProperty(Properties configProps, String name, int defaultValue) {
+		return (int) getLongProperty( configProps, name, defaultValue );
+	}
+	
+	/**
+	 * Returns the value of the specified long configuration property.
+	 * 
+	 * @param configProps  the configuration properties
+	 * @param name  the name of the property (without the retry prefix)
+	 * @param defaultValue  the value to return if the property is not defined
+	 * @return long
+	 */
+	private static long getLongProperty(Properties configProps, String name, long defaultValue) {
+		String value = (configProps == null) ? null : configProps.getProperty( RETRY_CONFIG_PREFIX + name );
+		long result = defaultValue;
+		
+		if (value != null) {
+			try {
+				result = Long.parseLong( value.trim() );
+				
+			} catch (NumberFormatException e) {
+				// Ignore and use the default value
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the maximum number of attempts for each request.
+	 *
+	 * @return int
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+	
+	/**
+	 * Returns the base delay (in milliseconds) of the exponential backoff.
+	 *
+	 * @return long
+	 */
+	public long getInitialBackoff() {
+		return initialBackoff;
+	}
+	
+	/**
+	 * Returns the maximum delay (in milliseconds) between attempts.
+	 *
+	 * @return long
+	 */
+	public long getMaxBackoff() {
+		return maxBackoff;
+	}
+	
+	/**
+	 * Returns the overall deadline (in milliseconds) for each operation, including all
+	 * retry attempts.
+	 *
+	 * @return long
+	 */
+	public long getOperationTimeout() {
+		return operationTimeout;
+	}
+	
+	/**
+	 * Returns the number of consecutive failures that will trip a host's circuit breaker.
+	 *
+	 * @return int
+	 */
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+	
+	/**
+	 * Returns the amount of time (in milliseconds) that a tripped circuit breaker will
+	 * remain open before a trial request is allowed.
+	 *
+	 * @return long
+	 */
+	public long getOpenInterval() {
+		return openInterval;
+	}
+	
+}
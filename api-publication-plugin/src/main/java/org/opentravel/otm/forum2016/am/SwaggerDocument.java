@@ -17,14 +17,16 @@
 package org.opentravel.otm.forum2016.am;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.opentravel.otm.forum2016.util.JsonUtils;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Container for the meta-data and content of an API.
@@ -36,23 +38,61 @@ public class SwaggerDocument {
 	private String apiName;
 	private String apiVersion;
 	private String description;
-	private JsonObject content;
+	private File swaggerFile;
+	private String contentHash;
 	
 	/**
-	 * Constructor that loads the Swagger document content from a file.
+	 * Constructor that loads the Swagger document meta-data from a file.  Only the 'info'
+	 * section of the document is read; the content itself remains in the file so that it
+	 * can be streamed when the API definition is published.
 	 * 
 	 * @param swaggerFile  the Swagger document to load
 	 * @throws IOException  thrown if the Swagger document cannot be loaded
 	 */
 	public SwaggerDocument(File swaggerFile) throws IOException {
-		try (Reader reader = new FileReader( swaggerFile )) {
-			this.content = new Gson().fromJson( reader, JsonObject.class );
+		this.swaggerFile = swaggerFile;
+		
+		try (JsonReader reader = new JsonReader( Files.newBufferedReader( swaggerFile.toPath(), StandardCharsets.UTF_8 ) )) {
+			reader.beginObject();
+			
+			while (reader.hasNext()) {
+				if (reader.nextName().equals( "info" ) && (reader.peek() == JsonToken.BEGIN_OBJECT)) {
+					readInfo( reader );
+					break; // no need to scan the remainder of the document
+					
+				} else {
+					reader.skipValue();
+				}
+			}
 		}
-		JsonObject swaggerInfo = content.getAsJsonObject( "info" );
+	}
+	
+	/**
+	 * Reads the API name, version and description from the 'info' section of the document.
+	 * 
+	 * @param reader  the JSON reader positioned at the start of the 'info' object
+	 * @throws IOException  thrown if the 'info' section cannot be read
+	 */
+	private void readInfo(JsonReader reader) throws IOException {
+		reader.beginObject();
 		
-		this.apiName = JsonUtils.getProperty( swaggerInfo, "title" );
-		this.apiVersion = JsonUtils.getProperty( swaggerInfo, "version" );
-		this.description = JsonUtils.getProperty( swaggerInfo, "description" );
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+				case "title":
+					this.apiName = JsonUtils.nextString( reader );
+					break;
+				case "version":
+					this.apiVersion = JsonUtils.nextString( reader );
+					break;
+				case "description":
+					this.description = JsonUtils.nextString( reader );
+					break;
+				default:
+					reader.skipValue();
+					break;
+			}
+		}
+		reader.endObject();
 	}
 
 	/**
@@ -83,12 +123,27 @@ public class SwaggerDocument {
 	}
 
 	/**
-	 * Returns the JSON content of the Swagger document.
+	 * Returns the SHA-256 hash of the Swagger document's content.
+	 *
+	 * @return String
+	 * @throws IOException  thrown if the Swagger document cannot be read
+	 */
+	public synchronized String getContentHash() throws IOException {
+		if (contentHash == null) {
+			try (InputStream in = Files.newInputStream( swaggerFile.toPath() )) {
+				contentHash = DigestUtils.sha256Hex( in );
+			}
+		}
+		return contentHash;
+	}
+
+	/**
+	 * Returns the file that contains the JSON content of the Swagger document.
 	 *
-	 * @return JsonObject
+	 * @return File
 	 */
-	public JsonObject getContent() {
-		return content;
+	public File getSwaggerFile() {
+		return swaggerFile;
 	}
 	
 }
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects statistics about the HTTP traffic exchanged with the API Manager server.  Byte
+ * counts are measured on the message bodies as they are written to and read from the
+ * connection, so compressed bodies are counted at their compressed size.
+ *
+ * @author S. Livezey
+ */
+public class TrafficStatistics {
+	
+	private AtomicLong requestCount = new AtomicLong();
+	private AtomicLong compressedRequestCount = new AtomicLong();
+	private AtomicLong uncompressedBytesSent = new AtomicLong();
+	private AtomicLong bytesSent = new AtomicLong();
+	private AtomicLong bytesReceived = new AtomicLong();
+	
+	/**
+	 * Records that a request has been sent to the server.
+	 *
+	 * @param compressed  flag indicating whether the body of the request was compressed
+	 */
+	public void recordRequest(boolean compressed) {
+		requestCount.incrementAndGet();
+		
+		if (compressed) {
+			compressedRequestCount.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Returns the counter for request body bytes before compression.
+	 *
+	 * @return AtomicLong
+	 */
+	AtomicLong getUncompressedBytesSentCounter() {
+		return uncompressedBytesSent;
+	}
+	
+	/**
+	 * Returns the counter for request body bytes as written to the connection.
+	 *
+	 * @return AtomicLong
+	 */
+	AtomicLong getBytesSentCounter() {
+		return bytesSent;
+	}
+	
+	/**
+	 * Returns the counter for response body bytes as read from the connection.
+	 *
+	 * @return AtomicLong
+	 */
+	AtomicLong getBytesReceivedCounter() {
+		return bytesReceived;
+	}
+	
+	/**
+	 * Returns the number of requests that have been sent.
+	 *
+	 * @return long
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+	
+	/**
+	 * Returns the number of requests whose bodies were compressed.
+	 *
+	 * @return long
+	 */
+	public long getCompressedRequestCount() {
+		return compressedRequestCount.get();
+	}
+	
+	/**
+	 * Returns the number of request body bytes before compression.
+	 *
+	 * @return long
+	 */
+	public long getUncompressedBytesSent() {
+		return uncompressedBytesSent.get();
+	}
+	
+	/**
+	 * Returns the number of request body bytes written to the connection.
+	 *
+	 * @return long
+	 */
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+	
+	/**
+	 * Returns the number of response body bytes read from the connection.
+	 *
+	 * @return long
+	 */
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+	
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getRequestCount() + " requests (" + getCompressedRequestCount() + " compressed), "
+				+ getBytesSent() + " bytes sent (" + getUncompressedBytesSent() + " uncompressed), "
+				+ getBytesReceived() + " bytes received";
+	}
+	
+}
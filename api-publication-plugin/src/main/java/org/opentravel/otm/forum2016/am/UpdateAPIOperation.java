@@ -17,14 +17,12 @@
 package org.opentravel.otm.forum2016.am;
 
 import java.io.IOException;
-import java.util.Map;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.StringEntity;
 import org.opentravel.otm.forum2016.APIPublisherConfig;
 
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Updates the details of an API.
@@ -51,19 +49,18 @@ public class UpdateAPIOperation extends RESTClientOperation<APIDetails> {
 	public APIDetails execute() throws IOException {
 		HttpPut request = new HttpPut( APIPublisherConfig.getWSO2PublisherApiBaseUrl() + "/" + api.getId() );
 		
-		request.setHeader( "Content-Type", "application/json" );
-		request.setEntity( new StringEntity( new Gson().toJson( api.toJson() ) ) );
+		request.setEntity( new APIDefinitionEntity( api ) );
 		return execute( request );
 	}
 	
 	/**
 	 * @see org.opentravel.otm.forum2016.am.RESTClientOperation#unmarshallResponse(org.apache.http.HttpResponse)
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	protected APIDetails unmarshallResponse(HttpResponse response) throws IOException {
-		Map<String,Object> jsonApiDetails = gson.fromJson( readPayload( response ), Map.class );
-		return new APIDetails( jsonApiDetails );
+		try (JsonReader reader = newJsonReader( response )) {
+			return gson.fromJson( reader, APIDetails.class );
+		}
 	}
 	
 	/**
@@ -18,7 +18,6 @@ package org.opentravel.otm.forum2016.am;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Map;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpPost;
@@ -26,6 +25,8 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.opentravel.otm.forum2016.APIPublisherConfig;
 
+import com.google.gson.stream.JsonReader;
+
 /**
  * Uploads the content of an API document.
  * 
@@ -63,11 +64,11 @@ public class UploadAPIDocumentOperation extends RESTClientOperation<APIDocument>
 	/**
 	 * @see org.opentravel.otm.forum2016.am.RESTClientOperation#unmarshallResponse(org.apache.http.HttpResponse)
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	protected APIDocument unmarshallResponse(HttpResponse response) throws IOException {
-		Map<String,Object> jsonDocDetails = gson.fromJson( readPayload( response ), Map.class );
-		return new APIDocument( jsonDocDetails );
+		try (JsonReader reader = newJsonReader( response )) {
+			return gson.fromJson( reader, APIDocument.class );
+		}
 	}
 
 	/**
@@ -16,8 +16,17 @@
 
 package org.opentravel.otm.forum2016.util;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Static utility methods for manipulating JSON content.
@@ -39,4 +48,115 @@ public class JsonUtils {
 		return (value == null) ? null : value.getAsString();
 	}
 	
+	/**
+	 * Returns the next string value from the given reader.  If the next value is a JSON
+	 * null, it is consumed and null is returned.  Numeric and boolean values are returned
+	 * in their string form.
+	 * 
+	 * @param reader  the JSON reader from which to obtain the value
+	 * @return String
+	 * @throws IOException  thrown if the next token is not a primitive value
+	 */
+	public static String nextString(JsonReader reader) throws IOException {
+		String value;
+		
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			value = null;
+			
+		} else if (reader.peek() == JsonToken.BOOLEAN) {
+			value = reader.nextBoolean() + "";
+			
+		} else {
+			value = reader.nextString();
+		}
+		return value;
+	}
+	
+	/**
+	 * Returns the next array of string values from the given reader.  If the next value
+	 * is a JSON null, it is consumed and an empty list is returned.
+	 * 
+	 * @param reader  the JSON reader from which to obtain the values
+	 * @return List<String>
+	 * @throws IOException  thrown if the next token is not an array of primitive values
+	 */
+	public static List<String> nextStringList(JsonReader reader) throws IOException {
+		List<String> values = new ArrayList<>();
+		
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			
+		} else {
+			reader.beginArray();
+			
+			while (reader.hasNext()) {
+				values.add( nextString( reader ) );
+			}
+			reader.endArray();
+		}
+		return values;
+	}
+	
+	/**
+	 * Writes the given list of strings as a named JSON array.  Null lists are written
+	 * as empty arrays.
+	 * 
+	 * @param writer  the JSON writer to which the array should be written
+	 * @param name  the name of the array property
+	 * @param values  the values of the array
+	 * @throws IOException  thrown if the array cannot be written
+	 */
+	public static void writeStringList(JsonWriter writer, String name, List<String> values) throws IOException {
+		writer.name( name ).beginArray();
+		
+		if (values != null) {
+			for (String value : values) {
+				writer.value( value );
+			}
+		}
+		writer.endArray();
+	}
+	
+	/**
+	 * Copies the characters of the given reader to the writer, escaping them so that the
+	 * output can be placed between the quotes of a JSON string value.
+	 * 
+	 * @param in  the reader that provides the raw string content
+	 * @param out  the writer to which the escaped content should be written
+	 * @throws IOException  thrown if an error occurs while reading or writing the content
+	 */
+	public static void writeEscaped(Reader in, Writer out) throws IOException {
+		char[] buffer = new char[8192];
+		int length;
+		
+		while ((length = in.read( buffer )) >= 0) {
+			int start = 0;
+			
+			for (int i = 0; i < length; i++) {
+				char ch = buffer[i];
+				String replacement;
+				
+				switch (ch) {
+					case '"': replacement = "\\\""; break;
+					case '\\': replacement = "\\\\"; break;
+					case '\n': replacement = "\\n"; break;
+					case '\r': replacement = "\\r"; break;
+					case '\t': replacement = "\\t"; break;
+					case '\u2028': replacement = "\\u2028"; break;
+					case '\u2029': replacement = "\\u2029"; break;
+					default:
+						replacement = (ch < 0x20) ? String.format( "\\u%04x", (int) ch ) : null;
+						break;
+				}
+				if (replacement != null) {
+					out.write( buffer, start, i - start );
+					out.write( replacement );
+					start = i + 1;
+				}
+			}
+			out.write( buffer, start, length - start );
+		}
+	}
+	
 }
@@ -0,0 +1,284 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Verifies the token handling, retry, circuit breaker, compression and document upload
+ * behavior of the API Manager client operations against the in-process
+ * <code>FakePublisherServer</code>.
+ *
+ * @author S. Livezey
+ */
+public class APIOperationResilienceTest {
+
+	private static final String API_DEFINITION = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Test\","
+			+ "\"version\":\"1.0.0\"},\"paths\":{}}";
+	
+	private static FakePublisherServer server;
+	private static FakePublisherServlet servlet;
+	
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+	
+	private APIOperationFactory factory;
+	
+	@BeforeClass
+	public static void startServer() throws Exception {
+		FakePublisherServer.useFakePublisherConfig();
+		server = new FakePublisherServer();
+		servlet = server.getPublisherServlet();
+		server.start();
+	}
+	
+	@AfterClass
+	public static void stopServer() throws Exception {
+		server.stop();
+	}
+	
+	@Before
+	public void setUp() {
+		servlet.reset();
+		factory = new APIOperationFactory();
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		factory.close();
+	}
+	
+	@Test
+	public void testRevokedTokenIsReplaced() throws Exception {
+		createApi( "OriginalTokenAPI" );
+		servlet.revokeAllTokens();
+		createApi( "ReplacementTokenAPI" );
+		
+		assertEquals( 2, servlet.getApiCount() );
+	}
+	
+	@Test
+	public void testShortLivedTokenIsNotRefreshedInALoop() throws Exception {
+		servlet.setTokenLifetime( 2 );
+		factory.initializeAccessToken();
+		Thread.sleep( 1500L );
+		
+		// One initial request and at most a couple of refreshes; a refresh loop would
+		// issue hundreds of token requests in the same period
+		int requestCount = servlet.getRequestCount();
+		
+		assertTrue( "Token was not refreshed", requestCount >= 2 );
+		assertTrue( "Too many token requests: " + requestCount, requestCount <= 4 );
+	}
+	
+	@Test
+	public void testTransientErrorsAreRetried() throws Exception {
+		factory.initializeAccessToken();
+		servlet.failNextRequests( 2, HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+		
+		assertEquals( 0, factory.newGetAllAPIsOperation().execute().size() );
+		assertEquals( 2, servlet.getInjectedErrorCount() );
+	}
+	
+	@Test
+	public void testGatewayErrorIsNotRetriedForCreate() throws Exception {
+		factory.initializeAccessToken();
+		int requestCount = servlet.getRequestCount();
+		
+		servlet.failNextRequests( 1, HttpServletResponse.SC_BAD_GATEWAY );
+		
+		try {
+			createApi( "GatewayErrorAPI" );
+			fail( "Expected the create request to fail." );
+		
+		} catch (IOException e) {
+			// Expected
+		}
+		assertEquals( requestCount + 1, servlet.getRequestCount() );
+		assertEquals( 0, servlet.getApiCount() );
+	}
+	
+	@Test
+	public void testCircuitBreakerHoldsBackRequests() throws Exception {
+		long openInterval = factory.getRetryPolicy().getOpenInterval();
+		
+		factory.initializeAccessToken();
+		servlet.failNextRequests( factory.getRetryPolicy().getMaxAttempts(),
+				HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+		
+		try {
+			factory.newGetAllAPIsOperation().execute();
+			fail( "Expected the request to fail after all retry attempts." );
+		
+		} catch (IOException e) {
+			// Expected
+		}
+		long startTime = System.currentTimeMillis();
+		
+		factory.newGetAllAPIsOperation().execute();
+		assertTrue( "Request was not held back by the open circuit breaker",
+				(System.currentTimeMillis() - startTime) >= (openInterval / 2) );
+	}
+	
+	@Test
+	public void testCompressionFallback() throws Exception {
+		URI publisherUri = new URI( server.getPublisherApiBaseUrl() );
+		
+		servlet.setAcceptCompressedRequests( false );
+		createApi( "UncompressedAPI" );
+		
+		assertEquals( 1, servlet.getApiCount() );
+		assertFalse( factory.isCompressionEnabled( publisherUri ) );
+		assertTrue( factory.getTrafficStatistics().getCompressedRequestCount() > 0 );
+	}
+	
+	@Test
+	public void testValidationErrorDoesNotDisableCompression() throws Exception {
+		URI publisherUri = new URI( server.getPublisherApiBaseUrl() );
+		
+		factory.initializeAccessToken();
+		int requestCount = servlet.getRequestCount();
+		
+		servlet.failNextRequests( 1, HttpServletResponse.SC_BAD_REQUEST );
+		
+		try {
+			createApi( "InvalidAPI" );
+			fail( "Expected the create request to fail." );
+			
+		} catch (IOException e) {
+			// Expected
+		}
+		assertEquals( requestCount + 1, servlet.getRequestCount() );
+		assertTrue( factory.isCompressionEnabled( publisherUri ) );
+	}
+	
+	@Test
+	public void testDocumentUpload() throws Exception {
+		String apiId = createApi( "DocumentAPI" ).getId();
+		Map<String,File> documents = new LinkedHashMap<>();
+		APIDocumentUploader uploader = new APIDocumentUploader( factory );
+		
+		documents.put( "Schema", newDocumentFile( "test.schema.json", "{\"type\":\"object\"}" ) );
+		documents.put( "Guide", newDocumentFile( "guide.html", "<html><body>Guide</body></html>" ) );
+		
+		try {
+			assertEquals( Collections.emptyMap(),
+					uploader.uploadAll( apiId, documents, Collections.<APIDocument>emptyList() ) );
+		
+		} finally {
+			uploader.shutdown();
+		}
+		List<APIDocument> publishedDocs = getDocuments( apiId );
+		
+		assertEquals( 2, publishedDocs.size() );
+		
+		for (APIDocument doc : publishedDocs) {
+			assertTrue( servlet.getContentSize( doc.getId() ) > 0 );
+		}
+	}
+	
+	@Test
+	public void testFailedDocumentCreateIsNotDuplicated() throws Exception {
+		factory.initializeAccessToken();
+		String apiId = createApi( "RetryDocumentAPI" ).getId();
+		APIDocumentUploader uploader = new APIDocumentUploader( factory );
+		
+		servlet.failNextRequests( 1, HttpServletResponse.SC_BAD_GATEWAY );
+		
+		try {
+			assertEquals( Collections.emptyMap(), uploader.uploadAll( apiId,
+					Collections.singletonMap( "Guide", newDocumentFile( "guide.html", "<html/>" ) ),
+					Collections.<APIDocument>emptyList() ) );
+		
+		} finally {
+			uploader.shutdown();
+		}
+		assertEquals( 1, getDocuments( apiId ).size() );
+	}
+	
+	/**
+	 * Creates a new API with the given name on the fake publisher server.
+	 *
+	 * @param apiName  the name of the API to create
+	 * @return APIDetails
+	 * @throws IOException  thrown if the API cannot be created
+	 */
+	private APIDetails createApi(String apiName) throws IOException {
+		CreateAPIOperation createOp = factory.newCreateAPIOperation();
+		APIDetails api = new APIDetails();
+		
+		api.setName( apiName );
+		api.setVersion( "1.0.0" );
+		api.setContext( "/test/" + apiName );
+		api.setApiDefinition( API_DEFINITION );
+		createOp.setApi( api );
+		return createOp.execute();
+	}
+	
+	/**
+	 * Returns the documents that have been published for the specified API.
+	 *
+	 * @param apiId  the ID of the API whose documents are to be returned
+	 * @return List<APIDocument>
+	 * @throws IOException  thrown if the documents cannot be retrieved
+	 */
+	private List<APIDocument> getDocuments(String apiId) throws IOException {
+		GetAllAPIDocumentsOperation getDocsOp = factory.newGetAllAPIDocumentsOperation();
+		
+		getDocsOp.setApiId( apiId );
+		return getDocsOp.execute();
+	}
+	
+	/**
+	 * Creates a document file with the given name and content in the temporary folder.
+	 *
+	 * @param filename  the name of the file to create
+	 * @param content  the content of the file
+	 * @return File
+	 * @throws IOException  thrown if the file cannot be created
+	 */
+	private File newDocumentFile(String filename, String content) throws IOException {
+		File docFile = tempFolder.newFile( filename );
+		
+		Files.write( docFile.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+		return docFile;
+	}
+	
+}
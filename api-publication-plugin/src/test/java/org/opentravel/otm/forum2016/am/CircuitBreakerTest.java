@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Verifies the half-open behavior of the <code>CircuitBreaker</code> and the handling of
+ * server-requested delays by the <code>RetryPolicy</code>.
+ *
+ * @author S. Livezey
+ */
+public class CircuitBreakerTest {
+	
+	private static RetryPolicy retryPolicy;
+	
+	@BeforeClass
+	public static void setUpPolicy() {
+		FakePublisherServer.useFakePublisherConfig();
+		retryPolicy = RetryPolicy.getInstance();
+	}
+	
+	@Test
+	public void testHalfOpenBreakerAllowsSingleTrial() throws Exception {
+		CircuitBreaker breaker = newTrippedBreaker();
+		
+		Thread.sleep( retryPolicy.getOpenInterval() + 50L );
+		breaker.awaitPermission( System.currentTimeMillis() + 1000L ); // this thread is the trial
+		
+		assertEquals( "Second caller was not held back by the trial", Boolean.FALSE,
+				awaitPermissionInNewThread( breaker, 200L ) );
+		breaker.recordSuccess();
+		assertEquals( Boolean.TRUE, awaitPermissionInNewThread( breaker, 200L ) );
+	}
+	
+	@Test
+	public void testFailedTrialReopensBreaker() throws Exception {
+		CircuitBreaker breaker = newTrippedBreaker();
+		
+		Thread.sleep( retryPolicy.getOpenInterval() + 50L );
+		breaker.awaitPermission( System.currentTimeMillis() + 1000L );
+		breaker.recordFailure();
+		
+		try {
+			breaker.awaitPermission( System.currentTimeMillis() + (retryPolicy.getOpenInterval() / 2) );
+			fail( "Expected the re-opened breaker to hold back the request." );
+			
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+	
+	@Test
+	public void testReleasedTrialIsHandedToNextCaller() throws Exception {
+		CircuitBreaker breaker = newTrippedBreaker();
+		
+		Thread.sleep( retryPolicy.getOpenInterval() + 50L );
+		breaker.awaitPermission( System.currentTimeMillis() + 1000L );
+		breaker.release();
+		
+		assertEquals( Boolean.TRUE, awaitPermissionInNewThread( breaker, 200L ) );
+	}
+	
+	@Test
+	public void testServerDelayIsNotCappedByMaxBackoff() {
+		HttpResponse response = new BasicHttpResponse( HttpVersion.HTTP_1_1,
+				HttpStatus.SC_SERVICE_UNAVAILABLE, "Service Unavailable" );
+		
+		response.setHeader( "Retry-After", "60" );
+		assertTrue( retryPolicy.getMaxBackoff() < 60000L );
+		assertEquals( 60000L, retryPolicy.getRetryDelay( 1, response ) );
+	}
+	
+	/**
+	 * Returns a new circuit breaker that has been opened by consecutive failures.
+	 *
+	 * @return CircuitBreaker
+	 */
+	private static CircuitBreaker newTrippedBreaker() {
+		CircuitBreaker breaker = new CircuitBreaker( "localhost", retryPolicy );
+		
+		for (int i = 0; i < retryPolicy.getFailureThreshold(); i++) {
+			breaker.recordFailure();
+		}
+		return breaker;
+	}
+	
+	/**
+	 * Waits for permission from the given breaker on a separate thread and returns true if
+	 * the permission was granted within the specified time.
+	 *
+	 * @param breaker  the breaker from which to request permission
+	 * @param maxWait  the maximum number of milliseconds to wait for permission
+	 * @return Boolean
+	 * @throws InterruptedException  thrown if the calling thread is interrupted
+	 */
+	private static Boolean awaitPermissionInNewThread(final CircuitBreaker breaker, final long maxWait)
+			throws InterruptedException {
+		final Boolean[] result = new Boolean[1];
+		Thread caller = new Thread() {
+			public void run() {
+				try {
+					breaker.awaitPermission( System.currentTimeMillis() + maxWait );
+					result[0] = Boolean.TRUE;
+					breaker.release();
+					
+				} catch (IOException e) {
+					result[0] = Boolean.FALSE;
+				}
+			}
+		};
+		
+		caller.start();
+		caller.join();
+		return result[0];
+	}
+	
+}
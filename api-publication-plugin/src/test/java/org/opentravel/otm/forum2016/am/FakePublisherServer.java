@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.ErrorHandler;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.opentravel.otm.forum2016.APIPublisherConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Launches an in-process Jetty server that stands in for the WSO2 API Manager.  The
+ * publisher REST API and the OAuth2 token endpoint are served on separate ports (19763
+ * and 18280) that are configured in <code>/config/fake-publisher.properties</code>.  The
+ * ports are offset from the WSO2 defaults so that the server does not collide with a
+ * local WSO2 installation, and the regular test configuration is left untouched.
+ *
+ * @author S. Livezey
+ */
+public class FakePublisherServer {
+	
+	public static final int DEFAULT_PUBLISHER_PORT = 19763;
+	public static final int DEFAULT_GATEWAY_PORT   = 18280;
+	public static final String CONFIGURATION_FILENAME = "fake-publisher.properties";
+	
+	private static final Logger log = LoggerFactory.getLogger( FakePublisherServer.class );
+	
+	private FakePublisherServlet publisherServlet = new FakePublisherServlet();
+	private int publisherPort;
+	private int gatewayPort;
+	private Server jettyServer;
+	private ServerConnector publisherConnector;
+	private ServerConnector gatewayConnector;
+	
+	/**
+	 * Default constructor that uses the ports of the fake publisher configuration.
+	 */
+	public FakePublisherServer() {
+		this( DEFAULT_PUBLISHER_PORT, DEFAULT_GATEWAY_PORT );
+	}
+	
+	/**
+	 * Constructor that specifies the ports of the server.  A port value of zero will cause
+	 * the server to listen on a randomly-assigned port.
+	 *
+	 * @param publisherPort  the port of the publisher REST API
+	 * @param gatewayPort  the port of the OAuth2 token endpoint
+	 */
+	public FakePublisherServer(int publisherPort, int gatewayPort) {
+		this.publisherPort = publisherPort;
+		this.gatewayPort = gatewayPort;
+	}
+	
+	/**
+	 * Launches the Jetty server.
+	 * 
+	 * @throws Exception  thrown if the server cannot be started
+	 */
+	public synchronized void start() throws Exception {
+		if (jettyServer != null) {
+			throw new IllegalStateException( "The Jetty server is already running." );
+		}
+		ServletContextHandler context = new ServletContextHandler( ServletContextHandler.NO_SESSIONS );
+		ErrorHandler errH = new ErrorHandler();
+		
+		context.setContextPath( "/" );
+		context.addServlet( new ServletHolder( publisherServlet ), "/*" );
+		context.setErrorHandler( errH );
+		
+		jettyServer = new Server();
+		publisherConnector = new ServerConnector( jettyServer );
+		publisherConnector.setPort( publisherPort );
+		gatewayConnector = new ServerConnector( jettyServer );
+		gatewayConnector.setPort( gatewayPort );
+		jettyServer.addConnector( publisherConnector );
+		jettyServer.addConnector( gatewayConnector );
+		jettyServer.setHandler( context );
+		jettyServer.start();
+	}
+	
+	/**
+	 * Shuts down the Jetty server.
+	 * 
+	 * @throws Exception  thrown if the server cannot be shut down
+	 */
+	public synchronized void stop() throws Exception {
+		if (jettyServer == null) {
+			throw new IllegalStateException( "The Jetty server is not running." );
+		}
+		jettyServer.stop();
+		jettyServer = null;
+	}
+	
+	/**
+	 * Returns the servlet that implements the fake publisher API.  The servlet can be used
+	 * to inject latency and errors and to inspect the state of the server.
+	 * 
+	 * @return FakePublisherServlet
+	 */
+	public FakePublisherServlet getPublisherServlet() {
+		return publisherServlet;
+	}
+	
+	/**
+	 * Returns the base URL of the publisher REST API.
+	 * 
+	 * @return String
+	 */
+	public String getPublisherApiBaseUrl() {
+		return "http://127.0.0.1:" + publisherConnector.getLocalPort() + FakePublisherServlet.API_BASE_PATH;
+	}
+	
+	/**
+	 * Returns the URL of the OAuth2 token endpoint.
+	 * 
+	 * @return String
+	 */
+	public String getTokenUrl() {
+		return "http://127.0.0.1:" + gatewayConnector.getLocalPort() + FakePublisherServlet.TOKEN_PATH;
+	}
+	
+	/**
+	 * Points the API publisher configuration at the fake publisher settings, unless a
+	 * configuration file has already been specified through the system property.  This
+	 * method must be called before any API Manager operation is created, since the
+	 * publisher configuration is only loaded once per JVM.
+	 */
+	public static void useFakePublisherConfig() {
+		if (System.getProperty( APIPublisherConfig.CONFIGURATION_SYSPROP ) == null) {
+			URL configUrl = FakePublisherServer.class.getResource( "/config/" + CONFIGURATION_FILENAME );
+			
+			try {
+				System.setProperty( APIPublisherConfig.CONFIGURATION_SYSPROP,
+						new File( configUrl.toURI() ).getAbsolutePath() );
+				
+			} catch (URISyntaxException e) {
+				throw new IllegalStateException( "Invalid configuration location: " + configUrl, e );
+			}
+		}
+	}
+	
+	/**
+	 * Main method that launches the fake publisher server from the command line.  The
+	 * optional arguments specify the per-request latency (in milliseconds) and the rate
+	 * (0.0 to 1.0) of injected 503 errors.
+	 * 
+	 * @param args  the command-line arguments
+	 */
+	public static void main(String[] args) {
+		try {
+			FakePublisherServer server = new FakePublisherServer();
+			
+			useFakePublisherConfig();
+			
+			if (args.length > 0) {
+				server.getPublisherServlet().setLatency( Long.parseLong( args[0] ) );
+			}
+			if (args.length > 1) {
+				server.getPublisherServlet().setErrorRate( Double.parseDouble( args[1] ) );
+			}
+			server.start();
+			log.info("Publisher API running at " + server.getPublisherApiBaseUrl());
+			log.info("Token endpoint running at " + server.getTokenUrl());
+			
+			while (true) {
+				Thread.sleep( 100000L );
+			}
+			
+		} catch (Throwable t) {
+			log.error("Error running the fake publisher server", t);
+		}
+	}
+	
+}
@@ -0,0 +1,862 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * In-memory stand-in for the WSO2 API Manager publisher REST API and its OAuth2 token
+ * endpoint.  API's, documents and document content are held in concurrent maps so that
+ * the servlet can be used for publication throughput benchmarks with thousands of API's.
+ * Latency and error responses can be injected to exercise the retry and circuit breaker
+ * behavior of the API Manager client operations.
+ *
+ * @author S. Livezey
+ */
+public class FakePublisherServlet extends HttpServlet {
+	
+	public static final String TOKEN_PATH    = "/token";
+	public static final String API_BASE_PATH = "/api/am/publisher/v0.9/apis";
+	
+	private static final long serialVersionUID = -3129658541077431742L;
+	
+	private static final String LIFECYCLE_PATH = "/change-lifecycle";
+	private static final int DEFAULT_PAGE_SIZE = 25;
+	private static final Map<String,String> lifecycleTransitions;
+	
+	private static Gson gson = new Gson();
+	
+	private ConcurrentMap<String,JsonObject> apis = new ConcurrentHashMap<>();
+	private ConcurrentMap<String,String> apiKeys = new ConcurrentHashMap<>();
+	private ConcurrentMap<String,ConcurrentMap<String,JsonObject>> documents = new ConcurrentHashMap<>();
+	private ConcurrentMap<String,Long> documentContentSizes = new ConcurrentHashMap<>();
+	private Set<String> validTokens = Collections.newSetFromMap( new ConcurrentHashMap<String,Boolean>() );
+	private AtomicInteger requestCount = new AtomicInteger();
+	private AtomicInteger injectedErrorCount = new AtomicInteger();
+	private AtomicInteger failNextCount = new AtomicInteger();
+	private AtomicLong bytesReceived = new AtomicLong();
+	private volatile int failNextStatus = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+	private volatile long latency;
+	private volatile double errorRate;
+	private volatile int errorStatus = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+	private volatile int tokenLifetime = 3600;
+	private volatile boolean acceptCompressedRequests = true;
+	
+	/**
+	 * @see javax.servlet.http.HttpServlet#service(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)
+	 */
+	@Override
+	protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		String path = request.getPathInfo();
+		
+		requestCount.incrementAndGet();
+		simulateLatency();
+		
+		if (injectError( response )) {
+			return;
+		}
+		
+		if (TOKEN_PATH.equals( path )) {
+			if (request.getMethod().equals( "POST" )) {
+				issueToken( request, response );
+				
+			} else {
+				response.sendError( HttpServletResponse.SC_METHOD_NOT_ALLOWED );
+			}
+			
+		} else if ((path != null) && path.startsWith( API_BASE_PATH )) {
+			if (!isAuthorized( request )) {
+				response.setHeader( "WWW-Authenticate", "Bearer" );
+				response.sendError( HttpServletResponse.SC_UNAUTHORIZED );
+				
+			} else if (isCompressed( request ) && !acceptCompressedRequests) {
+				response.sendError( HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE );
+				
+			} else {
+				try {
+					handleApiRequest( request.getMethod(), path.substring( API_BASE_PATH.length() ), request, response );
+					
+				} catch (JsonParseException | IllegalStateException e) {
+					response.sendError( HttpServletResponse.SC_BAD_REQUEST, e.getMessage() );
+				}
+			}
+			
+		} else {
+			response.sendError( HttpServletResponse.SC_NOT_FOUND );
+		}
+	}
+	
+	/**
+	 * Dispatches a request for one of the publisher API resources.
+	 * 
+	 * @param method  the HTTP method of the request
+	 * @param path  the request path relative to the publisher API base path
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the request or response cannot be processed
+	 */
+	private void handleApiRequest(String method, String path, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		String[] pathParts = path.startsWith( "/" ) ? path.substring( 1 ).split( "/" ) : new String[0];
+		
+		if (pathParts.length == 0) {
+			if (method.equals( "GET" )) {
+				listApis( request, response );
+				
+			} else if (method.equals( "POST" )) {
+				createApi( request, response );
+				
+			} else {
+				response.sendError( HttpServletResponse.SC_METHOD_NOT_ALLOWED );
+			}
+			
+		} else if (path.equals( LIFECYCLE_PATH ) && method.equals( "POST" )) {
+			changeLifecycle( request, response );
+			
+		} else if (!apis.containsKey( pathParts[0] )) {
+			response.sendError( HttpServletResponse.SC_NOT_FOUND );
+			
+		} else if (pathParts.length == 1) {
+			if (method.equals( "GET" )) {
+				writeJson( apis.get( pathParts[0] ), HttpServletResponse.SC_OK, response );
+				
+			} else if (method.equals( "PUT" )) {
+				updateApi( pathParts[0], request, response );
+				
+			} else if (method.equals( "DELETE" )) {
+				deleteApi( pathParts[0], response );
+				
+			} else {
+				response.sendError( HttpServletResponse.SC_METHOD_NOT_ALLOWED );
+			}
+			
+		} else if (!pathParts[1].equals( "documents" ) || (pathParts.length > 4)) {
+			response.sendError( HttpServletResponse.SC_NOT_FOUND );
+			
+		} else if (pathParts.length == 2) {
+			if (method.equals( "GET" )) {
+				listDocuments( pathParts[0], request, response );
+				
+			} else if (method.equals( "POST" )) {
+				createDocument( pathParts[0], request, response );
+				
+			} else {
+				response.sendError( HttpServletResponse.SC_METHOD_NOT_ALLOWED );
+			}
+			
+		} else {
+			JsonObject document = getDocuments( pathParts[0] ).get( pathParts[2] );
+			
+			if (document == null) {
+				response.sendError( HttpServletResponse.SC_NOT_FOUND );
+				
+			} else if (pathParts.length == 4) {
+				if (pathParts[3].equals( "content" ) && method.equals( "POST" )) {
+					uploadContent( pathParts[2], document, request, response );
+					
+				} else {
+					response.sendError( HttpServletResponse.SC_NOT_FOUND );
+				}
+				
+			} else if (method.equals( "GET" )) {
+				writeJson( document, HttpServletResponse.SC_OK, response );
+				
+			} else if (method.equals( "DELETE" )) {
+				getDocuments( pathParts[0] ).remove( pathParts[2] );
+				documentContentSizes.remove( pathParts[2] );
+				response.setStatus( HttpServletResponse.SC_OK );
+				
+			} else {
+				response.sendError( HttpServletResponse.SC_METHOD_NOT_ALLOWED );
+			}
+		}
+	}
+	
+	/**
+	 * Issues a new access token for the requested scope.  The scope of the token is the
+	 * scope that was requested, or the scope of the original token for a refresh request.
+	 * 
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the response cannot be written
+	 */
+	private void issueToken(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		String grantType = request.getParameter( "grant_type" );
+		String scope = request.getParameter( "scope" );
+		JsonObject token = new JsonObject();
+		String accessToken = UUID.randomUUID().toString();
+		
+		if (grantType == null) {
+			response.sendError( HttpServletResponse.SC_BAD_REQUEST, "Missing grant_type" );
+			return;
+		}
+		if (grantType.equals( "refresh_token" ) && (request.getParameter( "refresh_token" ) == null)) {
+			response.sendError( HttpServletResponse.SC_BAD_REQUEST, "Missing refresh_token" );
+			return;
+		}
+		validTokens.add( accessToken );
+		token.addProperty( "access_token", accessToken );
+		token.addProperty( "refresh_token", UUID.randomUUID().toString() );
+		token.addProperty( "token_type", "Bearer" );
+		token.addProperty( "expires_in", tokenLifetime );
+		token.addProperty( "scope", (scope == null) ? "default" : scope );
+		writeJson( token, HttpServletResponse.SC_OK, response );
+	}
+	
+	/**
+	 * Returns the requested page of API summaries, sorted by name and version.
+	 * 
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the response cannot be written
+	 */
+	private void listApis(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		List<JsonObject> apiList = new ArrayList<>( apis.values() );
+		List<JsonElement> summaries = new ArrayList<>();
+		
+		Collections.sort( apiList, new Comparator<JsonObject>() {
+			public int compare(JsonObject api1, JsonObject api2) {
+				return getKey( api1 ).compareTo( getKey( api2 ) );
+			}
+		});
+		
+		for (JsonObject api : apiList) {
+			JsonObject summary = new JsonObject();
+			
+			for (String fieldName : new String[] { "id", "name", "version", "context", "provider", "description", "status" }) {
+				if (api.has( fieldName )) {
+					summary.add( fieldName, api.get( fieldName ) );
+				}
+			}
+			summaries.add( summary );
+		}
+		writeJson( newPage( summaries, request ), HttpServletResponse.SC_OK, response );
+	}
+	
+	/**
+	 * Creates a new API.  API's are identified by their name and version, so a conflict
+	 * is reported if an API with the same name and version already exists.
+	 * 
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the request or response cannot be processed
+	 */
+	private void createApi(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		JsonObject api = readJson( request );
+		String apiId = UUID.randomUUID().toString();
+		
+		if (!api.has( "name" ) || !api.has( "version" ) || !api.has( "context" )) {
+			response.sendError( HttpServletResponse.SC_BAD_REQUEST, "The API name, version and context are required." );
+			return;
+		}
+		if (apiKeys.putIfAbsent( getKey( api ), apiId ) != null) {
+			response.sendError( HttpServletResponse.SC_CONFLICT, "API already exists: " + getKey( api ) );
+			return;
+		}
+		api.addProperty( "id", apiId );
+		api.addProperty( "status", "CREATED" );
+		
+		if (!api.has( "provider" )) {
+			api.addProperty( "provider", "admin" );
+		}
+		apis.put( apiId, api );
+		documents.put( apiId, new ConcurrentHashMap<String,JsonObject>() );
+		response.setHeader( "Location", request.getRequestURL() + "/" + apiId );
+		writeJson( api, HttpServletResponse.SC_CREATED, response );
+	}
+	
+	/**
+	 * Replaces the definition of an existing API.  The ID, name, version and lifecycle
+	 * status of the API cannot be changed by an update.
+	 * 
+	 * @param apiId  the ID of the API to update
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the request or response cannot be processed
+	 */
+	private void updateApi(String apiId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		JsonObject existingApi = apis.get( apiId );
+		JsonObject api = readJson( request );
+		
+		if (existingApi == null) { // deleted while the request was being processed
+			response.sendError( HttpServletResponse.SC_NOT_FOUND );
+			return;
+		}
+		for (String fieldName : new String[] { "id", "name", "version", "status" }) {
+			api.add( fieldName, existingApi.get( fieldName ) );
+		}
+		apis.put( apiId, api );
+		writeJson( api, HttpServletResponse.SC_OK, response );
+	}
+	
+	/**
+	 * Deletes an API along with all of its documents.
+	 * 
+	 * @param apiId  the ID of the API to delete
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the response cannot be written
+	 */
+	private void deleteApi(String apiId, HttpServletResponse response) throws IOException {
+		JsonObject api = apis.remove( apiId );
+		Map<String,JsonObject> apiDocs = documents.remove( apiId );
+		
+		if (api != null) {
+			apiKeys.remove( getKey( api ) );
+		}
+		if (apiDocs != null) {
+			for (String documentId : apiDocs.keySet()) {
+				documentContentSizes.remove( documentId );
+			}
+		}
+		response.setStatus( HttpServletResponse.SC_OK );
+	}
+	
+	/**
+	 * Applies a lifecycle action to an API and updates its status.
+	 * 
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the response cannot be written
+	 */
+	private void changeLifecycle(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		String apiId = request.getParameter( "apiId" );
+		String action = request.getParameter( "action" );
+		JsonObject api = (apiId == null) ? null : apis.get( apiId );
+		String newStatus = (action == null) ? null : lifecycleTransitions.get( action );
+		
+		if (api == null) {
+			response.sendError( HttpServletResponse.SC_NOT_FOUND );
+			
+		} else if (newStatus == null) {
+			response.sendError( HttpServletResponse.SC_BAD_REQUEST, "Invalid lifecycle action: " + action );
+			
+		} else {
+			synchronized (api) {
+				api.addProperty( "status", newStatus );
+			}
+			response.setStatus( HttpServletResponse.SC_OK );
+		}
+	}
+	
+	/**
+	 * Returns the requested page of documents for an API.
+	 * 
+	 * @param apiId  the ID of the API whose documents are to be listed
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the response cannot be written
+	 */
+	private void listDocuments(String apiId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		List<JsonElement> docList = new ArrayList<JsonElement>( getDocuments( apiId ).values() );
+		
+		writeJson( newPage( docList, request ), HttpServletResponse.SC_OK, response );
+	}
+	
+	/**
+	 * Creates a new document record for an API.
+	 * 
+	 * @param apiId  the ID of the API that will own the document
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the request or response cannot be processed
+	 */
+	private void createDocument(String apiId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		JsonObject document = readJson( request );
+		String documentId = UUID.randomUUID().toString();
+		
+		if (!document.has( "name" ) || !document.has( "type" )) {
+			response.sendError( HttpServletResponse.SC_BAD_REQUEST, "The document name and type are required." );
+			return;
+		}
+		document.addProperty( "documentId", documentId );
+		getDocuments( apiId ).put( documentId, document );
+		writeJson( document, HttpServletResponse.SC_CREATED, response );
+	}
+	
+	/**
+	 * Receives the content of a document.  Only the size of the content is retained.
+	 * 
+	 * @param documentId  the ID of the document whose content is being uploaded
+	 * @param document  the document record
+	 * @param request  the HTTP request being processed
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the request or response cannot be processed
+	 */
+	private void uploadContent(String documentId, JsonObject document, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		byte[] buffer = new byte[ 8192 ];
+		long contentSize = 0;
+		int bytesRead;
+		
+		try (InputStream in = getRequestContent( request )) {
+			while ((bytesRead = in.read( buffer )) >= 0) {
+				contentSize += bytesRead;
+			}
+		}
+		documentContentSizes.put( documentId, contentSize );
+		writeJson( document, HttpServletResponse.SC_CREATED, response );
+	}
+	
+	/**
+	 * Returns a WSO2 list response that contains the page of items identified by the
+	 * 'offset' and 'limit' parameters of the request.
+	 * 
+	 * @param items  the complete list of items
+	 * @param request  the HTTP request being processed
+	 * @return JsonObject
+	 */
+	private JsonObject newPage(List<JsonElement> items, HttpServletRequest request) {
+		int offset = Math.max( 0, getIntParameter( request, "offset", 0 ) );
+		int limit = Math.max( 1, getIntParameter( request, "limit", DEFAULT_PAGE_SIZE ) );
+		int endIndex = Math.min( items.size(), offset + limit );
+		JsonObject page = new JsonObject();
+		JsonArray list = new JsonArray();
+		
+		for (int i = offset; i < endIndex; i++) {
+			list.add( items.get( i ) );
+		}
+		page.addProperty( "count", list.size() );
+		page.addProperty( "next", (endIndex < items.size()) ?
+				request.getRequestURL() + "?limit=" + limit + "&offset=" + endIndex : "" );
+		page.addProperty( "previous", (offset > 0) ?
+				request.getRequestURL() + "?limit=" + limit + "&offset=" + Math.max( 0, offset - limit ) : "" );
+		page.add( "list", list );
+		return page;
+	}
+	
+	/**
+	 * Returns true if the request carries a valid bearer token.
+	 * 
+	 * @param request  the HTTP request to check
+	 * @return boolean
+	 */
+	private boolean isAuthorized(HttpServletRequest request) {
+		String authHeader = request.getHeader( "Authorization" );
+		boolean authorized = false;
+		
+		if ((authHeader != null) && authHeader.startsWith( "Bearer " )) {
+			authorized = validTokens.contains( authHeader.substring( 7 ).trim() );
+		}
+		return authorized;
+	}
+	
+	/**
+	 * Returns true if the body of the request is gzip-compressed.
+	 * 
+	 * @param request  the HTTP request to check
+	 * @return boolean
+	 */
+	private static boolean isCompressed(HttpServletRequest request) {
+		return "gzip".equalsIgnoreCase( request.getHeader( "Content-Encoding" ) );
+	}
+	
+	/**
+	 * Returns the content stream of the request, decompressing the content if necessary.
+	 * 
+	 * @param request  the HTTP request being processed
+	 * @return InputStream
+	 * @throws IOException  thrown if the content stream cannot be opened
+	 */
+	private InputStream getRequestContent(HttpServletRequest request) throws IOException {
+		InputStream in = request.getInputStream();
+		
+		if (request.getContentLength() > 0) {
+			bytesReceived.addAndGet( request.getContentLength() );
+		}
+		return isCompressed( request ) ? new GZIPInputStream( in ) : in;
+	}
+	
+	/**
+	 * Reads the JSON object from the body of the request.
+	 * 
+	 * @param request  the HTTP request being processed
+	 * @return JsonObject
+	 * @throws IOException  thrown if the request content cannot be read
+	 */
+	private JsonObject readJson(HttpServletRequest request) throws IOException {
+		try (Reader reader = new InputStreamReader( getRequestContent( request ), StandardCharsets.UTF_8 )) {
+			return new JsonParser().parse( reader ).getAsJsonObject();
+		}
+	}
+	
+	/**
+	 * Writes the given JSON element as the body of the response.
+	 * 
+	 * @param json  the JSON content to write
+	 * @param statusCode  the HTTP status code of the response
+	 * @param response  the HTTP response to be returned
+	 * @throws IOException  thrown if the response cannot be written
+	 */
+	private static void writeJson(JsonElement json, int statusCode, HttpServletResponse response) throws IOException {
+		response.setStatus( statusCode );
+		response.setContentType( "application/json; charset=UTF-8" );
+		
+		try (Writer writer = new OutputStreamWriter( response.getOutputStream(), StandardCharsets.UTF_8 )) {
+			synchronized (json) {
+				gson.toJson( json, writer );
+			}
+		}
+	}
+	
+	/**
+	 * Returns the integer value of a request parameter, or the default value if the
+	 * parameter is missing or invalid.
+	 * 
+	 * @param request  the HTTP request being processed
+	 * @param paramName  the name of the parameter
+	 * @param defaultValue  the value to return if the parameter is not specified
+	 * @return int
+	 */
+	private static int getIntParameter(HttpServletRequest request, String paramName, int defaultValue) {
+		String paramValue = request.getParameter( paramName );
+		int value = defaultValue;
+		
+		if (paramValue != null) {
+			try {
+				value = Integer.parseInt( paramValue );
+				
+			} catch (NumberFormatException e) {
+				// Ignore - use the default value
+			}
+		}
+		return value;
+	}
+	
+	/**
+	 * Returns the unique name/version key of the given API.
+	 * 
+	 * @param api  the API whose key is to be returned
+	 * @return String
+	 */
+	private static String getKey(JsonObject api) {
+		return api.get( "name" ).getAsString() + ":" + api.get( "version" ).getAsString();
+	}
+	
+	/**
+	 * Returns the documents of the specified API.
+	 * 
+	 * @param apiId  the ID of the API whose documents are to be returned
+	 * @return Map<String,JsonObject>
+	 */
+	private Map<String,JsonObject> getDocuments(String apiId) {
+		Map<String,JsonObject> apiDocs = documents.get( apiId );
+		return (apiDocs == null) ? Collections.<String,JsonObject>emptyMap() : apiDocs;
+	}
+	
+	/**
+	 * Pauses the current request for the configured latency.
+	 */
+	private void simulateLatency() {
+		if (latency > 0) {
+			try {
+				Thread.sleep( latency );
+				
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Returns an injected error response if one is scheduled for the current request.
+	 * 
+	 * @param response  the HTTP response to be returned
+	 * @return boolean
+	 * @throws IOException  thrown if the response cannot be written
+	 */
+	private boolean injectError(HttpServletResponse response) throws IOException {
+		int statusCode = 0;
+		
+		if (failNextCount.getAndDecrement() > 0) {
+			statusCode = failNextStatus;
+			
+		} else {
+			failNextCount.set( 0 );
+			
+			if ((errorRate > 0) && (ThreadLocalRandom.current().nextDouble() < errorRate)) {
+				statusCode = errorStatus;
+			}
+		}
+		
+		if (statusCode != 0) {
+			injectedErrorCount.incrementAndGet();
+			response.sendError( statusCode, "Injected error" );
+		}
+		return (statusCode != 0);
+	}
+	
+	/**
+	 * Causes the next requests to fail with the given HTTP status code.
+	 *
+	 * @param count  the number of requests that should fail
+	 * @param statusCode  the HTTP status code to return for each failed request
+	 */
+	public void failNextRequests(int count, int statusCode) {
+		this.failNextStatus = statusCode;
+		this.failNextCount.set( count );
+	}
+	
+	/**
+	 * Invalidates all of the access tokens that have been issued so that the next request
+	 * of each client is rejected as unauthorized.
+	 */
+	public void revokeAllTokens() {
+		validTokens.clear();
+	}
+	
+	/**
+	 * Discards all API's, documents and statistics, and restores the default latency,
+	 * error injection, token lifetime and compression settings.
+	 */
+	public void reset() {
+		apis.clear();
+		apiKeys.clear();
+		documents.clear();
+		documentContentSizes.clear();
+		requestCount.set( 0 );
+		injectedErrorCount.set( 0 );
+		failNextCount.set( 0 );
+		bytesReceived.set( 0 );
+		latency = 0;
+		errorRate = 0.0;
+		errorStatus = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+		tokenLifetime = 3600;
+		acceptCompressedRequests = true;
+	}
+	
+	/**
+	 * Returns the number of API's that currently exist.
+	 *
+	 * @return int
+	 */
+	public int getApiCount() {
+		return apis.size();
+	}
+	
+	/**
+	 * Returns the number of documents that currently exist for all API's.
+	 *
+	 * @return int
+	 */
+	public int getDocumentCount() {
+		int docCount = 0;
+		
+		for (Map<String,JsonObject> apiDocs : documents.values()) {
+			docCount += apiDocs.size();
+		}
+		return docCount;
+	}
+	
+	/**
+	 * Returns the size of the content that was uploaded for a document, or -1 if no
+	 * content has been uploaded.
+	 *
+	 * @param documentId  the ID of the document
+	 * @return long
+	 */
+	public long getContentSize(String documentId) {
+		Long contentSize = documentContentSizes.get( documentId );
+		return (contentSize == null) ? -1L : contentSize;
+	}
+	
+	/**
+	 * Returns the lifecycle status of the API with the given name and version, or null if
+	 * no such API exists.
+	 *
+	 * @param name  the name of the API
+	 * @param version  the version of the API
+	 * @return String
+	 */
+	public String getApiStatus(String name, String version) {
+		String apiId = apiKeys.get( name + ":" + version );
+		JsonObject api = (apiId == null) ? null : apis.get( apiId );
+		
+		if (api != null) {
+			synchronized (api) {
+				return api.get( "status" ).getAsString();
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the number of requests that have been received.
+	 *
+	 * @return int
+	 */
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+	
+	/**
+	 * Returns the number of requests that were answered with an injected error.
+	 *
+	 * @return int
+	 */
+	public int getInjectedErrorCount() {
+		return injectedErrorCount.get();
+	}
+	
+	/**
+	 * Returns the number of request body bytes received (as sent on the wire).
+	 *
+	 * @return long
+	 */
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+	
+	/**
+	 * Returns the fixed delay (in milliseconds) that is applied to each request.
+	 *
+	 * @return long
+	 */
+	public long getLatency() {
+		return latency;
+	}
+	
+	/**
+	 * Assigns the fixed delay (in milliseconds) that is applied to each request.
+	 *
+	 * @param latency  the field value to assign
+	 */
+	public void setLatency(long latency) {
+		this.latency = latency;
+	}
+	
+	/**
+	 * Returns the fraction of requests (0.0 to 1.0) that fail with the error status.
+	 *
+	 * @return double
+	 */
+	public double getErrorRate() {
+		return errorRate;
+	}
+	
+	/**
+	 * Assigns the fraction of requests (0.0 to 1.0) that fail with the error status.
+	 *
+	 * @param errorRate  the field value to assign
+	 */
+	public void setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+	}
+	
+	/**
+	 * Returns the HTTP status code of randomly injected errors (default is 503).
+	 *
+	 * @return int
+	 */
+	public int getErrorStatus() {
+		return errorStatus;
+	}
+	
+	/**
+	 * Assigns the HTTP status code of randomly injected errors.
+	 *
+	 * @param errorStatus  the field value to assign
+	 */
+	public void setErrorStatus(int errorStatus) {
+		this.errorStatus = errorStatus;
+	}
+	
+	/**
+	 * Returns the lifetime (in seconds) of the access tokens that are issued.
+	 *
+	 * @return int
+	 */
+	public int getTokenLifetime() {
+		return tokenLifetime;
+	}
+	
+	/**
+	 * Assigns the lifetime (in seconds) of the access tokens that are issued.
+	 *
+	 * @param tokenLifetime  the field value to assign
+	 */
+	public void setTokenLifetime(int tokenLifetime) {
+		this.tokenLifetime = tokenLifetime;
+	}
+	
+	/**
+	 * Returns true if gzip-compressed request bodies are accepted (default is true).
+	 *
+	 * @return boolean
+	 */
+	public boolean isAcceptCompressedRequests() {
+		return acceptCompressedRequests;
+	}
+	
+	/**
+	 * Assigns the flag indicating whether gzip-compressed request bodies are accepted.
+	 *
+	 * @param acceptCompressedRequests  the field value to assign
+	 */
+	public void setAcceptCompressedRequests(boolean acceptCompressedRequests) {
+		this.acceptCompressedRequests = acceptCompressedRequests;
+	}
+	
+	/**
+	 * Initializes the API status that results from each lifecycle action.
+	 */
+	static {
+		Map<String,String> transitions = new HashMap<>();
+		
+		transitions.put( "Publish", "PUBLISHED" );
+		transitions.put( "Deploy as a Prototype", "PROTOTYPED" );
+		transitions.put( "Demote to Created", "CREATED" );
+		transitions.put( "Demote to Prototyped", "PROTOTYPED" );
+		transitions.put( "Block", "BLOCKED" );
+		transitions.put( "Deprecate", "DEPRECATED" );
+		transitions.put( "Re-Publish", "PUBLISHED" );
+		transitions.put( "Retire", "RETIRED" );
+		lifecycleTransitions = Collections.unmodifiableMap( transitions );
+	}
+	
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016.am;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the publication throughput of the API Manager client operations against an
+ * in-process <code>FakePublisherServer</code>.  Each API is created and then published,
+ * which mirrors the requests issued by the API publisher for a new API.  The results are
+ * reported through the logger.
+ * 
+ * <p>Usage: <code>PublisherBenchmark [apiCount] [threads] [latencyMillis] [errorRate]</code>
+ *
+ * @author S. Livezey
+ */
+public class PublisherBenchmark {
+	
+	private static final Logger log = LoggerFactory.getLogger( PublisherBenchmark.class );
+	
+	private static final String API_DEFINITION = "{\"swagger\":\"2.0\",\"info\":{\"title\":\"Benchmark\","
+			+ "\"version\":\"1.0.0\"},\"paths\":{\"/items\":{\"get\":{\"responses\":{\"200\":"
+			+ "{\"description\":\"OK\"}}}}}}";
+	
+	/**
+	 * Main method that runs the benchmark from the command line.
+	 * 
+	 * @param args  the command-line arguments
+	 */
+	public static void main(String[] args) {
+		int apiCount = (args.length > 0) ? Integer.parseInt( args[0] ) : 1000;
+		int threads = (args.length > 1) ? Integer.parseInt( args[1] ) : 8;
+		FakePublisherServer server = new FakePublisherServer();
+		
+		FakePublisherServer.useFakePublisherConfig();
+		
+		if (args.length > 2) {
+			server.getPublisherServlet().setLatency( Long.parseLong( args[2] ) );
+		}
+		if (args.length > 3) {
+			server.getPublisherServlet().setErrorRate( Double.parseDouble( args[3] ) );
+		}
+		
+		try (APIOperationFactory factory = new APIOperationFactory()) {
+			ExecutorService executor = Executors.newFixedThreadPool( threads );
+			List<Future<Boolean>> results = new ArrayList<>();
+			int failureCount = 0;
+			
+			server.start();
+			factory.setMaxConnections( threads );
+			factory.initializeAccessToken();
+			long startTime = System.currentTimeMillis();
+			
+			for (int i = 0; i < apiCount; i++) {
+				results.add( executor.submit( new PublishTask( factory, i ) ) );
+			}
+			for (Future<Boolean> result : results) {
+				try {
+					result.get();
+					
+				} catch (ExecutionException e) {
+					failureCount++;
+				}
+			}
+			long elapsed = Math.max( 1L, System.currentTimeMillis() - startTime );
+			
+			executor.shutdown();
+			log.info("Published " + (apiCount - failureCount) + " of " + apiCount + " API's in "
+					+ elapsed + "ms (" + ((apiCount - failureCount) * 1000L / elapsed) + " API's/sec)");
+			log.info("Client traffic: " + factory.getTrafficStatistics());
+			log.info("Server requests: " + server.getPublisherServlet().getRequestCount()
+					+ " (" + server.getPublisherServlet().getInjectedErrorCount() + " injected errors)");
+			server.stop();
+			
+		} catch (Throwable t) {
+			log.error("Error running the publisher benchmark", t);
+		}
+	}
+	
+	/**
+	 * Task that creates and publishes a single API.
+	 */
+	private static class PublishTask implements Callable<Boolean> {
+		
+		private APIOperationFactory factory;
+		private int index;
+		
+		/**
+		 * Constructor that specifies the API to be published.
+		 *
+		 * @param factory  the factory to use when creating API Manager operations
+		 * @param index  the index of the API to publish
+		 */
+		public PublishTask(APIOperationFactory factory, int index) {
+			this.factory = factory;
+			this.index = index;
+		}
+		
+		/**
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public Boolean call() throws IOException {
+			CreateAPIOperation createOp = factory.newCreateAPIOperation();
+			ChangeAPIStatusOperation statusOp = factory.newChangeAPIStatusOperation();
+			APIDetails api = new APIDetails();
+			
+			api.setName( "BenchmarkAPI" + index );
+			api.setVersion( "1.0.0" );
+			api.setContext( "/benchmark/api" + index );
+			api.setApiDefinition( API_DEFINITION );
+			createOp.setApi( api );
+			api = createOp.execute();
+			
+			statusOp.setApiId( api.getId() );
+			statusOp.setAction( APIStatusAction.PUBLISH );
+			return statusOp.execute();
+		}
+		
+	}
+	
+}
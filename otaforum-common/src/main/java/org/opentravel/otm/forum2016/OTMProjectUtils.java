@@ -17,7 +17,6 @@
 package org.opentravel.otm.forum2016;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.opentravel.schemacompiler.model.TLModel;
@@ -38,6 +37,7 @@ import org.slf4j.LoggerFactory;
 public class OTMProjectUtils {
 	
     private static final Logger log = LoggerFactory.getLogger( OTMProjectUtils.class );
+    private static final ProjectFolderScanner defaultScanner = new ProjectFolderScanner();
     
 	/**
 	 * Returns the list of top-level context folders for the project.
@@ -46,32 +46,19 @@ public class OTMProjectUtils {
 	 * @return List<File>
 	 */
 	public static List<File> getContextFolders(File projectFolder) {
-		List<File> contextFolders = new ArrayList<>();
-		
-		for (File item : projectFolder.listFiles()) {
-			if (item.isDirectory() && !item.getName().startsWith(".")) {
-				contextFolders.add( item );
-			}
-		}
-		return contextFolders;
+		return defaultScanner.getContextFolders( projectFolder );
 	}
 	
 	/**
-	 * Returns the list of OTM project files in the specified context folder.
+	 * Returns the list of OTM project files in the specified context folder.  Folders
+	 * that match the default exclude globs of the <code>ProjectFolderScanner</code> are
+	 * not searched.
 	 * 
 	 * @param contextFolder  the context folder to search
 	 * @param otmProjectFiles  the list to which all OTP files will be appended
 	 */
 	public static void findOTMProjects(File contextFolder, List<File> otmProjectFiles) {
-		if (contextFolder.isFile()) {
-			if (contextFolder.getName().toLowerCase().endsWith( ".otp" )) {
-				otmProjectFiles.add( contextFolder );
-			}
-		} else {
-			for (File item : contextFolder.listFiles()) {
-				findOTMProjects( item, otmProjectFiles );
-			}
-		}
+		otmProjectFiles.addAll( defaultScanner.findOTMProjects( contextFolder ) );
 	}
 	
 	/**
@@ -88,17 +75,55 @@ public class OTMProjectUtils {
         Project project = projectManager.loadProject( otpFile, findings);
 		TLModel model = null;
 		
-		if (findings.hasFinding( FindingType.ERROR )) {
+		if (!hasErrors( findings )) {
+			model = project.getModel();
+		}
+		return model;
+	}
+	
+	/**
+	 * Loads all of the given OTM project files into a single model that is shared by
+	 * every project in the context.  Libraries that are referenced by more than one
+	 * project (including the OTA2 built-ins) are loaded and validated only once.  If
+	 * errors exist in the combined model, this method will display the errors and
+	 * return null.
+	 * 
+	 * @param otpFiles  the OTM project files to load
+	 * @return TLModel
+	 * @throws SchemaCompilerException
+	 */
+	public static TLModel loadContextModel(List<File> otpFiles) throws SchemaCompilerException {
+        ValidationFindings findings = new ValidationFindings();
+        ProjectManager projectManager = new ProjectManager(false);
+		TLModel model = null;
+		
+		for (File otpFile : otpFiles) {
+			projectManager.loadProject( otpFile, findings );
+		}
+		if (!hasErrors( findings )) {
+			model = projectManager.getModel();
+		}
+		return model;
+	}
+	
+	/**
+	 * Returns true if the given findings contain one or more errors.  If errors are
+	 * present, all of the findings will be logged.
+	 * 
+	 * @param findings  the validation findings to check
+	 * @return boolean
+	 */
+	private static boolean hasErrors(ValidationFindings findings) {
+		boolean hasErrors = findings.hasFinding( FindingType.ERROR );
+		
+		if (hasErrors) {
 			log.info("  Errors/Warnings:");
 			
 			for (String message : findings.getAllValidationMessages( FindingMessageFormat.IDENTIFIED_FORMAT )) {
 				log.info("    " + message);
 			}
-			
-		} else {
-			model = project.getModel();
 		}
-		return model;
+		return hasErrors;
 	}
 	
 }
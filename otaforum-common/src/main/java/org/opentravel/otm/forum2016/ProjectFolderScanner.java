@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scans the mock content workspace for context folders and OTM project files.  Each
+ * sub-folder is scanned as a separate fork/join task, and folders whose names match
+ * one of the exclude globs (e.g. <code>.git</code> or generated build output) are
+ * never visited.
+ *
+ * @author S. Livezey
+ */
+public class ProjectFolderScanner {
+	
+	/**
+	 * Folder name globs that are excluded by default: dot-folders, build output and
+	 * the wildcard path-parameter folders of generated mock content.
+	 */
+	public static final List<String> DEFAULT_EXCLUDES = Collections.unmodifiableList(
+			Arrays.asList( ".*", "target", "node_modules", "_*_" ) );
+	
+	private static final String OTP_FILE_EXT = ".otp";
+    
+    private static final Logger log = LoggerFactory.getLogger( ProjectFolderScanner.class );
+    private static final ForkJoinPool scanPool = new ForkJoinPool();
+	
+	private List<PathMatcher> excludeMatchers = new ArrayList<>();
+	
+	/**
+	 * Default constructor that uses the default list of exclude globs.
+	 */
+	public ProjectFolderScanner() {
+		this( DEFAULT_EXCLUDES );
+	}
+	
+	/**
+	 * Constructor that specifies the folder name globs to be excluded from the scan.
+	 *
+	 * @param excludeGlobs  the folder name patterns to exclude (e.g. ".*" or "target")
+	 */
+	public ProjectFolderScanner(List<String> excludeGlobs) {
+		if (excludeGlobs != null) {
+			for (String glob : excludeGlobs) {
+				excludeMatchers.add( FileSystems.getDefault().getPathMatcher( "glob:" + glob ) );
+			}
+		}
+	}
+	
+	/**
+	 * Returns the list of top-level context folders for the project.  Only dot-folders
+	 * (e.g. <code>.git</code> or <code>.target</code>) are skipped at the top level; the
+	 * exclude globs apply to the folders within a context, so a context may have any
+	 * other name.
+	 *
+	 * @param projectFolder  the root folder of the mock content workspace
+	 * @return List<File>
+	 */
+	public List<File> getContextFolders(File projectFolder) {
+		List<File> contextFolders = new ArrayList<>();
+		
+		for (Path item : listFolder( projectFolder.toPath() )) {
+			if (Files.isDirectory( item ) && !item.getFileName().toString().startsWith( "." )) {
+				contextFolders.add( item.toFile() );
+			}
+		}
+		return contextFolders;
+	}
+	
+	/**
+	 * Returns the list of OTM project files in the specified context folder.
+	 *
+	 * @param contextFolder  the context folder to search
+	 * @return List<File>
+	 */
+	public List<File> findOTMProjects(File contextFolder) {
+		return scanPool.invoke( new ScanTask( contextFolder.toPath() ) );
+	}
+	
+	/**
+	 * Returns true if the given folder matches one of the exclude globs.
+	 *
+	 * @param folder  the folder to check
+	 * @return boolean
+	 */
+	public boolean isExcluded(Path folder) {
+		Path folderName = folder.getFileName();
+		boolean excluded = false;
+		
+		if (folderName != null) {
+			for (PathMatcher matcher : excludeMatchers) {
+				if (excluded = matcher.matches( folderName )) {
+					break;
+				}
+			}
+		}
+		return excluded;
+	}
+	
+	/**
+	 * Returns the members of the given folder, sorted by name.  If the folder cannot be
+	 * read, a warning is logged and an empty list is returned.
+	 *
+	 * @param folder  the folder whose contents are to be returned
+	 * @return List<Path>
+	 */
+	private static List<Path> listFolder(Path folder) {
+		List<Path> members = new ArrayList<>();
+		
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream( folder )) {
+			for (Path member : stream) {
+				members.add( member );
+			}
+			Collections.sort( members );
+			
+		} catch (IOException e) {
+			log.warn("Unable to scan folder: " + folder);
+		}
+		return members;
+	}
+	
+	/**
+	 * Fork/join task that collects the OTM project files from a single folder and
+	 * forks a new task for each of its (non-excluded) sub-folders.
+	 */
+	private class ScanTask extends RecursiveTask<List<File>> {
+		
+		private static final long serialVersionUID = 2619406226530381412L;
+		
+		private Path folder;
+		
+		/**
+		 * Constructor that specifies the folder to be scanned.
+		 *
+		 * @param folder  the folder to scan
+		 */
+		public ScanTask(Path folder) {
+			this.folder = folder;
+		}
+		
+		/**
+		 * @see java.util.concurrent.RecursiveTask#compute()
+		 */
+		@Override
+		protected List<File> compute() {
+			List<File> otpFiles = new ArrayList<>();
+			
+			if (Files.isRegularFile( folder )) {
+				addIfProjectFile( folder, otpFiles );
+				
+			} else {
+				List<ScanTask> subTasks = new ArrayList<>();
+				
+				for (Path item : listFolder( folder )) {
+					if (Files.isDirectory( item )) {
+						if (!isExcluded( item )) {
+							ScanTask subTask = new ScanTask( item );
+							
+							subTask.fork();
+							subTasks.add( subTask );
+						}
+					} else {
+						addIfProjectFile( item, otpFiles );
+					}
+				}
+				for (ScanTask subTask : subTasks) {
+					otpFiles.addAll( subTask.join() );
+				}
+			}
+			return otpFiles;
+		}
+		
+		/**
+		 * Adds the given file to the list if it is an OTM project file.
+		 *
+		 * @param file  the file to check
+		 * @param otpFiles  the list of OTM project files being collected
+		 */
+		private void addIfProjectFile(Path file, List<File> otpFiles) {
+			if (file.getFileName().toString().toLowerCase().endsWith( OTP_FILE_EXT )) {
+				otpFiles.add( file.toFile() );
+			}
+		}
+		
+	}
+	
+}
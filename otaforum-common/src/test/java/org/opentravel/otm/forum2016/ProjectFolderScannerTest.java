@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Verifies the context folder and OTM project discovery of the <code>ProjectFolderScanner</code>.
+ *
+ * @author S. Livezey
+ */
+public class ProjectFolderScannerTest {
+	
+	@Rule
+	public TemporaryFolder projectFolder = new TemporaryFolder();
+	
+	@Test
+	public void testContextFoldersSkipOnlyDotFolders() throws IOException {
+		projectFolder.newFolder( ".git" );
+		projectFolder.newFolder( ".target" );
+		projectFolder.newFolder( "target" );
+		projectFolder.newFolder( "node_modules" );
+		projectFolder.newFolder( "travel" );
+		projectFolder.newFile( "readme.md" );
+		
+		assertEquals( Arrays.asList( "node_modules", "target", "travel" ),
+				getNames( new ProjectFolderScanner().getContextFolders( projectFolder.getRoot() ) ) );
+	}
+	
+	@Test
+	public void testProjectScanAppliesExcludes() throws IOException {
+		File contextFolder = projectFolder.newFolder( "target" );
+		
+		new File( projectFolder.newFolder( "target", "models" ), "Hotel.otp" ).createNewFile();
+		new File( projectFolder.newFolder( "target", "target" ), "Build.otp" ).createNewFile();
+		new File( projectFolder.newFolder( "target", ".git" ), "Hidden.otp" ).createNewFile();
+		new File( projectFolder.newFolder( "target", "_hotelId_" ), "Mock.otp" ).createNewFile();
+		new File( contextFolder, "Air.otp" ).createNewFile();
+		
+		assertEquals( Arrays.asList( "Air.otp", "Hotel.otp" ),
+				getNames( new ProjectFolderScanner().findOTMProjects( contextFolder ) ) );
+	}
+	
+	/**
+	 * Returns the sorted names of the given files.
+	 *
+	 * @param files  the files whose names are to be returned
+	 * @return List<String>
+	 */
+	private static List<String> getNames(List<File> files) {
+		List<String> names = new ArrayList<>();
+		
+		for (File file : files) {
+			names.add( file.getName() );
+		}
+		Collections.sort( names );
+		return names;
+	}
+	
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.opentravel.otm.forum2016;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Static utility methods used to write generated files atomically.  Content is first
+ * written to a temporary file in the same folder as the target and is then moved into
+ * place, so readers of the mock content workspace never see partially written files
+ * and an interrupted run does not leave truncated output behind.
+ *
+ * @author S. Livezey
+ */
+public class AtomicFiles {
+	
+	private static final String TEMP_FILE_PREFIX = ".~";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+	
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private AtomicFiles() {}
+	
+	/**
+	 * Creates a new (empty) temporary file in the same folder as the given target file.
+	 *
+	 * @param targetFile  the file that will eventually be replaced by the temporary file
+	 * @return Path
+	 * @throws IOException  thrown if the temporary file cannot be created
+	 */
+	public static Path createTempFile(Path targetFile) throws IOException {
+		return Files.createTempFile( targetFile.getParent(),
+				TEMP_FILE_PREFIX + targetFile.getFileName() + ".", TEMP_FILE_SUFFIX );
+	}
+	
+	/**
+	 * Moves the given temporary file into place, replacing the target file if it already
+	 * exists.  If the file system does not support atomic moves, a regular move is
+	 * performed instead.  The temporary file is deleted if the move fails.
+	 *
+	 * @param tempFile  the temporary file that contains the new content
+	 * @param targetFile  the file to be created or replaced
+	 * @throws IOException  thrown if the file cannot be moved into place
+	 */
+	public static void moveIntoPlace(Path tempFile, Path targetFile) throws IOException {
+		try {
+			try {
+				Files.move( tempFile, targetFile, StandardCopyOption.ATOMIC_MOVE );
+				
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move( tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING );
+			}
+			
+		} finally {
+			Files.deleteIfExists( tempFile );
+		}
+	}
+	
+	/**
+	 * Copies the content of the source file to the target file by way of a temporary file.
+	 *
+	 * @param sourceFile  the file whose content is to be copied
+	 * @param targetFile  the file to be created or replaced
+	 * @throws IOException  thrown if the file cannot be copied
+	 */
+	public static void copy(Path sourceFile, Path targetFile) throws IOException {
+		Path tempFile = createTempFile( targetFile );
+		
+		try {
+			Files.copy( sourceFile, tempFile, StandardCopyOption.REPLACE_EXISTING );
+			
+		} catch (IOException e) {
+			Files.deleteIfExists( tempFile );
+			throw e;
+		}
+		moveIntoPlace( tempFile, targetFile );
+	}
+	
+	/**
+	 * Writes the given content to the target file by way of a temporary file.
+	 *
+	 * @param content  the content to write
+	 * @param targetFile  the file to be created or replaced
+	 * @throws IOException  thrown if the file cannot be written
+	 */
+	public static void write(byte[] content, Path targetFile) throws IOException {
+		Path tempFile = createTempFile( targetFile );
+		
+		try {
+			Files.write( tempFile, content );
+			
+		} catch (IOException e) {
+			Files.deleteIfExists( tempFile );
+			throw e;
+		}
+		moveIntoPlace( tempFile, targetFile );
+	}
+	
+	/**
+	 * Deletes any temporary files that were left in the given folder by an interrupted
+	 * run.  The number of files that were deleted is returned.
+	 *
+	 * @param folder  the folder from which to delete left-over temporary files
+	 * @return int
+	 * @throws IOException  thrown if the folder cannot be read
+	 */
+	public static int deleteTempFiles(Path folder) throws IOException {
+		int deleteCount = 0;
+		
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream( folder,
+				TEMP_FILE_PREFIX + "*" + TEMP_FILE_SUFFIX )) {
+			for (Path tempFile : stream) {
+				if (Files.deleteIfExists( tempFile )) {
+					deleteCount++;
+				}
+			}
+		}
+		return deleteCount;
+	}
+	
+}
@@ -0,0 +1,359 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.opentravel.otm.forum2016.BatchUpdateReport.ContextResult;
+import org.opentravel.otm.forum2016.BatchUpdateReport.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Updates all of the context folders in the mock content workspace (or the contexts
+ * whose names match a glob pattern) within a single JVM.  Contexts are updated
+ * concurrently, and a summary of the results is returned (and optionally written
+ * to a JSON report file).  If a payload profiler is assigned, the mock payloads of the
+ * updated contexts are profiled after the update and checked against its size budgets.
+ * 
+ * <p>Running the batch in a single JVM only avoids paying the JVM and OTM compiler start-up
+ * cost once per context.  The OTM libraries of each context (including any libraries that
+ * are shared between contexts) are still loaded separately into that context's own model,
+ * because a loaded library belongs to exactly one model and the contexts are updated
+ * concurrently.
+ *
+ * @author S. Livezey
+ */
+public class BatchUpdateJob {
+	
+	public static final int DEFAULT_THREADS = 2;
+	
+	private static final Logger log = LoggerFactory.getLogger( BatchUpdateJob.class );
+	
+	private File projectFolder;
+	private String contextGlob;
+	private int threads = DEFAULT_THREADS;
+	private boolean incrementalUpdate = true;
+	private MockVariantOptions variantOptions = new MockVariantOptions();
+	private File reportFile;
+	private PayloadProfiler profiler;
+	private File profileFile;
+	private ProjectFolderScanner scanner = new ProjectFolderScanner();
+	
+	/**
+	 * Constructor that specifies the root folder of the mock content workspace.
+	 *
+	 * @param projectFolder  the root directory of the mock content workspace
+	 */
+	public BatchUpdateJob(File projectFolder) {
+		this.projectFolder = projectFolder;
+	}
+	
+	/**
+	 * Updates all of the selected context folders and returns a report of the results.
+	 *
+	 * @return BatchUpdateReport
+	 * @throws UpdateContextException  thrown if the report file cannot be written
+	 */
+	public BatchUpdateReport execute() throws UpdateContextException {
+		BatchUpdateReport report = new BatchUpdateReport( projectFolder );
+		ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, threads ) );
+		List<Future<ContextResult>> results = new ArrayList<>();
+		long startTime = System.currentTimeMillis();
+		
+		try {
+			for (File contextFolder : getSelectedContexts()) {
+				results.add( executor.submit( new UpdateTask( contextFolder.getName() ) ) );
+			}
+			for (Future<ContextResult> result : results) {
+				try {
+					report.addResult( result.get() );
+					
+				} catch (ExecutionException e) {
+					throw new UpdateContextException( e.getCause() ); // should never happen
+				}
+			}
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UpdateContextException( "Batch update interrupted.", e );
+			
+		} finally {
+			executor.shutdownNow();
+		}
+		if (profiler != null) {
+			profilePayloads( report );
+		}
+		report.setElapsedMillis( System.currentTimeMillis() - startTime );
+		log.info("Updated " + report.getContextCount() + " contexts in " + report.getElapsedMillis()
+				+ "ms (" + report.getFailedCount() + " failed or incomplete)");
+		
+		if (reportFile != null) {
+			try {
+				report.write( reportFile );
+				
+			} catch (IOException e) {
+				throw new UpdateContextException( "Unable to write batch report: " + reportFile, e );
+			}
+		}
+		return report;
+	}
+	
+	/**
+	 * Profiles the mock payloads of all contexts that were updated successfully and
+	 * records the number of budget violations in the batch report.
+	 *
+	 * @param report  the batch report of the context updates
+	 * @throws UpdateContextException  thrown if the payloads cannot be profiled
+	 */
+	private void profilePayloads(BatchUpdateReport report) throws UpdateContextException {
+		PayloadProfileReport profileReport = profiler.newReport();
+		
+		try {
+			for (ContextResult result : report.getContexts()) {
+				if (result.getStatus() == Status.SUCCESS) {
+					profiler.profile( result.getContext(), profileReport );
+				}
+			}
+			if (profileFile != null) {
+				profileReport.write( profileFile );
+			}
+			
+		} catch (IOException e) {
+			throw new UpdateContextException( "Unable to profile the mock payloads.", e );
+		}
+		
+		for (String violation : profileReport.getViolations()) {
+			log.error("Payload budget exceeded - " + violation);
+		}
+		report.setBudgetViolations( profileReport.getViolations().size() );
+		log.info("Profiled " + profileReport.getFileCount() + " mock payloads (" + profileReport.getTotalBytes()
+				+ " bytes, " + report.getBudgetViolations() + " budget violations)");
+	}
+	
+	/**
+	 * Returns the context folders whose names match the context glob.
+	 *
+	 * @return List<File>
+	 */
+	private List<File> getSelectedContexts() {
+		PathMatcher matcher = (contextGlob == null) ?
+				null : FileSystems.getDefault().getPathMatcher( "glob:" + contextGlob );
+		List<File> contextFolders = new ArrayList<>();
+		
+		for (File contextFolder : scanner.getContextFolders( projectFolder )) {
+			if ((matcher == null) || matcher.matches( contextFolder.toPath().getFileName() )) {
+				contextFolders.add( contextFolder );
+			}
+		}
+		return contextFolders;
+	}
+	
+	/**
+	 * Returns the root directory of the mock content workspace.
+	 *
+	 * @return File
+	 */
+	public File getProjectFolder() {
+		return projectFolder;
+	}
+	
+	/**
+	 * Returns the glob pattern that selects the contexts to update (null for all contexts).
+	 *
+	 * @return String
+	 */
+	public String getContextGlob() {
+		return contextGlob;
+	}
+	
+	/**
+	 * Assigns the glob pattern that selects the contexts to update (null for all contexts).
+	 *
+	 * @param contextGlob  the glob pattern to assign
+	 */
+	public void setContextGlob(String contextGlob) {
+		this.contextGlob = contextGlob;
+	}
+	
+	/**
+	 * Returns the maximum number of contexts that may be updated concurrently (default is 2).
+	 *
+	 * @return int
+	 */
+	public int getThreads() {
+		return threads;
+	}
+	
+	/**
+	 * Assigns the maximum number of contexts that may be updated concurrently.
+	 *
+	 * @param threads  the thread count to assign
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+	
+	/**
+	 * Returns true if each context should be updated incrementally (default is true).
+	 *
+	 * @return boolean
+	 */
+	public boolean isIncrementalUpdate() {
+		return incrementalUpdate;
+	}
+	
+	/**
+	 * Assigns the flag indicating whether each context should be updated incrementally.  A
+	 * full (non-incremental) update also regenerates the existing mock response variants, so
+	 * that they reflect the current variant options.
+	 *
+	 * @param incrementalUpdate  the flag value to assign
+	 */
+	public void setIncrementalUpdate(boolean incrementalUpdate) {
+		this.incrementalUpdate = incrementalUpdate;
+	}
+	
+	/**
+	 * Returns the options that control the mock response variants generated for each action.
+	 *
+	 * @return MockVariantOptions
+	 */
+	public MockVariantOptions getVariantOptions() {
+		return variantOptions;
+	}
+	
+	/**
+	 * Assigns the options that control the mock response variants generated for each action.
+	 *
+	 * @param variantOptions  the variant options to assign
+	 */
+	public void setVariantOptions(MockVariantOptions variantOptions) {
+		this.variantOptions = variantOptions;
+	}
+	
+	/**
+	 * Returns the file to which the JSON summary report is written (may be null).
+	 *
+	 * @return File
+	 */
+	public File getReportFile() {
+		return reportFile;
+	}
+	
+	/**
+	 * Assigns the file to which the JSON summary report is written.
+	 *
+	 * @param reportFile  the report file to assign
+	 */
+	public void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+	
+	/**
+	 * Returns the profiler used to measure the mock payloads after the update (may be null).
+	 *
+	 * @return PayloadProfiler
+	 */
+	public PayloadProfiler getProfiler() {
+		return profiler;
+	}
+	
+	/**
+	 * Assigns the profiler used to measure the mock payloads after the update.
+	 *
+	 * @param profiler  the payload profiler to assign (null to disable profiling)
+	 */
+	public void setProfiler(PayloadProfiler profiler) {
+		this.profiler = profiler;
+	}
+	
+	/**
+	 * Returns the file to which the JSON payload profile is written (may be null).
+	 *
+	 * @return File
+	 */
+	public File getProfileFile() {
+		return profileFile;
+	}
+	
+	/**
+	 * Assigns the file to which the JSON payload profile is written.
+	 *
+	 * @param profileFile  the profile file to assign
+	 */
+	public void setProfileFile(File profileFile) {
+		this.profileFile = profileFile;
+	}
+	
+	/**
+	 * Task that updates a single context folder.
+	 */
+	private class UpdateTask implements Callable<ContextResult> {
+		
+		private String context;
+		
+		/**
+		 * Constructor that specifies the context to be updated.
+		 *
+		 * @param context  the name of the context folder to update
+		 */
+		public UpdateTask(String context) {
+			this.context = context;
+		}
+		
+		/**
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public ContextResult call() {
+			UpdateContextJob job = new UpdateContextJob( projectFolder, context );
+			long startTime = System.currentTimeMillis();
+			ContextResult result;
+			
+			job.setIncrementalUpdate( incrementalUpdate );
+			job.setRegenerateChangedMocks( !incrementalUpdate );
+			job.setVariantOptions( variantOptions );
+			job.setScanner( scanner );
+			
+			try {
+				job.execute();
+				result = new ContextResult( context, job.isComplete() ? Status.SUCCESS : Status.INCOMPLETE,
+						null, System.currentTimeMillis() - startTime );
+						
+			} catch (Exception e) {
+				log.error("Error updating context: " + context, e);
+				result = new ContextResult( context, Status.FAILED, e.getMessage(),
+						System.currentTimeMillis() - startTime );
+			}
+			result.setCounts( job );
+			return result;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Machine-readable summary of a batch update of context folders.  The report is written
+ * as a JSON document so that it can be evaluated by build scripts.
+ *
+ * @author S. Livezey
+ */
+public class BatchUpdateReport {
+	
+	public enum Status { SUCCESS, INCOMPLETE, FAILED }
+	
+	private String projectFolder;
+	private long elapsedMillis;
+	private int contextCount;
+	private int failedCount;
+	private int budgetViolations;
+	private List<ContextResult> contexts = new ArrayList<>();
+	
+	/**
+	 * Constructor that specifies the root folder of the mock content workspace.
+	 *
+	 * @param projectFolder  the root folder of the mock content workspace
+	 */
+	public BatchUpdateReport(File projectFolder) {
+		this.projectFolder = projectFolder.getAbsolutePath();
+	}
+	
+	/**
+	 * Adds the result of a context update to this report.
+	 *
+	 * @param result  the context result to add
+	 */
+	public synchronized void addResult(ContextResult result) {
+		contexts.add( result );
+		contextCount++;
+		
+		if (result.getStatus() != Status.SUCCESS) {
+			failedCount++;
+		}
+	}
+	
+	/**
+	 * Writes this report to the specified file.  The context results are sorted by
+	 * context name.
+	 *
+	 * @param reportFile  the file to which the report should be written
+	 * @throws IOException  thrown if the report cannot be written
+	 */
+	public synchronized void write(File reportFile) throws IOException {
+		Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+		
+		Collections.sort( contexts, new Comparator<ContextResult>() {
+			public int compare(ContextResult result1, ContextResult result2) {
+				return result1.getContext().compareTo( result2.getContext() );
+			}
+		});
+		
+		if (reportFile.getParentFile() != null) {
+			Files.createDirectories( reportFile.getParentFile().toPath() );
+		}
+		try (Writer writer = Files.newBufferedWriter( reportFile.toPath(), StandardCharsets.UTF_8 )) {
+			gson.toJson( this, writer );
+		}
+	}
+	
+	/**
+	 * Returns the total elapsed time of the batch update in milliseconds.
+	 *
+	 * @return long
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+	
+	/**
+	 * Assigns the total elapsed time of the batch update in milliseconds.
+	 *
+	 * @param elapsedMillis  the field value to assign
+	 */
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+	
+	/**
+	 * Returns the number of contexts that were processed.
+	 *
+	 * @return int
+	 */
+	public synchronized int getContextCount() {
+		return contextCount;
+	}
+	
+	/**
+	 * Returns the number of contexts that were not updated successfully.
+	 *
+	 * @return int
+	 */
+	public synchronized int getFailedCount() {
+		return failedCount;
+	}
+	
+	/**
+	 * Returns the number of mock payloads that exceeded the profiler's size budgets.
+	 *
+	 * @return int
+	 */
+	public synchronized int getBudgetViolations() {
+		return budgetViolations;
+	}
+	
+	/**
+	 * Assigns the number of mock payloads that exceeded the profiler's size budgets.
+	 *
+	 * @param budgetViolations  the field value to assign
+	 */
+	public synchronized void setBudgetViolations(int budgetViolations) {
+		this.budgetViolations = budgetViolations;
+	}
+	
+	/**
+	 * Returns the results of the individual context updates.
+	 *
+	 * @return List<ContextResult>
+	 */
+	public synchronized List<ContextResult> getContexts() {
+		return new ArrayList<>( contexts );
+	}
+	
+	/**
+	 * The result of the update of a single context folder.
+	 */
+	public static class ContextResult {
+		
+		private String context;
+		private Status status;
+		private String error;
+		private long elapsedMillis;
+		private int mockFilesCreated;
+		private int readmesWritten;
+		private int foldersPruned;
+		
+		/**
+		 * Constructor that specifies the outcome of a context update.
+		 *
+		 * @param context  the name of the context
+		 * @param status  the status of the update
+		 * @param error  the error message of a failed update (may be null)
+		 * @param elapsedMillis  the elapsed time of the update in milliseconds
+		 */
+		public ContextResult(String context, Status status, String error, long elapsedMillis) {
+			this.context = context;
+			this.status = status;
+			this.error = error;
+			this.elapsedMillis = elapsedMillis;
+		}
+		
+		/**
+		 * Assigns the artifact counts that were reported by the job that updated the context.
+		 *
+		 * @param job  the job that updated the context
+		 */
+		public void setCounts(UpdateContextJob job) {
+			this.mockFilesCreated = job.getMockFileCount();
+			this.readmesWritten = job.getReadmeCount();
+			this.foldersPruned = job.getPrunedFolderCount();
+		}
+		
+		/**
+		 * Returns the name of the context.
+		 *
+		 * @return String
+		 */
+		public String getContext() {
+			return context;
+		}
+		
+		/**
+		 * Returns the status of the update.
+		 *
+		 * @return Status
+		 */
+		public Status getStatus() {
+			return status;
+		}
+		
+		/**
+		 * Returns the error message of a failed update.
+		 *
+		 * @return String
+		 */
+		public String getError() {
+			return error;
+		}
+		
+		/**
+		 * Returns the elapsed time of the update in milliseconds.
+		 *
+		 * @return long
+		 */
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+		
+		/**
+		 * Returns the number of mock response files that were created.
+		 *
+		 * @return int
+		 */
+		public int getMockFilesCreated() {
+			return mockFilesCreated;
+		}
+		
+		/**
+		 * Returns the number of readme files that were written.
+		 *
+		 * @return int
+		 */
+		public int getReadmesWritten() {
+			return readmesWritten;
+		}
+		
+		/**
+		 * Returns the number of action folders that were pruned.
+		 *
+		 * @return int
+		 */
+		public int getFoldersPruned() {
+			return foldersPruned;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the fingerprints of the actions and action folders that were generated for
+ * a context.  When a context is updated, the fingerprints of the previous run are used
+ * to detect actions whose definitions (or payload definitions) have changed and to
+ * identify the action folders that are no longer produced by the context's OTM models.
+ *
+ * @author S. Livezey
+ */
+public class ContextManifest {
+	
+	private static final String ACTION_PREFIX   = "action.";
+	private static final String FOLDER_PREFIX   = "folder.";
+	private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+	
+	private static final Logger log = LoggerFactory.getLogger( ContextManifest.class );
+	
+	private File manifestFile;
+	private File contextFolder;
+	private Properties previousEntries = new Properties();
+	private ConcurrentMap<String,String> currentEntries = new ConcurrentHashMap<>();
+	
+	/**
+	 * Constructor that specifies the location of the manifest file and the context folder
+	 * whose artifacts it describes.  If the manifest file exists, the fingerprints of the
+	 * previous run are loaded from it.
+	 *
+	 * @param manifestFile  the file where the manifest is stored
+	 * @param contextFolder  the context folder described by the manifest
+	 * @param loadPrevious  flag indicating whether the fingerprints of the previous run should be loaded
+	 */
+	public ContextManifest(File manifestFile, File contextFolder, boolean loadPrevious) {
+		this.manifestFile = manifestFile;
+		this.contextFolder = contextFolder;
+		
+		if (loadPrevious && manifestFile.exists()) {
+			try (InputStream in = new FileInputStream( manifestFile )) {
+				previousEntries.load( in );
+				
+			} catch (IOException e) {
+				log.warn("Unable to read context manifest (all resources will be updated): " + manifestFile);
+				previousEntries.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Records the fingerprint of a resource action and returns true if it differs from the
+	 * fingerprint of the previous run.
+	 *
+	 * @param actionKey  the key that identifies the action of a resource
+	 * @param fingerprint  the current fingerprint of the action and its payload definitions
+	 * @return boolean
+	 */
+	public boolean isActionChanged(String actionKey, String fingerprint) {
+		return isChanged( ACTION_PREFIX + actionKey, fingerprint );
+	}
+	
+	/**
+	 * Records the fingerprint of an action folder and returns true if it differs from
+	 * the fingerprint of the previous run.
+	 *
+	 * @param actionFolder  the action folder
+	 * @param fingerprint  the current fingerprint of the folder's generated content
+	 * @return boolean
+	 */
+	public boolean isFolderChanged(File actionFolder, String fingerprint) {
+		return isChanged( FOLDER_PREFIX + getRelativePath( actionFolder ), fingerprint );
+	}
+	
+	/**
+	 * Returns the action folders that were recorded by the previous run but have not been
+	 * recorded by the current one.
+	 *
+	 * @return List<File>
+	 */
+	public List<File> getRemovedFolders() {
+		List<String> folderPaths = new ArrayList<>();
+		List<File> removedFolders = new ArrayList<>();
+		
+		for (String key : previousEntries.stringPropertyNames()) {
+			if (key.startsWith( FOLDER_PREFIX ) && !currentEntries.containsKey( key )) {
+				folderPaths.add( key.substring( FOLDER_PREFIX.length() ) );
+			}
+		}
+		Collections.sort( folderPaths, Collections.reverseOrder() ); // children before parents
+		
+		for (String folderPath : folderPaths) {
+			removedFolders.add( new File( contextFolder, folderPath ) );
+		}
+		return removedFolders;
+	}
+	
+	/**
+	 * Saves the fingerprints of the current run to the manifest file.  If the current
+	 * run was incomplete, the entries of the previous run that were not recorded again
+	 * are retained so that they can be evaluated by the next run.
+	 *
+	 * @param retainPrevious  flag indicating whether unrecorded entries of the previous run should be kept
+	 * @throws IOException  thrown if the manifest file cannot be written
+	 */
+	public void save(boolean retainPrevious) throws IOException {
+		Properties entries = new Properties();
+		
+		if (retainPrevious) {
+			entries.putAll( previousEntries );
+		}
+		entries.putAll( currentEntries );
+		Files.createDirectories( manifestFile.getParentFile().toPath() );
+		
+		try (OutputStream out = new FileOutputStream( manifestFile )) {
+			entries.store( out, "Context manifest - generated file, do not edit" );
+		}
+	}
+	
+	/**
+	 * Returns the SHA-256 hash of the given content as a hex string.
+	 *
+	 * @param content  the content to hash
+	 * @return String
+	 */
+	public static String hash(String content) {
+		return hash( content.getBytes( StandardCharsets.UTF_8 ) );
+	}
+	
+	/**
+	 * Returns the SHA-256 hash of the given binary content as a hex string.
+	 *
+	 * @param content  the content to hash
+	 * @return String
+	 */
+	public static String hash(byte[] content) {
+		return toHex( newDigest().digest( content ) );
+	}
+	
+	/**
+	 * Returns the SHA-256 hash of the content of the given stream as a hex string.  The
+	 * stream is read to the end but is not closed.
+	 *
+	 * @param in  the stream whose content is to be hashed
+	 * @return String
+	 * @throws IOException  thrown if the stream cannot be read
+	 */
+	public static String hash(InputStream in) throws IOException {
+		DigestInputStream digestIn = new DigestInputStream( in, newDigest() );
+		byte[] buffer = new byte[ 8192 ];
+		
+		while (digestIn.read( buffer ) >= 0) {
+			// Keep reading until the end of the stream
+		}
+		return toHex( digestIn.getMessageDigest().digest() );
+	}
+	
+	/**
+	 * Returns a new SHA-256 message digest.
+	 *
+	 * @return MessageDigest
+	 */
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance( "SHA-256" );
+			
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException( e ); // should never happen
+		}
+	}
+	
+	/**
+	 * Returns the hex string representation of the given digest.
+	 *
+	 * @param digest  the digest to convert
+	 * @return String
+	 */
+	private static String toHex(byte[] digest) {
+		char[] hex = new char[ digest.length * 2 ];
+		
+		for (int i = 0; i < digest.length; i++) {
+			hex[i * 2] = HEX_CHARS[(digest[i] >> 4) & 0xF];
+			hex[i * 2 + 1] = HEX_CHARS[digest[i] & 0xF];
+		}
+		return new String( hex );
+	}
+	
+	/**
+	 * Records the fingerprint of a manifest entry and returns true if it differs from
+	 * the fingerprint of the previous run.
+	 *
+	 * @param key  the key of the manifest entry
+	 * @param fingerprint  the current fingerprint of the entry
+	 * @return boolean
+	 */
+	private boolean isChanged(String key, String fingerprint) {
+		currentEntries.put( key, fingerprint );
+		return !fingerprint.equals( previousEntries.getProperty( key ) );
+	}
+	
+	/**
+	 * Returns the path of the given folder relative to the context folder.
+	 *
+	 * @param folder  the folder whose relative path is to be returned
+	 * @return String
+	 */
+	private String getRelativePath(File folder) {
+		return contextFolder.toPath().relativize( folder.toPath() ).toString().replace( File.separatorChar, '/' );
+	}
+	
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches a context folder for changes to OTM libraries and projects and re-runs an
+ * <code>UpdateContextJob</code> whenever they are modified.  Bursts of file system
+ * events (e.g. an editor saving several libraries at once) are collected until the
+ * folder has been quiet for the debounce interval, so that each burst results in a
+ * single update.
+ * 
+ * <p>The initial update leaves existing mock files untouched.  Each update that is
+ * triggered by a change regenerates the existing mock response variants of only those
+ * actions whose definitions, or the libraries that their response payloads depend on,
+ * were affected by the change.  The mocks of all other actions (including any that were
+ * edited by hand) are left untouched.
+ *
+ * @author S. Livezey
+ */
+public class ContextWatcher implements Closeable {
+	
+	public static final long DEFAULT_DEBOUNCE_MILLIS = 500L;
+	
+	private static final Logger log = LoggerFactory.getLogger( ContextWatcher.class );
+	
+	private UpdateContextJob job;
+	private long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+	private WatchService watchService;
+	private Map<WatchKey,Path> watchedFolders = new HashMap<>();
+	
+	/**
+	 * Constructor that specifies the job to be run when the context changes.
+	 *
+	 * @param job  the update job for the context to be watched
+	 */
+	public ContextWatcher(UpdateContextJob job) {
+		this.job = job;
+	}
+	
+	/**
+	 * Runs the update job once and then re-runs it each time the OTM files of the
+	 * context change.  This method blocks until the watcher is closed or the calling
+	 * thread is interrupted.
+	 *
+	 * @throws IOException  thrown if the context folder cannot be watched
+	 */
+	public void run() throws IOException {
+		File contextFolder = new File( job.getProjectFolder(), "/" + job.getContext() );
+		
+		synchronized (this) {
+			watchService = FileSystems.getDefault().newWatchService();
+		}
+		registerFolders( contextFolder.toPath() );
+		runJob();
+		job.setRegenerateChangedMocks( true );
+		log.info("Watching context folder for changes: " + contextFolder.getAbsolutePath());
+		
+		try {
+			while (true) {
+				boolean modelChanged = processEvents( watchService.take() );
+				WatchKey nextKey;
+				
+				while ((nextKey = watchService.poll( debounceMillis, TimeUnit.MILLISECONDS )) != null) {
+					modelChanged |= processEvents( nextKey );
+				}
+				if (modelChanged) {
+					runJob();
+				}
+			}
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			
+		} catch (ClosedWatchServiceException e) {
+			// Ignore - the watcher was closed
+		}
+	}
+	
+	/**
+	 * Stops watching the context folder.
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (watchService != null) {
+			watchService.close();
+		}
+	}
+	
+	/**
+	 * Runs the update job and logs the time that was required to update the context.
+	 */
+	private void runJob() {
+		long startTime = System.currentTimeMillis();
+		
+		try {
+			job.execute();
+			log.info("Context updated in " + (System.currentTimeMillis() - startTime) + "ms ("
+					+ job.getMockFileCount() + " mock files, " + job.getReadmeCount() + " readme files written)");
+			
+		} catch (UpdateContextException e) {
+			log.error("Error updating context: " + job.getContext(), e);
+		}
+	}
+	
+	/**
+	 * Processes the pending events of the given watch key.  New sub-folders are registered
+	 * with the watch service, and true is returned if any OTM library or project file
+	 * was created, modified or deleted.
+	 *
+	 * @param key  the watch key whose events are to be processed
+	 * @return boolean
+	 * @throws IOException  thrown if a new sub-folder cannot be registered
+	 */
+	private boolean processEvents(WatchKey key) throws IOException {
+		Path folder = watchedFolders.get( key );
+		boolean modelChanged = false;
+		
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				modelChanged = true;
+				
+			} else if (folder != null) {
+				Path file = folder.resolve( (Path) event.context() );
+				
+				if ((event.kind() == StandardWatchEventKinds.ENTRY_CREATE) && Files.isDirectory( file )) {
+					registerFolders( file );
+				}
+				modelChanged |= isModelFile( file );
+			}
+		}
+		if (!key.reset()) {
+			watchedFolders.remove( key );
+		}
+		return modelChanged;
+	}
+	
+	/**
+	 * Registers the given folder and all of its sub-folders with the watch service.
+	 * Folders that are excluded by the job's scanner are not watched.
+	 *
+	 * @param rootFolder  the root of the folder tree to register
+	 * @throws IOException  thrown if a folder cannot be registered
+	 */
+	private void registerFolders(final Path rootFolder) throws IOException {
+		final ProjectFolderScanner scanner = job.getScanner();
+		
+		Files.walkFileTree( rootFolder, new SimpleFileVisitor<Path>() {
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				if (!dir.equals( rootFolder ) && scanner.isExcluded( dir )) {
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+				watchedFolders.put( dir.register( watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE ), dir );
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+	
+	/**
+	 * Returns true if the given file is an OTM library or project file.
+	 *
+	 * @param file  the file to check
+	 * @return boolean
+	 */
+	private static boolean isModelFile(Path file) {
+		String filename = file.getFileName().toString().toLowerCase();
+		return filename.endsWith( ".otm" ) || filename.endsWith( ".otp" );
+	}
+	
+	/**
+	 * Returns the period of inactivity (in milliseconds) that must elapse after a change
+	 * before the context is updated (default is 500).
+	 *
+	 * @return long
+	 */
+	public long getDebounceMillis() {
+		return debounceMillis;
+	}
+	
+	/**
+	 * Assigns the period of inactivity (in milliseconds) that must elapse after a change
+	 * before the context is updated.
+	 *
+	 * @param debounceMillis  the field value to assign
+	 */
+	public void setDebounceMillis(long debounceMillis) {
+		this.debounceMillis = debounceMillis;
+	}
+	
+}
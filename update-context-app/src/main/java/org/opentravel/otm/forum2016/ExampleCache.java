@@ -0,0 +1,295 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.opentravel.schemacompiler.codegen.CodeGenerationException;
+import org.opentravel.schemacompiler.codegen.example.ExampleDocumentBuilder;
+import org.opentravel.schemacompiler.codegen.example.ExampleGeneratorOptions;
+import org.opentravel.schemacompiler.codegen.example.ExampleJsonBuilder;
+import org.opentravel.schemacompiler.model.NamedEntity;
+import org.opentravel.schemacompiler.validate.ValidationException;
+
+/**
+ * Cache of the example payloads that are generated for the mock responses of a context.
+ * Each distinct combination of payload type, output format and generator options is
+ * rendered only once, even when the example is requested concurrently by several
+ * threads.  Payload types are compared by identity, so a cache should not be shared
+ * between OTM models.
+ * 
+ * <p>Examples are streamed by the example builders directly into files in the cache
+ * folder and are copied from there to each of the mock files that require them, so
+ * the example content is never held in memory as a whole.
+ *
+ * @author S. Livezey
+ */
+public class ExampleCache {
+	
+	private File cacheFolder;
+	private ConcurrentMap<ExampleKey,Future<Path>> examples = new ConcurrentHashMap<>();
+	private AtomicInteger requestCount = new AtomicInteger();
+	
+	/**
+	 * Constructor that specifies the folder where the rendered examples are stored.
+	 *
+	 * @param cacheFolder  the folder where the rendered examples are stored
+	 */
+	public ExampleCache(File cacheFolder) {
+		this.cacheFolder = cacheFolder;
+	}
+	
+	/**
+	 * Writes the example content for the given payload type to the specified file.  If
+	 * the example has not yet been generated, it is rendered by the calling thread;
+	 * other threads that request the same example wait for the result.  The target file
+	 * is replaced atomically, so readers never observe a partially written example.
+	 *
+	 * @param payloadType  the payload type for which to write an example
+	 * @param jsonFormat  flag indicating whether JSON (true) or XML (false) content is required
+	 * @param options  the options to use when generating the example
+	 * @param targetFile  the file to be created or replaced
+	 * @throws ValidationException  thrown if the payload type cannot be validated
+	 * @throws CodeGenerationException  thrown if an error occurs while generating the example
+	 * @throws IOException  thrown if the example cannot be written to the target file
+	 */
+	public void writeExample(NamedEntity payloadType, boolean jsonFormat, ExampleGeneratorOptions options,
+			File targetFile) throws ValidationException, CodeGenerationException, IOException {
+		AtomicFiles.copy( getExample( payloadType, jsonFormat, options ), targetFile.toPath() );
+	}
+	
+	/**
+	 * Writes a variant of the example content for the given payload type to the specified
+	 * file.  The cached example is passed through the filter as it is copied to the
+	 * target file.
+	 *
+	 * @param payloadType  the payload type for which to write an example
+	 * @param jsonFormat  flag indicating whether JSON (true) or XML (false) content is required
+	 * @param options  the options to use when generating the example
+	 * @param targetFile  the file to be created or replaced
+	 * @param filter  the filter that modifies the content of the example variant
+	 * @throws ValidationException  thrown if the payload type cannot be validated
+	 * @throws CodeGenerationException  thrown if an error occurs while generating the example
+	 * @throws IOException  thrown if the example cannot be written to the target file
+	 */
+	public void writeExample(NamedEntity payloadType, boolean jsonFormat, ExampleGeneratorOptions options,
+			File targetFile, ExampleVariantFilter filter) throws ValidationException, CodeGenerationException, IOException {
+		if (filter.isEmpty()) {
+			writeExample( payloadType, jsonFormat, options, targetFile );
+			
+		} else {
+			filter.copy( getExample( payloadType, jsonFormat, options ), targetFile.toPath(), jsonFormat );
+		}
+	}
+	
+	/**
+	 * Deletes all of the rendered examples from the cache folder.
+	 */
+	public void clear() {
+		for (Future<Path> example : examples.values()) {
+			try {
+				if (example.isDone()) {
+					Files.deleteIfExists( example.get() );
+				}
+				
+			} catch (Exception e) {
+				// Ignore - failed examples do not have a file
+			}
+		}
+		examples.clear();
+	}
+	
+	/**
+	 * Returns the cached file that contains the example content for the given payload type.
+	 *
+	 * @param payloadType  the payload type for which to return an example
+	 * @param jsonFormat  flag indicating whether JSON (true) or XML (false) content is required
+	 * @param options  the options to use when generating the example
+	 * @return Path
+	 * @throws ValidationException  thrown if the payload type cannot be validated
+	 * @throws CodeGenerationException  thrown if an error occurs while generating the example
+	 * @throws IOException  thrown if the example cannot be written to the cache folder
+	 */
+	private Path getExample(final NamedEntity payloadType, final boolean jsonFormat,
+			final ExampleGeneratorOptions options) throws ValidationException, CodeGenerationException, IOException {
+		ExampleKey key = new ExampleKey( payloadType, jsonFormat, options );
+		Future<Path> example = examples.get( key );
+		
+		requestCount.incrementAndGet();
+		
+		if (example == null) {
+			FutureTask<Path> task = new FutureTask<>( new Callable<Path>() {
+				public Path call() throws Exception {
+					return renderExample( payloadType, jsonFormat, options );
+				}
+			});
+			
+			example = examples.putIfAbsent( key, task );
+			
+			if (example == null) {
+				example = task;
+				task.run();
+			}
+		}
+		
+		try {
+			return example.get();
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CodeGenerationException( "Interrupted while waiting for example generation.", e );
+			
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			
+			if (cause instanceof ValidationException) {
+				throw (ValidationException) cause;
+				
+			} else if (cause instanceof IOException) {
+				throw (IOException) cause;
+				
+			} else if (cause instanceof CodeGenerationException) {
+				throw (CodeGenerationException) cause;
+				
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+				
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+				
+			} else {
+				throw new CodeGenerationException( cause );
+			}
+		}
+	}
+	
+	/**
+	 * Streams the example content for the given payload type into a new file in the
+	 * cache folder.
+	 *
+	 * @param payloadType  the payload type for which to render an example
+	 * @param jsonFormat  flag indicating whether JSON (true) or XML (false) content is required
+	 * @param options  the options to use when generating the example
+	 * @return Path
+	 * @throws ValidationException  thrown if the payload type cannot be validated
+	 * @throws CodeGenerationException  thrown if an error occurs while generating the example
+	 * @throws IOException  thrown if the example cannot be written to the cache folder
+	 */
+	private Path renderExample(NamedEntity payloadType, boolean jsonFormat, ExampleGeneratorOptions options)
+			throws ValidationException, CodeGenerationException, IOException {
+		Path exampleFile = Files.createTempFile( Files.createDirectories( cacheFolder.toPath() ),
+				"example-", jsonFormat ? ".json" : ".xml" );
+		boolean success = false;
+		
+		try (OutputStream out = new BufferedOutputStream( Files.newOutputStream( exampleFile ) )) {
+			if (jsonFormat) {
+				new ExampleJsonBuilder( options ).setModelElement( payloadType ).buildToStream( out );
+				
+			} else { // XML output
+				new ExampleDocumentBuilder( options ).setModelElement( payloadType ).buildToStream( out );
+			}
+			success = true;
+			
+		} finally {
+			if (!success) {
+				Files.deleteIfExists( exampleFile );
+			}
+		}
+		return exampleFile;
+	}
+	
+	/**
+	 * Returns the number of distinct examples that have been generated.
+	 *
+	 * @return int
+	 */
+	public int getExampleCount() {
+		return examples.size();
+	}
+	
+	/**
+	 * Returns the number of examples that have been requested from this cache.
+	 *
+	 * @return int
+	 */
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+	
+	/**
+	 * Key that identifies a cached example by its payload type, output format and the
+	 * settings of its generator options.
+	 */
+	private static class ExampleKey {
+		
+		private NamedEntity payloadType;
+		private boolean jsonFormat;
+		private String options;
+		
+		/**
+		 * Constructor that specifies the identifying values of the example.
+		 *
+		 * @param payloadType  the payload type of the example
+		 * @param jsonFormat  flag indicating whether the example is JSON or XML content
+		 * @param options  the options used to generate the example
+		 */
+		public ExampleKey(NamedEntity payloadType, boolean jsonFormat, ExampleGeneratorOptions options) {
+			this.payloadType = payloadType;
+			this.jsonFormat = jsonFormat;
+			this.options = options.getDetailLevel() + "|" + options.getExampleContext()
+					+ "|" + options.getMaxRepeat() + "|" + options.getMaxRecursionDepth();
+		}
+		
+		/**
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			boolean result = false;
+			
+			if (obj instanceof ExampleKey) {
+				ExampleKey other = (ExampleKey) obj;
+				
+				result = (payloadType == other.payloadType) && (jsonFormat == other.jsonFormat)
+						&& options.equals( other.options );
+			}
+			return result;
+		}
+		
+		/**
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode( payloadType ) * 31 + options.hashCode()) * 31 + (jsonFormat ? 1 : 0);
+		}
+		
+	}
+	
+}
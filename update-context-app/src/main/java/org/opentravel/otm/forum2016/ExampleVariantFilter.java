@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.opentravel.otm.forum2016;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Copies a generated example to a mock response file, line by line, while replacing
+ * selected values.  The values of fields whose names match a path parameter are replaced
+ * with <code>{param}</code> placeholders that the mock content server substitutes at
+ * request time, and all other values are randomized within the constraints of their
+ * types (see {@link VariantValueConstraints}).  The filter relies on the one-value-per-line
+ * layout of the examples produced by the OTM compiler.
+ *
+ * @author S. Livezey
+ */
+public class ExampleVariantFilter {
+	
+	private static final Pattern jsonFieldPattern = Pattern.compile(
+			"^(\\s*\"([^\"]+)\"\\s*:\\s*)(\"(?:[^\"\\\\]|\\\\.)*\"|-?\\d+(?:\\.\\d+)?)(\\s*,?\\s*)$" );
+	private static final Pattern xmlElementPattern = Pattern.compile(
+			"^(\\s*<([\\w.:-]+)(?:\\s[^>]*)?>)([^<]*)(</\\2>\\s*)$" );
+	private static final Pattern xmlAttributePattern = Pattern.compile( "(\\s([\\w.:-]+)=\")([^\"]*)(\")" );
+	
+	private Random random;
+	private VariantValueConstraints valueConstraints;
+	private Map<String,String> placeholders = new HashMap<>();
+	
+	/**
+	 * Constructor that specifies the random number generator, value constraints and path
+	 * parameters for the mock file being generated.
+	 *
+	 * @param random  the random number generator to use for values (null if values should not be randomized)
+	 * @param valueConstraints  the constraints of the fields whose values may be randomized
+	 * @param pathParams  the names of the path parameters for which placeholders should be created (may be empty)
+	 */
+	public ExampleVariantFilter(Random random, VariantValueConstraints valueConstraints,
+			Collection<String> pathParams) {
+		this.random = (valueConstraints == null) ? null : random;
+		this.valueConstraints = valueConstraints;
+		
+		for (String paramName : pathParams) {
+			placeholders.put( paramName.toLowerCase(), "{" + paramName + "}" );
+		}
+	}
+	
+	/**
+	 * Returns true if this filter does not modify any of the example content.
+	 *
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return (random == null) && placeholders.isEmpty();
+	}
+	
+	/**
+	 * Copies the example content from the source file to the target file, which is
+	 * replaced atomically.
+	 *
+	 * @param sourceFile  the file that contains the generated example
+	 * @param targetFile  the mock response file to be created or replaced
+	 * @param jsonFormat  flag indicating whether the example is JSON (true) or XML (false) content
+	 * @throws IOException  thrown if the example cannot be copied
+	 */
+	public void copy(Path sourceFile, Path targetFile, boolean jsonFormat) throws IOException {
+		Path tempFile = AtomicFiles.createTempFile( targetFile );
+		
+		try (BufferedReader reader = Files.newBufferedReader( sourceFile, StandardCharsets.UTF_8 );
+				BufferedWriter writer = Files.newBufferedWriter( tempFile, StandardCharsets.UTF_8 )) {
+			String line;
+			
+			while ((line = reader.readLine()) != null) {
+				writer.write( jsonFormat ? filterJsonLine( line ) : filterXmlLine( line ) );
+				writer.newLine();
+			}
+			
+		} catch (IOException e) {
+			Files.deleteIfExists( tempFile );
+			throw e;
+		}
+		AtomicFiles.moveIntoPlace( tempFile, targetFile );
+	}
+	
+	/**
+	 * Returns the filtered content of a single line of JSON.
+	 *
+	 * @param line  the line to filter
+	 * @return String
+	 */
+	private String filterJsonLine(String line) {
+		Matcher m = jsonFieldPattern.matcher( line );
+		String result = line;
+		
+		if (m.matches()) {
+			String placeholder = placeholders.get( m.group( 2 ).toLowerCase() );
+			String value = m.group( 3 );
+			
+			if (placeholder != null) {
+				value = "\"" + placeholder + "\"";
+				
+			} else if (!value.startsWith( "\"" )) {
+				value = randomize( m.group( 2 ), value );
+				
+			} else if (value.indexOf( '\\' ) < 0) {
+				value = "\"" + randomize( m.group( 2 ), value.substring( 1, value.length() - 1 ) ) + "\"";
+			}
+			result = m.group( 1 ) + value + m.group( 4 );
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the filtered content of a single line of XML.
+	 *
+	 * @param line  the line to filter
+	 * @return String
+	 */
+	private String filterXmlLine(String line) {
+		Matcher m = xmlElementPattern.matcher( line );
+		String result = line;
+		
+		if (m.matches()) {
+			result = filterXmlAttributes( m.group( 1 ) ) + filterXmlValue( m.group( 2 ), m.group( 3 ) ) + m.group( 4 );
+			
+		} else if (line.trim().startsWith( "<" ) && !line.trim().startsWith( "<?" ) && !line.trim().startsWith( "<!" )) {
+			result = filterXmlAttributes( line );
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the given XML start tag after filtering the values of its attributes.
+	 *
+	 * @param startTag  the XML start tag to filter
+	 * @return String
+	 */
+	private String filterXmlAttributes(String startTag) {
+		Matcher m = xmlAttributePattern.matcher( startTag );
+		StringBuffer result = new StringBuffer();
+		
+		while (m.find()) {
+			if (m.group( 2 ).startsWith( "xmlns" ) || m.group( 2 ).startsWith( "xsi:" )) {
+				m.appendReplacement( result, Matcher.quoteReplacement( m.group() ) );
+				
+			} else {
+				m.appendReplacement( result, Matcher.quoteReplacement( m.group( 1 )
+						+ filterXmlValue( m.group( 2 ), m.group( 3 ) ) + m.group( 4 ) ) );
+			}
+		}
+		m.appendTail( result );
+		return result.toString();
+	}
+	
+	/**
+	 * Returns the filtered value of an XML element or attribute.
+	 *
+	 * @param name  the (possibly prefixed) name of the element or attribute
+	 * @param value  the value to filter
+	 * @return String
+	 */
+	private String filterXmlValue(String name, String value) {
+		String localName = name.substring( name.indexOf( ':' ) + 1 );
+		String placeholder = placeholders.get( localName.toLowerCase() );
+		String result = value;
+		
+		if (placeholder != null) {
+			result = placeholder;
+			
+		} else if ((value.indexOf( '&' ) < 0) && (value.trim().length() > 0)) {
+			result = randomize( localName, value );
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns a random replacement for the value of the given field.  If this filter does
+	 * not randomize values, the original value is returned.
+	 *
+	 * @param fieldName  the name of the field whose value is to be randomized
+	 * @param value  the (unquoted) value to randomize
+	 * @return String
+	 */
+	private String randomize(String fieldName, String value) {
+		return (random == null) ? value : valueConstraints.randomize( fieldName, value, random );
+	}
+	
+}
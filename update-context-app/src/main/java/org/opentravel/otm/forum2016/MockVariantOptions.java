@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.opentravel.otm.forum2016;
+
+import java.util.Random;
+
+import org.opentravel.schemacompiler.codegen.example.ExampleGeneratorOptions;
+
+/**
+ * Options that control the number of mock response variants that are generated for
+ * each API action.  The first variant is always the default example produced by the
+ * OTM compiler; each additional variant is generated with a randomly selected repeat
+ * count (within the configured range) and values that are randomized within the
+ * constraints of their types.  All random
+ * choices are derived from the configured seed, so repeated runs produce the same
+ * mock content.
+ *
+ * @author S. Livezey
+ */
+public class MockVariantOptions {
+	
+	public static final int DEFAULT_VARIANT_COUNT = 1;
+	public static final int MAX_VARIANT_COUNT     = 99;
+	public static final int DEFAULT_MIN_REPEAT    = 1;
+	public static final int DEFAULT_MAX_REPEAT    = 5;
+	
+	private int variantCount = DEFAULT_VARIANT_COUNT;
+	private int minRepeat = DEFAULT_MIN_REPEAT;
+	private int maxRepeat = DEFAULT_MAX_REPEAT;
+	private long seed;
+	private boolean pathPlaceholders;
+	
+	/**
+	 * Returns a new random number generator for the mock file with the given key.  The key
+	 * should identify the mock file within the workspace (e.g. its path relative to the
+	 * project folder) so that the variants of different actions of the same resource and
+	 * HTTP method do not share the same random values.
+	 *
+	 * @param variantKey  the key that identifies the mock file to be generated
+	 * @return Random
+	 */
+	public Random newRandom(String variantKey) {
+		return new Random( (seed * 31) + variantKey.hashCode() );
+	}
+	
+	/**
+	 * Returns a copy of the given example options whose maximum repeat count is selected
+	 * at random from the configured repeat range.
+	 *
+	 * @param baseOptions  the example options to be copied
+	 * @param random  the random number generator for the mock file being generated
+	 * @return ExampleGeneratorOptions
+	 */
+	public ExampleGeneratorOptions newExampleOptions(ExampleGeneratorOptions baseOptions, Random random) {
+		ExampleGeneratorOptions options = new ExampleGeneratorOptions();
+		int low = Math.max( 1, Math.min( minRepeat, maxRepeat ) );
+		int high = Math.max( low, maxRepeat );
+		
+		options.setDetailLevel( baseOptions.getDetailLevel() );
+		options.setExampleContext( baseOptions.getExampleContext() );
+		options.setMaxRecursionDepth( baseOptions.getMaxRecursionDepth() );
+		options.setMaxRepeat( low + random.nextInt( high - low + 1 ) );
+		return options;
+	}
+	
+	/**
+	 * Returns the number of mock response variants to generate for each action (default is 1).
+	 *
+	 * @return int
+	 */
+	public int getVariantCount() {
+		return variantCount;
+	}
+	
+	/**
+	 * Assigns the number of mock response variants to generate for each action (between
+	 * 1 and {@link #MAX_VARIANT_COUNT}).
+	 *
+	 * @param variantCount  the field value to assign
+	 */
+	public void setVariantCount(int variantCount) {
+		this.variantCount = Math.max( 1, Math.min( MAX_VARIANT_COUNT, variantCount ) );
+	}
+	
+	/**
+	 * Returns the minimum repeat count for the repeating elements of randomized variants.
+	 *
+	 * @return int
+	 */
+	public int getMinRepeat() {
+		return minRepeat;
+	}
+	
+	/**
+	 * Assigns the minimum repeat count for the repeating elements of randomized variants.
+	 *
+	 * @param minRepeat  the field value to assign
+	 */
+	public void setMinRepeat(int minRepeat) {
+		this.minRepeat = minRepeat;
+	}
+	
+	/**
+	 * Returns the maximum repeat count for the repeating elements of randomized variants.
+	 *
+	 * @return int
+	 */
+	public int getMaxRepeat() {
+		return maxRepeat;
+	}
+	
+	/**
+	 * Assigns the maximum repeat count for the repeating elements of randomized variants.
+	 *
+	 * @param maxRepeat  the field value to assign
+	 */
+	public void setMaxRepeat(int maxRepeat) {
+		this.maxRepeat = maxRepeat;
+	}
+	
+	/**
+	 * Returns the seed from which all random choices of the variants are derived.
+	 *
+	 * @return long
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Assigns the seed from which all random choices of the variants are derived.
+	 *
+	 * @param seed  the field value to assign
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	/**
+	 * Returns true if payload fields whose names match a path parameter of the action
+	 * should be replaced with a <code>{param}</code> placeholder (default is false).
+	 *
+	 * @return boolean
+	 */
+	public boolean isPathPlaceholders() {
+		return pathPlaceholders;
+	}
+	
+	/**
+	 * Assigns the flag indicating whether payload fields whose names match a path parameter
+	 * of the action should be replaced with a <code>{param}</code> placeholder.
+	 *
+	 * @param pathPlaceholders  the flag value to assign
+	 */
+	public void setPathPlaceholders(boolean pathPlaceholders) {
+		this.pathPlaceholders = pathPlaceholders;
+	}
+	
+}
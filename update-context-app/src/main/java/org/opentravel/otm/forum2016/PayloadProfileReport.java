@@ -0,0 +1,289 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.opentravel.otm.forum2016;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Summary of the size and shape of the mock response payloads in one or more context
+ * folders.  Statistics are collected for each file and aggregated for each action and
+ * resource, and the report lists any payloads that exceed the configured budgets.  The
+ * report is written as a JSON document with each list sorted by descending size.
+ *
+ * @author S. Livezey
+ */
+public class PayloadProfileReport {
+	
+	private String projectFolder;
+	private long maxPayloadSize;
+	private int maxNestingDepth;
+	private int fileCount;
+	private long totalBytes;
+	private List<String> violations = new ArrayList<>();
+	private List<PayloadStats> resources;
+	private List<PayloadStats> actions;
+	private List<PayloadStats> files = new ArrayList<>();
+	private transient Map<String,PayloadStats> resourceStats = new HashMap<>();
+	private transient Map<String,PayloadStats> actionStats = new HashMap<>();
+	
+	/**
+	 * Constructor that specifies the root folder of the mock content workspace and the
+	 * payload budgets that were applied.
+	 *
+	 * @param projectFolder  the root folder of the mock content workspace
+	 * @param maxPayloadSize  the maximum size of a mock payload in bytes (zero if unlimited)
+	 * @param maxNestingDepth  the maximum nesting depth of a mock payload (zero if unlimited)
+	 */
+	public PayloadProfileReport(File projectFolder, long maxPayloadSize, int maxNestingDepth) {
+		this.projectFolder = projectFolder.getAbsolutePath();
+		this.maxPayloadSize = maxPayloadSize;
+		this.maxNestingDepth = maxNestingDepth;
+	}
+	
+	/**
+	 * Adds the statistics of a single mock response file to this report.
+	 *
+	 * @param resourceName  the name of the resource that produced the payload (qualified by context)
+	 * @param actionName  the name of the action that returns the payload (folder path and HTTP method)
+	 * @param filePath  the path of the mock file relative to the project folder
+	 * @param size  the size of the payload in bytes
+	 * @param depth  the maximum nesting depth of the payload
+	 * @param placeholders  the number of parameter placeholders in the payload
+	 */
+	public synchronized void addFile(String resourceName, String actionName, String filePath,
+			long size, int depth, int placeholders) {
+		PayloadStats fileStats = new PayloadStats( filePath );
+		
+		fileStats.add( size, depth, placeholders );
+		files.add( fileStats );
+		getStats( resourceStats, resourceName ).add( size, depth, placeholders );
+		getStats( actionStats, actionName ).add( size, depth, placeholders );
+		fileCount++;
+		totalBytes += size;
+	}
+	
+	/**
+	 * Adds a description of a payload that exceeds one of the budgets.
+	 *
+	 * @param violation  the budget violation to add
+	 */
+	public synchronized void addViolation(String violation) {
+		violations.add( violation );
+	}
+	
+	/**
+	 * Writes this report to the specified file.
+	 *
+	 * @param reportFile  the file to which the report should be written
+	 * @throws IOException  thrown if the report cannot be written
+	 */
+	public synchronized void write(File reportFile) throws IOException {
+		Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+		
+		resources = sortBySize( resourceStats.values() );
+		actions = sortBySize( actionStats.values() );
+		files = sortBySize( files );
+		Collections.sort( violations );
+		
+		if (reportFile.getParentFile() != null) {
+			Files.createDirectories( reportFile.getParentFile().toPath() );
+		}
+		try (Writer writer = Files.newBufferedWriter( reportFile.toPath(), StandardCharsets.UTF_8 )) {
+			gson.toJson( this, writer );
+		}
+	}
+	
+	/**
+	 * Returns the number of mock files that were profiled.
+	 *
+	 * @return int
+	 */
+	public synchronized int getFileCount() {
+		return fileCount;
+	}
+	
+	/**
+	 * Returns the total size of all profiled mock files in bytes.
+	 *
+	 * @return long
+	 */
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+	
+	/**
+	 * Returns the descriptions of the payloads that exceed one of the budgets.
+	 *
+	 * @return List<String>
+	 */
+	public synchronized List<String> getViolations() {
+		return new ArrayList<>( violations );
+	}
+	
+	/**
+	 * Returns the statistics of each profiled mock file.
+	 *
+	 * @return List<PayloadStats>
+	 */
+	public synchronized List<PayloadStats> getFiles() {
+		return new ArrayList<>( files );
+	}
+	
+	/**
+	 * Returns the statistics with the given name from the map provided, creating a
+	 * new entry if necessary.
+	 *
+	 * @param statsMap  the map of statistics by name
+	 * @param name  the name of the statistics to return
+	 * @return PayloadStats
+	 */
+	private PayloadStats getStats(Map<String,PayloadStats> statsMap, String name) {
+		PayloadStats stats = statsMap.get( name );
+		
+		if (stats == null) {
+			stats = new PayloadStats( name );
+			statsMap.put( name, stats );
+		}
+		return stats;
+	}
+	
+	/**
+	 * Returns a list of the given statistics sorted by descending total size.
+	 *
+	 * @param stats  the statistics to sort
+	 * @return List<PayloadStats>
+	 */
+	private List<PayloadStats> sortBySize(Collection<PayloadStats> stats) {
+		List<PayloadStats> sortedStats = new ArrayList<>( stats );
+		
+		Collections.sort( sortedStats, new Comparator<PayloadStats>() {
+			public int compare(PayloadStats stats1, PayloadStats stats2) {
+				int result = Long.compare( stats2.getTotalBytes(), stats1.getTotalBytes() );
+				return (result != 0) ? result : stats1.getName().compareTo( stats2.getName() );
+			}
+		});
+		return sortedStats;
+	}
+	
+	/**
+	 * Size and shape statistics for a single mock file or for a group of mock files.
+	 */
+	public static class PayloadStats {
+		
+		private String name;
+		private int fileCount;
+		private long totalBytes;
+		private long maxBytes;
+		private int maxDepth;
+		private int placeholders;
+		
+		/**
+		 * Constructor that specifies the name of the file or group.
+		 *
+		 * @param name  the name of the file or group
+		 */
+		public PayloadStats(String name) {
+			this.name = name;
+		}
+		
+		/**
+		 * Adds the statistics of a single mock file.
+		 *
+		 * @param size  the size of the payload in bytes
+		 * @param depth  the maximum nesting depth of the payload
+		 * @param placeholderCount  the number of parameter placeholders in the payload
+		 */
+		public void add(long size, int depth, int placeholderCount) {
+			fileCount++;
+			totalBytes += size;
+			maxBytes = Math.max( maxBytes, size );
+			maxDepth = Math.max( maxDepth, depth );
+			placeholders += placeholderCount;
+		}
+		
+		/**
+		 * Returns the name of the file or group.
+		 *
+		 * @return String
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * Returns the number of mock files.
+		 *
+		 * @return int
+		 */
+		public int getFileCount() {
+			return fileCount;
+		}
+		
+		/**
+		 * Returns the total size of the mock files in bytes.
+		 *
+		 * @return long
+		 */
+		public long getTotalBytes() {
+			return totalBytes;
+		}
+		
+		/**
+		 * Returns the size of the largest mock file in bytes.
+		 *
+		 * @return long
+		 */
+		public long getMaxBytes() {
+			return maxBytes;
+		}
+		
+		/**
+		 * Returns the maximum nesting depth of the mock files.
+		 *
+		 * @return int
+		 */
+		public int getMaxDepth() {
+			return maxDepth;
+		}
+		
+		/**
+		 * Returns the total number of parameter placeholders in the mock files.
+		 *
+		 * @return int
+		 */
+		public int getPlaceholders() {
+			return placeholders;
+		}
+		
+	}
+	
+}
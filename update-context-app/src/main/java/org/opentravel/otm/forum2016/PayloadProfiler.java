@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.opentravel.otm.forum2016;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the size, nesting depth and placeholder count of every mock response file
+ * in a context folder and adds the results to a <code>PayloadProfileReport</code>.
+ * Payloads that exceed the configured size or depth budgets are recorded as violations
+ * of the report.  Files are read as streams, so large payloads are never loaded into
+ * memory as a whole.
+ *
+ * @author S. Livezey
+ */
+public class PayloadProfiler {
+	
+	private static final Pattern mockFilePattern = Pattern.compile( "(.+?)(?:-\\d+)?\\.([A-Z]+)\\.(json|xml)" );
+	private static final Pattern placeholderPattern = Pattern.compile( "\\{[\\w.-]+\\}" );
+	
+	private File projectFolder;
+	private long maxPayloadSize;
+	private int maxNestingDepth;
+	
+	/**
+	 * Constructor that specifies the root folder of the mock content workspace.
+	 *
+	 * @param projectFolder  the root directory of the mock content workspace
+	 */
+	public PayloadProfiler(File projectFolder) {
+		this.projectFolder = projectFolder;
+	}
+	
+	/**
+	 * Returns a new (empty) report that records the budgets of this profiler.
+	 *
+	 * @return PayloadProfileReport
+	 */
+	public PayloadProfileReport newReport() {
+		return new PayloadProfileReport( projectFolder, maxPayloadSize, maxNestingDepth );
+	}
+	
+	/**
+	 * Profiles all of the mock response files in the given context folder.
+	 *
+	 * @param context  the name of the context folder to profile
+	 * @param report  the report to which the results should be added
+	 * @throws IOException  thrown if the context folder cannot be read
+	 */
+	public void profile(final String context, final PayloadProfileReport report) throws IOException {
+		final Path projectPath = projectFolder.toPath();
+		final Path contextPath = projectPath.resolve( context );
+		
+		Files.walkFileTree( contextPath, new SimpleFileVisitor<Path>() {
+			
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				boolean hidden = !dir.equals( contextPath ) && dir.getFileName().toString().startsWith( "." );
+				return hidden ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+			}
+			
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Matcher m = mockFilePattern.matcher( file.getFileName().toString() );
+				
+				if (m.matches()) {
+					String folderPath = projectPath.relativize( file.getParent() ).toString().replace( '\\', '/' );
+					
+					profileFile( file, attrs.size(), context + ":" + m.group( 1 ),
+							folderPath + " " + m.group( 2 ), m.group( 3 ).equals( "json" ),
+							projectPath.relativize( file ).toString().replace( '\\', '/' ), report );
+				}
+				return FileVisitResult.CONTINUE;
+			}
+			
+		});
+	}
+	
+	/**
+	 * Measures a single mock response file and adds the results to the report.  The nesting
+	 * depth ignores brackets within JSON strings, as well as tags within XML comments, CDATA
+	 * sections, processing instructions and attribute values.
+	 *
+	 * @param file  the mock response file to measure
+	 * @param size  the size of the file in bytes
+	 * @param resourceName  the name of the resource that produced the payload
+	 * @param actionName  the name of the action that returns the payload
+	 * @param jsonFormat  flag indicating whether the file contains JSON (true) or XML (false) content
+	 * @param filePath  the path of the file relative to the project folder
+	 * @param report  the report to which the results should be added
+	 * @throws IOException  thrown if the file cannot be read
+	 */
+	private void profileFile(Path file, long size, String resourceName, String actionName, boolean jsonFormat,
+			String filePath, PayloadProfileReport report) throws IOException {
+		int depth = 0, maxDepth = 0, placeholders = 0;
+		boolean inString = false, escaped = false, inTag = false;
+		String markupEnd = null;
+		char quote = 0;
+		
+		try (BufferedReader reader = Files.newBufferedReader( file, StandardCharsets.UTF_8 )) {
+			String line;
+			
+			while ((line = reader.readLine()) != null) {
+				Matcher m = placeholderPattern.matcher( line );
+				
+				while (m.find()) {
+					placeholders++;
+				}
+				for (int i = 0; i < line.length(); i++) {
+					char ch = line.charAt( i );
+					
+					if (jsonFormat) {
+						if (inString) {
+							inString = escaped || (ch != '"');
+							escaped = !escaped && (ch == '\\');
+							
+						} else if (ch == '"') {
+							inString = true;
+							
+						} else if ((ch == '{') || (ch == '[')) {
+							maxDepth = Math.max( maxDepth, ++depth );
+							
+						} else if ((ch == '}') || (ch == ']')) {
+							depth--;
+						}
+					} else { // XML content
+						char next = (i + 1 < line.length()) ? line.charAt( i + 1 ) : ' ';
+						
+						if (markupEnd != null) { // comment, CDATA section, processing instruction or DTD
+							if (line.startsWith( markupEnd, i )) {
+								i += markupEnd.length() - 1;
+								markupEnd = null;
+							}
+							
+						} else if (quote != 0) { // attribute value
+							quote = (ch == quote) ? 0 : quote;
+							
+						} else if (inTag) {
+							if ((ch == '"') || (ch == '\'')) {
+								quote = ch;
+								
+							} else if ((ch == '/') && (next == '>')) {
+								depth--;
+								
+							} else if (ch == '>') {
+								inTag = false;
+							}
+							
+						} else if (ch == '<') {
+							if (line.startsWith( "<!--", i )) {
+								markupEnd = "-->";
+								i += 3;
+								
+							} else if (line.startsWith( "<![CDATA[", i )) {
+								markupEnd = "]]>";
+								i += 8;
+								
+							} else if ((next == '?') || (next == '!')) {
+								markupEnd = (next == '?') ? "?>" : ">";
+								i++;
+								
+							} else if (next == '/') {
+								depth--;
+								
+							} else {
+								maxDepth = Math.max( maxDepth, ++depth );
+								inTag = true;
+							}
+						}
+					}
+				}
+			}
+		}
+		report.addFile( resourceName, actionName, filePath, size, maxDepth, placeholders );
+		
+		if ((maxPayloadSize > 0) && (size > maxPayloadSize)) {
+			report.addViolation( filePath + ": payload size of " + size
+					+ " bytes exceeds the budget of " + maxPayloadSize + " bytes" );
+		}
+		if ((maxNestingDepth > 0) && (maxDepth > maxNestingDepth)) {
+			report.addViolation( filePath + ": nesting depth of " + maxDepth
+					+ " exceeds the budget of " + maxNestingDepth );
+		}
+	}
+	
+	/**
+	 * Returns the maximum size of a mock payload in bytes (zero if unlimited).
+	 *
+	 * @return long
+	 */
+	public long getMaxPayloadSize() {
+		return maxPayloadSize;
+	}
+	
+	/**
+	 * Assigns the maximum size of a mock payload in bytes (zero if unlimited).
+	 *
+	 * @param maxPayloadSize  the field value to assign
+	 */
+	public void setMaxPayloadSize(long maxPayloadSize) {
+		this.maxPayloadSize = maxPayloadSize;
+	}
+	
+	/**
+	 * Returns the maximum nesting depth of a mock payload (zero if unlimited).
+	 *
+	 * @return int
+	 */
+	public int getMaxNestingDepth() {
+		return maxNestingDepth;
+	}
+	
+	/**
+	 * Assigns the maximum nesting depth of a mock payload (zero if unlimited).
+	 *
+	 * @param maxNestingDepth  the field value to assign
+	 */
+	public void setMaxNestingDepth(int maxNestingDepth) {
+		this.maxNestingDepth = maxNestingDepth;
+	}
+	
+}
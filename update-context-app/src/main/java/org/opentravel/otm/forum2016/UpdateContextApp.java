@@ -16,12 +16,42 @@
 
 package org.opentravel.otm.forum2016;
 
+import java.awt.GraphicsEnvironment;
 import java.io.File;
 
 /**
  * Application class that launches a simple Swing frame that allows the user
  * to choose their context folder.
  * 
+ * <p>The application can also be run in a headless batch mode that updates all of
+ * the contexts in the workspace (or the contexts whose names match a glob):
+ * <pre>
+ *   update-context --all [--contexts &lt;glob&gt;] [--threads &lt;n&gt;] [--report &lt;file&gt;] [--full]
+ *                  [--variants &lt;n&gt;] [--repeat &lt;min&gt;-&lt;max&gt;] [--seed &lt;n&gt;] [--placeholders]
+ *                  [--profile &lt;file&gt;] [--max-payload &lt;bytes&gt;] [--max-depth &lt;n&gt;]
+ * </pre>
+ * In batch mode, the process exits with status 1 if any of the contexts could not be
+ * updated successfully (or a payload budget was exceeded), and with status 2 if the
+ * command line is invalid or the batch could not be run to completion.  The contexts are
+ * updated in a single JVM, but the OTM libraries of each context are still loaded
+ * separately for that context.
+ * 
+ * <p>The variant options control the number of mock responses generated for each action
+ * (at most 99), the range of repeat counts used for their repeating elements, the seed of
+ * their randomized values, and whether path parameter placeholders are created.  Existing
+ * mock files are never replaced by an incremental update, so changes to the variant options
+ * only affect new files unless <code>--full</code> is also specified, in which case all of
+ * the mock response variants are regenerated.
+ * 
+ * <p>The profile options measure the generated payloads after the update and cause the
+ * batch to fail if any payload exceeds the given size or nesting depth budgets.
+ * 
+ * <p>A single context can also be watched for changes to its OTM libraries and projects,
+ * in which case its artifacts are updated each time the files are saved:
+ * <pre>
+ *   update-context --watch &lt;context&gt;
+ * </pre>
+ * 
  * @author S. Livezey
  */
 public class UpdateContextApp {
@@ -37,9 +67,32 @@ public class UpdateContextApp {
 			String context = null;
 			
 			if ((args != null) && (args.length >= 1)) {
+				if (args[0].equals( "--watch" ) && (args.length == 2)) {
+					try (ContextWatcher watcher = new ContextWatcher( new UpdateContextJob( projectFolder, args[1] ) )) {
+						watcher.run();
+					}
+					return;
+					
+				} else if (args[0].startsWith( "--" )) {
+					int exitStatus;
+					
+					try {
+						exitStatus = runBatch( projectFolder, args );
+						
+					} catch (Throwable t) {
+						t.printStackTrace( System.out );
+						exitStatus = 2;
+					}
+					System.exit( exitStatus );
+				}
 				context = args[0];
 			}
 			
+			if ((context == null) && GraphicsEnvironment.isHeadless()) {
+				printUsage();
+				return;
+			}
+			
 			if (context == null) {
 				ContextChooser chooser = new ContextChooser( projectFolder );
 				
@@ -66,4 +119,149 @@ public class UpdateContextApp {
 		}
 	}
 	
+	/**
+	 * Runs a batch update using the options from the command line and returns the exit
+	 * status of the process: zero if all of the selected contexts were updated successfully,
+	 * 1 if any context failed or exceeded a payload budget, and 2 if the command line is
+	 * invalid.
+	 * 
+	 * @param projectFolder  the root directory of the mock content workspace
+	 * @param args  the command line arguments
+	 * @return int
+	 * @throws Exception  thrown if the batch update cannot be completed
+	 */
+	private static int runBatch(File projectFolder, String[] args) throws Exception {
+		BatchUpdateJob job = new BatchUpdateJob( projectFolder );
+		
+		try {
+			if (!parseBatchOptions( job, args )) {
+				printUsage();
+				return 2;
+			}
+			
+		} catch (NumberFormatException e) {
+			System.out.println( e.getMessage() );
+			printUsage();
+			return 2;
+		}
+		BatchUpdateReport report = job.execute();
+		
+		return ((report.getFailedCount() == 0) && (report.getBudgetViolations() == 0)) ? 0 : 1;
+	}
+	
+	/**
+	 * Assigns the options from the command line to the given batch job.  Returns false if
+	 * the command line contains an unknown option or an option without a value.
+	 * 
+	 * @param job  the batch job to configure
+	 * @param args  the command line arguments
+	 * @return boolean
+	 * @throws NumberFormatException  thrown if the value of a numeric option is invalid
+	 */
+	private static boolean parseBatchOptions(BatchUpdateJob job, String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			
+			if (option.equals( "--all" )) {
+				job.setContextGlob( null );
+				
+			} else if (option.equals( "--full" )) {
+				job.setIncrementalUpdate( false );
+				
+			} else if (option.equals( "--contexts" ) && (i + 1 < args.length)) {
+				job.setContextGlob( args[++i] );
+				
+			} else if (option.equals( "--threads" ) && (i + 1 < args.length)) {
+				job.setThreads( (int) parseNumber( option, args[++i], 1, Integer.MAX_VALUE ) );
+				
+			} else if (option.equals( "--report" ) && (i + 1 < args.length)) {
+				job.setReportFile( new File( args[++i] ) );
+				
+			} else if (option.equals( "--variants" ) && (i + 1 < args.length)) {
+				job.getVariantOptions().setVariantCount( (int) parseNumber( option, args[++i], 1,
+						MockVariantOptions.MAX_VARIANT_COUNT ) );
+				
+			} else if (option.equals( "--repeat" ) && (i + 1 < args.length) && args[i + 1].matches( "\\d+-\\d+" )) {
+				String[] range = args[++i].split( "-" );
+				
+				job.getVariantOptions().setMinRepeat( (int) parseNumber( option, range[0], 0, Integer.MAX_VALUE ) );
+				job.getVariantOptions().setMaxRepeat( (int) parseNumber( option, range[1], 0, Integer.MAX_VALUE ) );
+				
+			} else if (option.equals( "--seed" ) && (i + 1 < args.length)) {
+				job.getVariantOptions().setSeed( parseNumber( option, args[++i], Long.MIN_VALUE, Long.MAX_VALUE ) );
+				
+			} else if (option.equals( "--placeholders" )) {
+				job.getVariantOptions().setPathPlaceholders( true );
+				
+			} else if (option.equals( "--profile" ) && (i + 1 < args.length)) {
+				getProfiler( job );
+				job.setProfileFile( new File( args[++i] ) );
+				
+			} else if (option.equals( "--max-payload" ) && (i + 1 < args.length)) {
+				getProfiler( job ).setMaxPayloadSize( parseNumber( option, args[++i], 1, Long.MAX_VALUE ) );
+				
+			} else if (option.equals( "--max-depth" ) && (i + 1 < args.length)) {
+				getProfiler( job ).setMaxNestingDepth( (int) parseNumber( option, args[++i], 1, Integer.MAX_VALUE ) );
+				
+			} else {
+				return false;
+			}
+		}
+		if (job.getVariantOptions().getMinRepeat() > job.getVariantOptions().getMaxRepeat()) {
+			throw new NumberFormatException( "Invalid value for --repeat: the minimum exceeds the maximum" );
+		}
+		return true;
+	}
+	
+	/**
+	 * Parses the numeric value of a command line option.
+	 * 
+	 * @param option  the name of the option whose value is being parsed
+	 * @param value  the value to parse
+	 * @param minValue  the smallest value allowed for the option
+	 * @param maxValue  the largest value allowed for the option
+	 * @return long
+	 * @throws NumberFormatException  thrown if the value is not a number or is out of range
+	 */
+	private static long parseNumber(String option, String value, long minValue, long maxValue) {
+		String errorMessage = "Invalid value for " + option + ": " + value;
+		long result;
+		
+		try {
+			result = Long.parseLong( value );
+			
+		} catch (NumberFormatException e) {
+			throw new NumberFormatException( errorMessage );
+		}
+		if ((result < minValue) || (result > maxValue)) {
+			throw new NumberFormatException( errorMessage );
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the payload profiler of the batch job, creating and assigning a new one
+	 * if profiling has not yet been enabled.
+	 * 
+	 * @param job  the batch job being configured
+	 * @return PayloadProfiler
+	 */
+	private static PayloadProfiler getProfiler(BatchUpdateJob job) {
+		if (job.getProfiler() == null) {
+			job.setProfiler( new PayloadProfiler( job.getProjectFolder() ) );
+		}
+		return job.getProfiler();
+	}
+	
+	/**
+	 * Displays the command line usage of the application.
+	 */
+	private static void printUsage() {
+		System.out.println( "Usage: update-context <context>" );
+		System.out.println( "       update-context --all [--contexts <glob>] [--threads <n>] [--report <file>] [--full]" );
+		System.out.println( "                      [--variants <n>] [--repeat <min>-<max>] [--seed <n>] [--placeholders]" );
+		System.out.println( "                      [--profile <file>] [--max-payload <bytes>] [--max-depth <n>]" );
+		System.out.println( "       update-context --watch <context>" );
+	}
+	
 }
@@ -17,13 +17,29 @@
 package org.opentravel.otm.forum2016;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
@@ -31,21 +47,32 @@ import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
 import org.opentravel.schemacompiler.codegen.CodeGenerationException;
-import org.opentravel.schemacompiler.codegen.example.ExampleDocumentBuilder;
 import org.opentravel.schemacompiler.codegen.example.ExampleGeneratorOptions;
-import org.opentravel.schemacompiler.codegen.example.ExampleJsonBuilder;
 import org.opentravel.schemacompiler.codegen.impl.QualifiedAction;
 import org.opentravel.schemacompiler.codegen.util.ResourceCodegenUtils;
+import org.opentravel.schemacompiler.model.AbstractLibrary;
 import org.opentravel.schemacompiler.model.NamedEntity;
 import org.opentravel.schemacompiler.model.TLAction;
 import org.opentravel.schemacompiler.model.TLActionResponse;
+import org.opentravel.schemacompiler.model.TLBusinessObject;
+import org.opentravel.schemacompiler.model.TLChoiceObject;
+import org.opentravel.schemacompiler.model.TLClosedEnumeration;
+import org.opentravel.schemacompiler.model.TLContextualFacet;
+import org.opentravel.schemacompiler.model.TLCoreObject;
+import org.opentravel.schemacompiler.model.TLExtensionPointFacet;
+import org.opentravel.schemacompiler.model.TLFacet;
 import org.opentravel.schemacompiler.model.TLHttpMethod;
 import org.opentravel.schemacompiler.model.TLLibrary;
 import org.opentravel.schemacompiler.model.TLMimeType;
 import org.opentravel.schemacompiler.model.TLModel;
+import org.opentravel.schemacompiler.model.TLOpenEnumeration;
 import org.opentravel.schemacompiler.model.TLResource;
+import org.opentravel.schemacompiler.model.TLSimple;
+import org.opentravel.schemacompiler.model.TLValueWithAttributes;
 import org.opentravel.schemacompiler.util.SchemaCompilerException;
 import org.opentravel.schemacompiler.validate.ValidationException;
+import org.opentravel.schemacompiler.visitor.DependencyNavigator;
+import org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,12 +87,26 @@ import org.slf4j.LoggerFactory;
 public class UpdateContextJob {
 	
     private static final String TEMPLATE_LOCATION = "/templates/";
+    private static final String README_TEMPLATE   = TEMPLATE_LOCATION + "api-readme.vm";
+    private static final String MANIFEST_FILENAME = "context-manifest.properties";
     private static final Logger log = LoggerFactory.getLogger( UpdateContextJob.class );
+    private static final ForkJoinPool generatorPool = new ForkJoinPool();
     
     private static VelocityEngine velocityEngine;
+    private static Template readmeTemplate;
     
 	private File projectFolder;
 	private String context;
+	private boolean sharedContextModel = true;
+	private boolean incrementalUpdate = true;
+	private boolean regenerateChangedMocks = false;
+	private ExampleGeneratorOptions exampleOptions = new ExampleGeneratorOptions();
+	private MockVariantOptions variantOptions = new MockVariantOptions();
+	private AtomicInteger mockFileCount = new AtomicInteger();
+	private AtomicInteger readmeCount = new AtomicInteger();
+	private AtomicInteger prunedFolderCount = new AtomicInteger();
+	private boolean complete;
+	private ProjectFolderScanner scanner = new ProjectFolderScanner();
 	
 	/**
 	 * Constructor that assigns the name of the context folder in the current user
@@ -86,7 +127,7 @@ public class UpdateContextJob {
 	 */
 	public void execute() throws UpdateContextException {
 		File contextFolder = new File( projectFolder, "/" + context );
-		List<File> otpFiles = new ArrayList<>();
+		List<File> otpFiles;
 		
 		if (context == null) {
 			throw new UpdateContextException("Context folder not specified.");
@@ -95,66 +136,319 @@ public class UpdateContextJob {
 			throw new UpdateContextException("Context folder not found: /" + context);
 		}
 		
-		OTMProjectUtils.findOTMProjects( contextFolder, otpFiles );
+		otpFiles = scanner.findOTMProjects( contextFolder );
+		mockFileCount.set( 0 );
+		readmeCount.set( 0 );
+		prunedFolderCount.set( 0 );
+		complete = true;
 		
 		if (!otpFiles.isEmpty()) {
+			ContextManifest manifest = new ContextManifest( new File( projectFolder,
+					"/.target/" + context + "/" + MANIFEST_FILENAME ), contextFolder, incrementalUpdate );
+			
 			log.info("Processing OTM Models for Context: " + context);
+			complete = processContext( otpFiles, contextFolder, manifest );
 			
-			for (File otpFile : otpFiles) {
-				try {
-					log.info("  Loading OTM Project: " + otpFile.getName());
-					TLModel model = OTMProjectUtils.loadModel( otpFile );
-					
-					if (model != null) {
-						Map<String,ActionGroup> actionGroups = new HashMap<>();
-						List<TLResource> resources = getAllResources( model );
-						
-						for (TLResource resource : resources) {
-							log.info("    Creating workspace artifacts for: " + resource.getName()
-									+ " v" + resource.getVersion());
-							prepareContextArtifacts( resource, contextFolder, actionGroups );
-						}
-						
-						for (ActionGroup group : actionGroups.values()) {
-							generateReadmeFile( group );
-						}
-					}
-					
-				} catch (SchemaCompilerException e) {
-					log.error("  Unknown error while generating OTM Project", e);
+			if (complete) {
+				pruneRemovedFolders( manifest, contextFolder );
+			}
+			
+			try {
+				manifest.save( !complete );
+				
+			} catch (IOException e) {
+				log.warn("Unable to save the context manifest (the next update will not be incremental).");
+			}
+		}
+	}
+	
+	/**
+	 * Loads the OTM models of the context and creates their workspace artifacts.  Returns
+	 * true if all of the context's models were processed successfully.
+	 * 
+	 * @param otpFiles  the OTM project files of the context
+	 * @param contextFolder  the folder within the mock content workspace that is being processed
+	 * @param manifest  the manifest of the artifacts that were generated by the previous update
+	 * @return boolean
+	 */
+	private boolean processContext(List<File> otpFiles, File contextFolder, ContextManifest manifest) {
+		boolean complete = true;
+		
+		if (sharedContextModel && (otpFiles.size() > 1)) {
+			try {
+				log.info("  Loading " + otpFiles.size() + " OTM Projects into a shared context model");
+				TLModel model = OTMProjectUtils.loadContextModel( otpFiles );
+				
+				if (model != null) {
+					processModel( model, contextFolder, manifest );
+					return true;
+				}
+				log.info("  Unable to load shared context model - loading projects individually");
+				
+			} catch (SchemaCompilerException e) {
+				log.error("  Unknown error while loading shared context model", e);
+				
+			} catch (Exception e) {
+				log.error("  Unexpected error while preparing context workspace", e);
+				return false;
+			}
+		}
+		
+		for (File otpFile : otpFiles) {
+			try {
+				log.info("  Loading OTM Project: " + otpFile.getName());
+				TLModel model = OTMProjectUtils.loadModel( otpFile );
+				
+				if (model != null) {
+					processModel( model, contextFolder, manifest );
 					
-				} catch (Exception e) {
-					log.error("  Unexpected error while preparing context workspace", e);
+				} else {
+					complete = false;
 				}
+				
+			} catch (SchemaCompilerException e) {
+				log.error("  Unknown error while generating OTM Project", e);
+				complete = false;
+				
+			} catch (Exception e) {
+				log.error("  Unexpected error while preparing context workspace", e);
+				complete = false;
+			}
+		}
+		return complete;
+	}
+	
+	/**
+	 * Creates the mock content workspace artifacts for all of the resources in the given model.
+	 * Each resource is processed as a separate fork/join task, and each of its mock responses
+	 * is generated as a sub-task of the resource.  Example payloads are cached for the
+	 * duration of the call, so each payload type is rendered only once per format.
+	 * 
+	 * <p>Mock response files are only created if they do not already exist (unless the
+	 * job regenerates the mocks of changed actions), and readme files are only rewritten
+	 * for action folders whose content has changed.
+	 * 
+	 * @param model  the OTM model for which to create workspace artifacts
+	 * @param contextFolder  the folder within the mock content workspace that is being processed
+	 * @param manifest  the manifest of the artifacts that were generated by the previous update
+	 */
+	private void processModel(TLModel model, File contextFolder, ContextManifest manifest) {
+		ConcurrentMap<String,ActionGroup> actionGroups = new ConcurrentHashMap<>();
+		List<TLResource> resources = getAllResources( model );
+		ExampleCache exampleCache = new ExampleCache( new File( projectFolder, "/.target/" + context + "/example-cache" ) );
+		List<ResourceTask> resourceTasks = new ArrayList<>();
+		Map<AbstractLibrary,String> libraryHashes = getLibraryHashes( model );
+		
+		for (int i = 0; i < resources.size(); i++) {
+			TLResource resource = resources.get( i );
+			
+			log.info("    Creating workspace artifacts for: " + resource.getName()
+					+ " v" + resource.getVersion());
+			resourceTasks.add( new ResourceTask( i, resource, contextFolder, actionGroups, exampleCache,
+					manifest, libraryHashes ) );
+		}
+		runTasks( resourceTasks );
+		log.debug("    Generated " + exampleCache.getExampleCount() + " distinct examples for "
+				+ exampleCache.getRequestCount() + " mock responses");
+		exampleCache.clear();
+		
+		final VelocityContext baseContext = newBaseContext();
+		List<RecursiveAction> readmeTasks = new ArrayList<>();
+		
+		for (final ActionGroup group : actionGroups.values()) {
+			try {
+				AtomicFiles.deleteTempFiles( group.getActionFolder().toPath() );
+				
+			} catch (IOException e) {
+				log.warn("Unable to clean up temporary files in folder: " + group.getActionFolder().getAbsolutePath());
+			}
+			boolean changed = manifest.isFolderChanged( group.getActionFolder(), getReadmeFingerprint( group ) );
+			
+			if (changed || !new File( group.getActionFolder(), "/readme.html" ).exists()) {
+				readmeTasks.add( new RecursiveAction() {
+					private static final long serialVersionUID = 7734601286329917524L;
+					
+					protected void compute() {
+						generateReadmeFile( group, baseContext );
+					}
+				});
 			}
 		}
+		runTasks( readmeTasks );
+	}
+	
+	/**
+	 * Executes the given tasks in the generator pool and waits for all of them to
+	 * complete.
+	 * 
+	 * @param tasks  the tasks to execute
+	 */
+	private static void runTasks(final Collection<? extends ForkJoinTask<?>> tasks) {
+		if (!tasks.isEmpty()) {
+			generatorPool.invoke( new RecursiveAction() {
+				private static final long serialVersionUID = -5230281418634902217L;
+				
+				protected void compute() {
+					invokeAll( tasks );
+				}
+			});
+		}
 	}
 	
 	/**
-	 * Prepares all necessary context workspace files for the resources defined in the OTM model.
+	 * Removes the generated files of action folders that are no longer produced by the
+	 * context's OTM models.  Each folder (and any of its parents that become empty) is
+	 * deleted if it contains no other sub-folders.
 	 * 
-	 * @param resource  the OTM for which to create workspace artifacts
+	 * @param manifest  the manifest that identifies the removed action folders
 	 * @param contextFolder  the folder within the mock content workspace that is being processed
-	 * @param actionGroups  the registry of actions that all resolve to the same mock content folder
-	 */
-	private void prepareContextArtifacts(TLResource resource, File contextFolder, Map<String,ActionGroup> actionGroups) {
-		for (QualifiedAction action : ResourceCodegenUtils.getQualifiedActions( resource )) {
-			File actionFolder = getActionFolder( resource, action, contextFolder );
-			TLActionResponse response = getSuccessResponse( action.getAction() );
-			TLHttpMethod method = action.getAction().getRequest().getHttpMethod();
-			ActionGroup group = actionGroups.get( actionFolder.getAbsolutePath() );
+	 */
+	private void pruneRemovedFolders(ContextManifest manifest, File contextFolder) {
+		for (File folder : manifest.getRemovedFolders()) {
+			File[] folderMembers = folder.listFiles();
 			
-			if (response.getPayloadType() != null) {
-				for (TLMimeType mimeType : response.getMimeTypes()) {
-					generateMockResponse( resource, response, method, mimeType, actionFolder );
+			if (folderMembers == null) {
+				continue;
+			}
+			log.info("  Removing artifacts of deleted actions: " + folder.getAbsolutePath());
+			prunedFolderCount.incrementAndGet();
+			
+			for (File member : folderMembers) {
+				if (member.isFile() && !member.delete()) {
+					log.warn("Unable to delete file: " + member.getAbsolutePath());
 				}
 			}
-			if (group == null) {
-				group = new ActionGroup( actionFolder, resource );
-				actionGroups.put( actionFolder.getAbsolutePath(), group );
+			while (!folder.equals( contextFolder ) && folder.delete()) { // only succeeds for empty folders
+				folder = folder.getParentFile();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the content hashes of all user-defined libraries in the model.  Libraries
+	 * whose content cannot be read are given a unique hash so that they are always
+	 * considered to have changed.
+	 * 
+	 * @param model  the OTM model for which to return library hashes
+	 * @return Map<AbstractLibrary,String>
+	 */
+	private Map<AbstractLibrary,String> getLibraryHashes(TLModel model) {
+		Map<AbstractLibrary,String> libraryHashes = new HashMap<>();
+		
+		for (TLLibrary library : model.getUserDefinedLibraries()) {
+			String libraryHash;
+			
+			try (InputStream in = library.getLibraryUrl().openStream()) {
+				libraryHash = ContextManifest.hash( in );
+				
+			} catch (IOException e) {
+				libraryHash = "unreadable-" + System.nanoTime();
 			}
-			group.getActions().add( action.getAction() );
+			libraryHashes.put( library, libraryHash );
 		}
+		return libraryHashes;
+	}
+	
+	/**
+	 * Returns the key that identifies the given action of a resource in the context manifest.
+	 * 
+	 * @param resource  the resource that declared or inherited the action
+	 * @param action  the qualified action for which to return a key
+	 * @return String
+	 */
+	private static String getActionKey(TLResource resource, QualifiedAction action) {
+		TLResource owner = action.getAction().getOwner();
+		
+		return resource.getNamespace() + ":" + resource.getName() + ":" + resource.getVersion()
+				+ ":" + owner.getName() + ":" + owner.getVersion() + ":" + action.getAction().getActionId();
+	}
+	
+	/**
+	 * Returns a fingerprint that captures all of the information used to generate the mock
+	 * responses of a resource action.  Besides the action itself, the fingerprint includes
+	 * the content hashes of the user-defined libraries that declare the action and its
+	 * response payload, and of all libraries that the payload type depends upon.  Changes
+	 * to libraries that the payload does not depend on do not affect the fingerprint.
+	 * 
+	 * @param resource  the resource that declared or inherited the action
+	 * @param action  the qualified action for which to return a fingerprint
+	 * @param libraryHashes  the content hashes of the model's user-defined libraries
+	 * @return String
+	 */
+	private String getActionFingerprint(TLResource resource, QualifiedAction action,
+			Map<AbstractLibrary,String> libraryHashes) {
+		TLResource owner = action.getAction().getOwner();
+		TLActionResponse response = getSuccessResponse( action.getAction() );
+		Set<AbstractLibrary> libraries = new HashSet<>();
+		TreeSet<String> dependencyHashes = new TreeSet<>();
+		StringBuilder fingerprint = new StringBuilder();
+		
+		fingerprint.append( getActionKey( resource, action ) )
+				.append( "|" ).append( variantOptions.getVariantCount() )
+				.append( "|" ).append( action.getAction().getRequest().getHttpMethod() )
+				.append( "|" ).append( action.getPathTemplate() );
+		libraries.add( resource.getOwningLibrary() );
+		libraries.add( owner.getOwningLibrary() );
+		
+		if ((response != null) && (response.getPayloadType() != null)) {
+			NamedEntity payloadType = ResourceCodegenUtils.getPayloadType( response.getPayloadType() );
+			
+			fingerprint.append( "|" ).append( payloadType.getNamespace() ).append( ":" )
+					.append( payloadType.getLocalName() ).append( "|" ).append( response.getMimeTypes() );
+			libraries.addAll( getDependencyLibraries( payloadType ) );
+		}
+		for (AbstractLibrary library : libraries) {
+			String libraryHash = libraryHashes.get( library );
+			
+			if (libraryHash != null) { // built-in libraries do not change
+				dependencyHashes.add( library.getLibraryUrl() + "|" + libraryHash );
+			}
+		}
+		for (String dependencyHash : dependencyHashes) {
+			fingerprint.append( "\n" ).append( dependencyHash );
+		}
+		return ContextManifest.hash( fingerprint.toString() );
+	}
+	
+	/**
+	 * Returns the libraries that declare the given payload type and all of the entities
+	 * that it depends upon, directly or indirectly.
+	 * 
+	 * @param payloadType  the payload type whose dependencies are to be returned
+	 * @return Set<AbstractLibrary>
+	 */
+	private static Set<AbstractLibrary> getDependencyLibraries(NamedEntity payloadType) {
+		LibraryDependencyVisitor visitor = new LibraryDependencyVisitor();
+		
+		visitor.addLibrary( payloadType );
+		DependencyNavigator.navigate( payloadType, visitor );
+		return visitor.getLibraries();
+	}
+	
+	/**
+	 * Returns a fingerprint of all the information used to generate the readme file of
+	 * an action group.
+	 * 
+	 * @param group  the action group for which to return a fingerprint
+	 * @return String
+	 */
+	private String getReadmeFingerprint(ActionGroup group) {
+		StringBuilder fingerprint = new StringBuilder();
+		TLResource resource = group.getResource();
+		
+		fingerprint.append( context ).append( "|" ).append( resource.getOwningLibrary().getName() )
+				.append( "|" ).append( resource.getName() ).append( "|" ).append( resource.getVersion() )
+				.append( "|" ).append( APIPublisherConfig.getWSO2StoreUrl() )
+				.append( "|" ).append( APIPublisherConfig.getWSO2PublisherUrl() )
+				.append( "|" ).append( APIPublisherConfig.getApiGatewayUrl() )
+				.append( "|" ).append( APIPublisherConfig.getMockServerUrl() );
+		
+		for (TLAction action : group.getActions()) {
+			fingerprint.append( "\n" ).append( action.getActionId() )
+					.append( "|" ).append( action.getRequest().getHttpMethod() )
+					.append( "|" ).append( action.getRequest().getPathTemplate() );
+		}
+		return ContextManifest.hash( fingerprint.toString() );
 	}
 	
 	/**
@@ -183,32 +477,60 @@ public class UpdateContextJob {
 		}
 		actionFolder = new File( contextFolder, folderPath.toString() );
 		
-		if (!actionFolder.exists()) {
-			actionFolder.mkdirs();
+		try {
+			Files.createDirectories( actionFolder.toPath() );
+			
+		} catch (IOException e) {
+			log.warn("Unable to create action folder: " + actionFolder.getAbsolutePath());
 		}
 		return actionFolder;
 	}
 	
+	/**
+	 * Returns a Velocity context that contains the values shared by all of the readme files
+	 * of the context.  The base context is only read during template merges, so it can
+	 * be shared by concurrent readme tasks.
+	 * 
+	 * @return VelocityContext
+	 */
+	private VelocityContext newBaseContext() {
+		VelocityContext baseContext = new VelocityContext();
+		
+		baseContext.put( "context", this.context );
+		baseContext.put( "apiStoreUrl", APIPublisherConfig.getWSO2StoreUrl() );
+		baseContext.put( "apiPublisherUrl", APIPublisherConfig.getWSO2PublisherUrl() );
+		baseContext.put( "apiGatewayUrl", APIPublisherConfig.getApiGatewayUrl() );
+		baseContext.put( "mockServerUrl", APIPublisherConfig.getMockServerUrl() );
+		return baseContext;
+	}
+	
 	/**
 	 * Generates a brief readme file in the actions folder that links to the online documentation.
+	 * The existing readme is only replaced if the content hash of the new readme is different,
+	 * and the new file is moved into place atomically.
 	 * 
 	 * @param group  the group of all actions that resolve to the same mock content folder
+	 * @param baseContext  the Velocity context that contains the values shared by all readme files
 	 */
-	private void generateReadmeFile(ActionGroup group) {
+	private void generateReadmeFile(ActionGroup group, VelocityContext baseContext) {
 		File readmeFile = new File( group.getActionFolder(), "/readme.html" );
-		try (Writer writer = new FileWriter( readmeFile )) {
-			Template template = velocityEngine.getTemplate( TEMPLATE_LOCATION + "api-readme.vm", "UTF-8" );
-			VelocityContext context = new VelocityContext();
+		
+		try {
+			VelocityContext context = new VelocityContext( baseContext );
+			StringWriter writer = new StringWriter();
+			byte[] content;
 			
-			context.put( "context", this.context );
 			context.put( "resource", group.getResource() );
 			context.put( "actionList", group.getActions() );
-			context.put( "apiStoreUrl", APIPublisherConfig.getWSO2StoreUrl() );
-			context.put( "apiPublisherUrl", APIPublisherConfig.getWSO2PublisherUrl() );
-			context.put( "apiGatewayUrl", APIPublisherConfig.getApiGatewayUrl() );
-			context.put( "mockServerUrl", APIPublisherConfig.getMockServerUrl() );
 			
-			template.merge( context, writer );
+			getReadmeTemplate().merge( context, writer );
+			content = writer.toString().getBytes( Charset.defaultCharset() );
+			
+			if (!readmeFile.exists() || !ContextManifest.hash( content ).equals(
+					ContextManifest.hash( Files.readAllBytes( readmeFile.toPath() ) ) )) {
+				AtomicFiles.write( content, readmeFile.toPath() );
+				readmeCount.incrementAndGet();
+			}
 			
 		} catch (Exception e) {
 			log.error("Error generating readme.html file", e);
@@ -216,45 +538,99 @@ public class UpdateContextJob {
 	}
 	
 	/**
-	 * Generates a mock response file based on the default example output for the OTM
-	 * compiler.  If an error occurs during file generation, a warning will be logged
-	 * and this method will return without re-throwing the exception.
+	 * Returns the compiled readme template.  The template is parsed on first use and
+	 * shared by all subsequent readme merges.
+	 * 
+	 * @return Template
+	 * @throws Exception  thrown if the template cannot be loaded
+	 */
+	private static synchronized Template getReadmeTemplate() throws Exception {
+		if (readmeTemplate == null) {
+			readmeTemplate = velocityEngine.getTemplate( README_TEMPLATE, "UTF-8" );
+		}
+		return readmeTemplate;
+	}
+	
+	/**
+	 * Generates the mock response files for an action based on the example output of
+	 * the OTM compiler.  If an error occurs during file generation, a warning will be
+	 * logged and this method will return without re-throwing the exception.
+	 * 
+	 * <p>One file is generated for each of the configured variants and is named
+	 * <code>&lt;Resource&gt;-NN.&lt;METHOD&gt;.json|xml</code>, so that the mock content
+	 * server will return the variants in round-robin order.  The first variant is the
+	 * default example; the remaining variants use a randomly selected repeat count and
+	 * values that are randomized within the constraints of their types, all derived
+	 * from the variant seed.
+	 * 
+	 * <p>Each file is created only if it does not already exist, or if the caller requests
+	 * that the existing variants be replaced.  The example content is
+	 * streamed by the example builder and copied from the example cache, so it is never
+	 * held in memory as a single string, and the mock file is moved into place atomically
+	 * so that a mock server reading the workspace never sees a truncated response.
 	 * 
 	 * @param resource  the resource that declared or inherited the actions
 	 * @param response  the actions response for which the mock is to be generated
 	 * @param method  the HTTP method of the actions request
 	 * @param mimeType  the content type of the mock response file to create
-	 * @param targetFolder  the folder where the mock response file should be created
-	 * @throws IOException  thrown if an error occurs while generating the mock response file
+	 * @param targetFolder  the folder where the mock response files should be created
+	 * @param pathParams  the names of the path parameters of the action
+	 * @param exampleCache  the cache of example payloads for the model being processed
+	 * @param replaceExisting  flag indicating whether existing variant files should be regenerated
 	 */
-	private void generateMockResponse(TLResource resource, TLActionResponse response, TLHttpMethod method,
-			TLMimeType mimeType, File targetFolder) {
+	private void generateMockResponses(TLResource resource, TLActionResponse response, TLHttpMethod method,
+			TLMimeType mimeType, File targetFolder, List<String> pathParams, ExampleCache exampleCache,
+			boolean replaceExisting) {
 		boolean jsonFormat = (mimeType == TLMimeType.APPLICATION_JSON) || (mimeType == TLMimeType.TEXT_JSON);
-		String filename = resource.getName() + "-01." + method.toString() + (jsonFormat ? ".json" : ".xml");
-		File mockFile = new File( targetFolder, filename );
+		List<String> placeholderParams = variantOptions.isPathPlaceholders() ?
+				pathParams : Collections.<String>emptyList();
+		NamedEntity payloadType = ResourceCodegenUtils.getPayloadType( response.getPayloadType() );
+		VariantValueConstraints valueConstraints = (variantOptions.getVariantCount() > 1) ?
+				VariantValueConstraints.forPayloadType( payloadType ) : null;
 		
-		if (!mockFile.exists()) {
-			try (Writer out = new FileWriter( mockFile )) {
-				NamedEntity payloadType = ResourceCodegenUtils.getPayloadType( response.getPayloadType() );
-				String fileContent;
-				
-				if (jsonFormat) {
-					fileContent = new ExampleJsonBuilder( new ExampleGeneratorOptions() )
-							.setModelElement( payloadType ).buildString();
+		for (int i = 1; i <= variantOptions.getVariantCount(); i++) {
+			String filename = resource.getName() + String.format( "-%02d.", i ) + method.toString()
+					+ (jsonFormat ? ".json" : ".xml");
+			File mockFile = new File( targetFolder, filename );
+			
+			if (replaceExisting || !mockFile.exists()) {
+				try {
+					ExampleGeneratorOptions options = exampleOptions;
+					Random random = null;
 					
-				} else { // XML output
-					fileContent = new ExampleDocumentBuilder( new ExampleGeneratorOptions() )
-							.setModelElement( payloadType ).buildString();
+					if (i > 1) {
+						random = variantOptions.newRandom( getVariantKey( mockFile ) );
+						options = variantOptions.newExampleOptions( exampleOptions, random );
+					}
+					exampleCache.writeExample( payloadType, jsonFormat, options, mockFile,
+							new ExampleVariantFilter( random, valueConstraints, placeholderParams ) );
+					mockFileCount.incrementAndGet();
+					
+				} catch (ValidationException | CodeGenerationException | IOException e) {
+					log.warn("Error generating mock response file: " + filename, e);
 				}
-				out.write( fileContent );
-				out.flush();
-				
-			} catch (ValidationException | CodeGenerationException | IOException e) {
-				log.warn("Error generating mock response file: " + filename, e);
 			}
 		}
 	}
 	
+	/**
+	 * Returns the names of the path parameters declared in the path template of the
+	 * given action.
+	 * 
+	 * @param action  the action whose path parameters are to be returned
+	 * @return List<String>
+	 */
+	private List<String> getPathParameters(QualifiedAction action) {
+		List<String> pathParams = new ArrayList<>();
+		
+		for (String pathPart : action.getPathTemplate().split("/")) {
+			if (pathPart.startsWith("{") && pathPart.endsWith("}")) {
+				pathParams.add( pathPart.substring( 1, pathPart.length() - 1 ) );
+			}
+		}
+		return pathParams;
+	}
+	
 	/**
 	 * Returns a list of all resources from the given OTM model.
 	 * 
@@ -293,6 +669,46 @@ public class UpdateContextJob {
 		return (firstChoice != null) ? firstChoice : secondChoice;
 	}
 	
+	/**
+	 * Returns true if all of the context's OTM models were processed successfully during
+	 * the last execution of this job.
+	 *
+	 * @return boolean
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+	
+	/**
+	 * Returns the number of mock response files that were created by the last execution
+	 * of this job.
+	 *
+	 * @return int
+	 */
+	public int getMockFileCount() {
+		return mockFileCount.get();
+	}
+	
+	/**
+	 * Returns the number of readme files that were written by the last execution of
+	 * this job.
+	 *
+	 * @return int
+	 */
+	public int getReadmeCount() {
+		return readmeCount.get();
+	}
+	
+	/**
+	 * Returns the number of action folders that were pruned by the last execution of
+	 * this job.
+	 *
+	 * @return int
+	 */
+	public int getPrunedFolderCount() {
+		return prunedFolderCount.get();
+	}
+	
 	/**
 	 * Returns the root directory location that contains the context folder.
 	 *
@@ -329,6 +745,139 @@ public class UpdateContextJob {
 		this.context = context;
 	}
 	
+	/**
+	 * Returns true if all OTM projects in the context should be loaded into a single
+	 * shared model (default is true).
+	 *
+	 * @return boolean
+	 */
+	public boolean isSharedContextModel() {
+		return sharedContextModel;
+	}
+	
+	/**
+	 * Assigns the flag indicating whether all OTM projects in the context should be
+	 * loaded into a single shared model.
+	 *
+	 * @param sharedContextModel  the flag value to assign
+	 */
+	public void setSharedContextModel(boolean sharedContextModel) {
+		this.sharedContextModel = sharedContextModel;
+	}
+	
+	/**
+	 * Returns true if only the artifacts of resources and action folders that have changed
+	 * since the previous update should be regenerated (default is true).
+	 *
+	 * @return boolean
+	 */
+	public boolean isIncrementalUpdate() {
+		return incrementalUpdate;
+	}
+	
+	/**
+	 * Assigns the flag indicating whether only the artifacts of resources and action
+	 * folders that have changed since the previous update should be regenerated.
+	 *
+	 * @param incrementalUpdate  the flag value to assign
+	 */
+	public void setIncrementalUpdate(boolean incrementalUpdate) {
+		this.incrementalUpdate = incrementalUpdate;
+	}
+	
+	/**
+	 * Returns the key used to seed the randomized values of the given mock file.  The key
+	 * is the path of the file relative to the project folder, so the variants of each action
+	 * are different even if the actions belong to the same resource and HTTP method.
+	 * 
+	 * @param mockFile  the mock response file for which to return a key
+	 * @return String
+	 */
+	private String getVariantKey(File mockFile) {
+		Path relativePath = projectFolder.getAbsoluteFile().toPath().relativize( mockFile.getAbsoluteFile().toPath() );
+		
+		return relativePath.toString().replace( File.separatorChar, '/' );
+	}
+	
+	/**
+	 * Returns true if the existing mock response variants of actions whose fingerprints
+	 * have changed since the previous update should be regenerated (default is false).
+	 * An action's fingerprint only changes if the action itself, or one of the libraries
+	 * that its response payload depends on, has changed.  Otherwise, existing mock files
+	 * are never replaced, so that they can be edited by hand.
+	 *
+	 * @return boolean
+	 */
+	public boolean isRegenerateChangedMocks() {
+		return regenerateChangedMocks;
+	}
+	
+	/**
+	 * Assigns the flag indicating whether the existing mock response variants of actions
+	 * whose fingerprints have changed since the previous update should be regenerated.
+	 *
+	 * @param regenerateChangedMocks  the flag value to assign
+	 */
+	public void setRegenerateChangedMocks(boolean regenerateChangedMocks) {
+		this.regenerateChangedMocks = regenerateChangedMocks;
+	}
+	
+	/**
+	 * Returns the options used to generate the example content of mock responses.
+	 *
+	 * @return ExampleGeneratorOptions
+	 */
+	public ExampleGeneratorOptions getExampleOptions() {
+		return exampleOptions;
+	}
+	
+	/**
+	 * Assigns the options used to generate the example content of mock responses.
+	 *
+	 * @param exampleOptions  the generator options to assign
+	 */
+	public void setExampleOptions(ExampleGeneratorOptions exampleOptions) {
+		this.exampleOptions = exampleOptions;
+	}
+	
+	/**
+	 * Returns the options that control the number and content of the mock response
+	 * variants generated for each action.
+	 *
+	 * @return MockVariantOptions
+	 */
+	public MockVariantOptions getVariantOptions() {
+		return variantOptions;
+	}
+	
+	/**
+	 * Assigns the options that control the number and content of the mock response
+	 * variants generated for each action.
+	 *
+	 * @param variantOptions  the variant options to assign
+	 */
+	public void setVariantOptions(MockVariantOptions variantOptions) {
+		this.variantOptions = variantOptions;
+	}
+	
+	/**
+	 * Returns the scanner used to locate the OTM projects in the context folder.
+	 *
+	 * @return ProjectFolderScanner
+	 */
+	public ProjectFolderScanner getScanner() {
+		return scanner;
+	}
+	
+	/**
+	 * Assigns the scanner used to locate the OTM projects in the context folder.
+	 *
+	 * @param scanner  the folder scanner to assign
+	 */
+	public void setScanner(ProjectFolderScanner scanner) {
+		this.scanner = scanner;
+	}
+	
 	/**
 	 * Initializes the Velocity template processing engine.
 	 */
@@ -338,7 +887,10 @@ public class UpdateContextJob {
 			
 			ve.setProperty( RuntimeConstants.RESOURCE_LOADER, "classpath" );
 			ve.setProperty( "classpath.resource.loader.class", ClasspathResourceLoader.class.getName() );
+			ve.setProperty( "classpath.resource.loader.cache", "true" );
+			ve.setProperty( "classpath.resource.loader.modificationCheckInterval", "-1" );
 			ve.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.NullLogSystem");
+			ve.init();
 			velocityEngine = ve;
 			
 		} catch (Throwable t) {
@@ -347,23 +899,238 @@ public class UpdateContextJob {
 	}
 	
 	/**
-	 * Groups the actions together that resolve to the same mock content folder.
+	 * Fork/join task that prepares the context workspace files for a single resource.  The
+	 * mock response for each action and MIME type is generated as a separate sub-task.
+	 */
+	private class ResourceTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 4460318021572301586L;
+		
+		private int resourceIndex;
+		private TLResource resource;
+		private File contextFolder;
+		private ConcurrentMap<String,ActionGroup> actionGroups;
+		private ExampleCache exampleCache;
+		private ContextManifest manifest;
+		private Map<AbstractLibrary,String> libraryHashes;
+		
+		/**
+		 * Constructor that specifies the resource to be processed.
+		 * 
+		 * @param resourceIndex  the position of the resource within the model
+		 * @param resource  the OTM for which to create workspace artifacts
+		 * @param contextFolder  the folder within the mock content workspace that is being processed
+		 * @param actionGroups  the registry of actions that all resolve to the same mock content folder
+		 * @param exampleCache  the cache of example payloads for the model being processed
+		 * @param manifest  the manifest of the artifacts that were generated by the previous update
+		 * @param libraryHashes  the content hashes of the model's user-defined libraries
+		 */
+		public ResourceTask(int resourceIndex, TLResource resource, File contextFolder,
+				ConcurrentMap<String,ActionGroup> actionGroups, ExampleCache exampleCache,
+				ContextManifest manifest, Map<AbstractLibrary,String> libraryHashes) {
+			this.resourceIndex = resourceIndex;
+			this.resource = resource;
+			this.contextFolder = contextFolder;
+			this.actionGroups = actionGroups;
+			this.exampleCache = exampleCache;
+			this.manifest = manifest;
+			this.libraryHashes = libraryHashes;
+		}
+		
+		/**
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			List<RecursiveAction> mockTasks = new ArrayList<>();
+			List<QualifiedAction> actions = ResourceCodegenUtils.getQualifiedActions( resource );
+			int actionIndex = 0;
+			
+			for (QualifiedAction action : actions) {
+				boolean changed = manifest.isActionChanged( getActionKey( resource, action ),
+						getActionFingerprint( resource, action, libraryHashes ) );
+				final boolean replaceExisting = regenerateChangedMocks && changed;
+				final File actionFolder = getActionFolder( resource, action, contextFolder );
+				final TLActionResponse response = getSuccessResponse( action.getAction() );
+				final TLHttpMethod method = action.getAction().getRequest().getHttpMethod();
+				final List<String> pathParams = getPathParameters( action );
+				ActionGroup group = actionGroups.get( actionFolder.getAbsolutePath() );
+				
+				if (response.getPayloadType() != null) {
+					for (final TLMimeType mimeType : response.getMimeTypes()) {
+						mockTasks.add( new RecursiveAction() {
+							private static final long serialVersionUID = 1920766014683209915L;
+							
+							protected void compute() {
+								generateMockResponses( resource, response, method, mimeType, actionFolder,
+										pathParams, exampleCache, replaceExisting );
+							}
+						});
+					}
+				}
+				if (group == null) {
+					ActionGroup newGroup = new ActionGroup( actionFolder );
+					
+					group = actionGroups.putIfAbsent( actionFolder.getAbsolutePath(), newGroup );
+					
+					if (group == null) {
+						group = newGroup;
+					}
+				}
+				group.addAction( ((long) resourceIndex << 32) | actionIndex++, resource, action.getAction() );
+			}
+			invokeAll( mockTasks );
+		}
+		
+	}
+	
+	/**
+	 * Visitor that collects the owning libraries of the named entities that are visited
+	 * while navigating the dependencies of a payload type.
+	 */
+	private static class LibraryDependencyVisitor extends ModelElementVisitorAdapter {
+		
+		private Set<AbstractLibrary> libraries = new HashSet<>();
+		
+		/**
+		 * Adds the owning library of the given entity to the collected libraries.
+		 * 
+		 * @param entity  the entity whose library is to be added
+		 * @return boolean
+		 */
+		public boolean addLibrary(NamedEntity entity) {
+			if (entity.getOwningLibrary() != null) {
+				libraries.add( entity.getOwningLibrary() );
+			}
+			return true;
+		}
+		
+		/**
+		 * Returns the libraries that have been collected by this visitor.
+		 * 
+		 * @return Set<AbstractLibrary>
+		 */
+		public Set<AbstractLibrary> getLibraries() {
+			return libraries;
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitSimple(org.opentravel.schemacompiler.model.TLSimple)
+		 */
+		@Override
+		public boolean visitSimple(TLSimple simple) {
+			return addLibrary( simple );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitValueWithAttributes(org.opentravel.schemacompiler.model.TLValueWithAttributes)
+		 */
+		@Override
+		public boolean visitValueWithAttributes(TLValueWithAttributes valueWithAttributes) {
+			return addLibrary( valueWithAttributes );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitClosedEnumeration(org.opentravel.schemacompiler.model.TLClosedEnumeration)
+		 */
+		@Override
+		public boolean visitClosedEnumeration(TLClosedEnumeration enumeration) {
+			return addLibrary( enumeration );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitOpenEnumeration(org.opentravel.schemacompiler.model.TLOpenEnumeration)
+		 */
+		@Override
+		public boolean visitOpenEnumeration(TLOpenEnumeration enumeration) {
+			return addLibrary( enumeration );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitChoiceObject(org.opentravel.schemacompiler.model.TLChoiceObject)
+		 */
+		@Override
+		public boolean visitChoiceObject(TLChoiceObject choiceObject) {
+			return addLibrary( choiceObject );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitCoreObject(org.opentravel.schemacompiler.model.TLCoreObject)
+		 */
+		@Override
+		public boolean visitCoreObject(TLCoreObject coreObject) {
+			return addLibrary( coreObject );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitBusinessObject(org.opentravel.schemacompiler.model.TLBusinessObject)
+		 */
+		@Override
+		public boolean visitBusinessObject(TLBusinessObject businessObject) {
+			return addLibrary( businessObject );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitContextualFacet(org.opentravel.schemacompiler.model.TLContextualFacet)
+		 */
+		@Override
+		public boolean visitContextualFacet(TLContextualFacet facet) {
+			return addLibrary( facet );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitFacet(org.opentravel.schemacompiler.model.TLFacet)
+		 */
+		@Override
+		public boolean visitFacet(TLFacet facet) {
+			return addLibrary( facet );
+		}
+		
+		/**
+		 * @see org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter#visitExtensionPointFacet(org.opentravel.schemacompiler.model.TLExtensionPointFacet)
+		 */
+		@Override
+		public boolean visitExtensionPointFacet(TLExtensionPointFacet extensionPointFacet) {
+			return addLibrary( extensionPointFacet );
+		}
+		
+	}
+	
+	/**
+	 * Groups the actions together that resolve to the same mock content folder.  Actions
+	 * may be added concurrently, so each action is registered with the sequence number
+	 * it would have been assigned by a sequential traversal of the model's resources.
+	 * This keeps the order of the actions and the owning resource of the group
+	 * independent of the order in which the resources are processed.
 	 */
 	private static class ActionGroup {
 		
 		private File actionFolder;
 		private TLResource resource;
-		private List<TLAction> actions = new ArrayList<>();
+		private TreeMap<Long,TLAction> actions = new TreeMap<>();
 		
 		/**
-		 * Constructor that specifies the owning resource for all actions in this group.
+		 * Constructor that specifies the folder location for all actions in this group.
 		 * 
 		 * @param actionFolder  the folder location where all actions resolve to
-		 * @param resource  the owning resource for all actions in this group
 		 */
-		public ActionGroup(File actionFolder, TLResource resource) {
+		public ActionGroup(File actionFolder) {
 			this.actionFolder = actionFolder;
-			this.resource = resource;
+		}
+		
+		/**
+		 * Adds an action to this group.  The owning resource of the group is the resource
+		 * of the action with the lowest sequence number.
+		 * 
+		 * @param sequence  the sequence number of the action
+		 * @param resource  the resource that declared or inherited the action
+		 * @param action  the action to add
+		 */
+		public synchronized void addAction(long sequence, TLResource resource, TLAction action) {
+			if (actions.isEmpty() || (sequence < actions.firstKey())) {
+				this.resource = resource;
+			}
+			actions.put( sequence, action );
 		}
 
 		/**
@@ -380,17 +1147,17 @@ public class UpdateContextJob {
 		 *
 		 * @return TLResource
 		 */
-		public TLResource getResource() {
+		public synchronized TLResource getResource() {
 			return resource;
 		}
 
 		/**
-		 * Returns the value of the 'actions' field.
+		 * Returns the actions of this group in sequence order.
 		 *
 		 * @return List<TLAction>
 		 */
-		public List<TLAction> getActions() {
-			return actions;
+		public synchronized List<TLAction> getActions() {
+			return new ArrayList<>( actions.values() );
 		}
 		
 	}
@@ -0,0 +1,463 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.opentravel.schemacompiler.model.NamedEntity;
+import org.opentravel.schemacompiler.model.TLAbstractEnumeration;
+import org.opentravel.schemacompiler.model.TLAttribute;
+import org.opentravel.schemacompiler.model.TLEnumValue;
+import org.opentravel.schemacompiler.model.TLProperty;
+import org.opentravel.schemacompiler.model.TLSimple;
+import org.opentravel.schemacompiler.visitor.DependencyNavigator;
+import org.opentravel.schemacompiler.visitor.ModelElementVisitorAdapter;
+
+/**
+ * Describes how the values of the fields in a generated example may be randomized
+ * without violating the constraints of their types.  Enumerated values are replaced
+ * with another literal of the same enumeration, string values are replaced with random
+ * characters of the same shape (length and character classes), and numeric values are
+ * replaced with random numbers of the same shape that are within the bounds of their
+ * type.  Fields whose types are restricted by patterns, are not strings or numbers (e.g.
+ * dates and booleans), or whose names are shared by fields of different types are left
+ * unchanged.
+ *
+ * @author S. Livezey
+ */
+public class VariantValueConstraints {
+	
+	private static final String XSD_NAMESPACE = "http://www.w3.org/2001/XMLSchema";
+	private static final Pattern numberPattern = Pattern.compile( "-?\\d+(?:\\.\\d+)?" );
+	private static final int MAX_NUMBER_ATTEMPTS = 10;
+	
+	private static final Set<String> xsdStringTypes = new HashSet<>();
+	private static final Map<String,String[]> xsdNumericTypes = new HashMap<>();
+	
+	private Map<String,ValueConstraint> constraints = new HashMap<>();
+	private Set<String> ambiguousFields = new HashSet<>();
+	
+	/**
+	 * Returns the value constraints of all fields that may appear in the examples of the
+	 * given payload type.
+	 *
+	 * @param payloadType  the payload type whose field constraints are to be returned
+	 * @return VariantValueConstraints
+	 */
+	public static VariantValueConstraints forPayloadType(NamedEntity payloadType) {
+		final VariantValueConstraints valueConstraints = new VariantValueConstraints();
+		
+		DependencyNavigator.navigate( payloadType, new ModelElementVisitorAdapter() {
+			
+			public boolean visitAttribute(TLAttribute attribute) {
+				valueConstraints.addField( attribute.getName(), attribute.getType() );
+				return true;
+			}
+			
+			public boolean visitElement(TLProperty element) {
+				valueConstraints.addField( element.getName(), element.getType() );
+				return true;
+			}
+			
+		});
+		return valueConstraints;
+	}
+	
+	/**
+	 * Registers a field whose string values may be replaced with random characters of the
+	 * same shape.
+	 *
+	 * @param fieldName  the name of the field
+	 */
+	public void addString(String fieldName) {
+		addConstraint( fieldName, new ValueConstraint( ValueType.STRING ) );
+	}
+	
+	/**
+	 * Registers a field whose numeric values may be replaced with random numbers of the
+	 * same shape within the given (inclusive) bounds.
+	 *
+	 * @param fieldName  the name of the field
+	 * @param minValue  the smallest allowed value (null if unbounded)
+	 * @param maxValue  the largest allowed value (null if unbounded)
+	 */
+	public void addNumber(String fieldName, String minValue, String maxValue) {
+		ValueConstraint constraint = new ValueConstraint( ValueType.NUMBER );
+		
+		constraint.addBounds( minValue, maxValue, null, null );
+		addConstraint( fieldName, constraint );
+	}
+	
+	/**
+	 * Registers a field whose values must be one of the given enumeration literals.
+	 *
+	 * @param fieldName  the name of the field
+	 * @param literals  the literal values of the enumeration
+	 */
+	public void addEnumeration(String fieldName, Collection<String> literals) {
+		ValueConstraint constraint = new ValueConstraint( ValueType.ENUMERATION );
+		
+		constraint.literals.addAll( literals );
+		addConstraint( fieldName, constraint );
+	}
+	
+	/**
+	 * Returns a random replacement for the given value of a field, or the original value
+	 * if the field is unknown or its values cannot be randomized safely.
+	 *
+	 * @param fieldName  the name of the field
+	 * @param value  the (unquoted and unescaped) value to replace
+	 * @param random  the random number generator to use
+	 * @return String
+	 */
+	public String randomize(String fieldName, String value, Random random) {
+		ValueConstraint constraint = constraints.get( fieldName );
+		String result = value;
+		
+		if (constraint != null) {
+			switch (constraint.type) {
+				case ENUMERATION:
+					if (constraint.literals.contains( value )) {
+						result = constraint.literals.get( random.nextInt( constraint.literals.size() ) );
+					}
+					break;
+				case STRING:
+					result = randomizeString( value, random );
+					break;
+				case NUMBER:
+					result = randomizeNumber( value, constraint, random );
+					break;
+				default:
+					break;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Registers the given field using the constraints of its assigned type.
+	 *
+	 * @param fieldName  the name of the field
+	 * @param fieldType  the assigned type of the field
+	 */
+	private void addField(String fieldName, NamedEntity fieldType) {
+		if (fieldName != null) {
+			addConstraint( fieldName, getConstraint( fieldType ) );
+		}
+	}
+	
+	/**
+	 * Registers the constraint for the given field.  If a different constraint has already
+	 * been registered for a field of the same name, the values of the field cannot be
+	 * randomized safely and it is treated as unconstrained.
+	 *
+	 * @param fieldName  the name of the field
+	 * @param constraint  the constraint for the values of the field
+	 */
+	private void addConstraint(String fieldName, ValueConstraint constraint) {
+		ValueConstraint existingConstraint = constraints.get( fieldName );
+		
+		if (ambiguousFields.contains( fieldName )) {
+			return;
+			
+		} else if ((existingConstraint != null) && !existingConstraint.equals( constraint )) {
+			constraints.remove( fieldName );
+			ambiguousFields.add( fieldName );
+			
+		} else {
+			constraints.put( fieldName, constraint );
+		}
+	}
+	
+	/**
+	 * Returns the constraint for values of the given type.
+	 *
+	 * @param fieldType  the type whose constraint is to be returned
+	 * @return ValueConstraint
+	 */
+	private static ValueConstraint getConstraint(NamedEntity fieldType) {
+		ValueConstraint constraint = new ValueConstraint( ValueType.NONE );
+		List<TLSimple> restrictions = new ArrayList<>();
+		NamedEntity type = fieldType;
+		
+		while (type instanceof TLSimple) {
+			TLSimple simpleType = (TLSimple) type;
+			
+			if (simpleType.isListTypeInd() || !isEmpty( simpleType.getPattern() )) {
+				return constraint;
+			}
+			restrictions.add( simpleType );
+			type = simpleType.getParentType();
+		}
+		
+		if (type instanceof TLAbstractEnumeration) {
+			constraint = new ValueConstraint( ValueType.ENUMERATION );
+			
+			for (TLEnumValue value : ((TLAbstractEnumeration) type).getValues()) {
+				constraint.literals.add( value.getLiteral() );
+			}
+			
+		} else if ((type != null) && XSD_NAMESPACE.equals( type.getNamespace() )) {
+			if (xsdStringTypes.contains( type.getLocalName() )) {
+				constraint = new ValueConstraint( ValueType.STRING );
+				
+			} else if (xsdNumericTypes.containsKey( type.getLocalName() )) {
+				String[] bounds = xsdNumericTypes.get( type.getLocalName() );
+				
+				constraint = new ValueConstraint( ValueType.NUMBER );
+				constraint.addBounds( bounds[0], bounds[1], null, null );
+				
+				for (TLSimple restriction : restrictions) {
+					constraint.addBounds( restriction.getMinInclusive(), restriction.getMaxInclusive(),
+							restriction.getMinExclusive(), restriction.getMaxExclusive() );
+				}
+			}
+		}
+		return constraint;
+	}
+	
+	/**
+	 * Returns random characters of the same shape as the given string.  Upper and lower
+	 * case letters and digits are replaced with random characters of the same class; all
+	 * other characters are retained.
+	 *
+	 * @param value  the string value to randomize
+	 * @param random  the random number generator to use
+	 * @return String
+	 */
+	private static String randomizeString(String value, Random random) {
+		char[] chars = value.toCharArray();
+		
+		for (int i = 0; i < chars.length; i++) {
+			if ((chars[i] >= 'A') && (chars[i] <= 'Z')) {
+				chars[i] = (char) ('A' + random.nextInt( 26 ));
+				
+			} else if ((chars[i] >= 'a') && (chars[i] <= 'z')) {
+				chars[i] = (char) ('a' + random.nextInt( 26 ));
+				
+			} else if ((chars[i] >= '0') && (chars[i] <= '9')) {
+				chars[i] = (char) ('0' + random.nextInt( 10 ));
+			}
+		}
+		return new String( chars );
+	}
+	
+	/**
+	 * Returns a random number with the same sign, digit count and decimal places as the
+	 * given numeric value that is within the bounds of the constraint.  If no such number
+	 * is found after a few attempts, the original value is returned.
+	 *
+	 * @param value  the numeric value to randomize
+	 * @param constraint  the constraint that defines the bounds of the value
+	 * @param random  the random number generator to use
+	 * @return String
+	 */
+	private static String randomizeNumber(String value, ValueConstraint constraint, Random random) {
+		String result = value;
+		
+		if (numberPattern.matcher( value ).matches()) {
+			for (int i = 0; i < MAX_NUMBER_ATTEMPTS; i++) {
+				String candidate = randomizeDigits( value, random );
+				
+				if (constraint.isWithinBounds( new BigDecimal( candidate ) )) {
+					result = candidate;
+					break;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns a random number with the same sign, digit count and decimal places as the
+	 * given numeric value.
+	 *
+	 * @param value  the numeric value to randomize
+	 * @param random  the random number generator to use
+	 * @return String
+	 */
+	private static String randomizeDigits(String value, Random random) {
+		char[] chars = value.toCharArray();
+		boolean leadingDigit = true;
+		
+		for (int i = 0; i < chars.length; i++) {
+			if (Character.isDigit( chars[i] )) {
+				boolean multiDigit = (i + 1 < chars.length) && Character.isDigit( chars[i + 1] );
+				
+				chars[i] = (char) ('0' + ((leadingDigit && multiDigit) ? 1 + random.nextInt( 9 ) : random.nextInt( 10 )));
+				leadingDigit = false;
+				
+			} else {
+				leadingDigit = (chars[i] == '-');
+			}
+		}
+		return new String( chars );
+	}
+	
+	/**
+	 * Returns true if the given string is null or empty.
+	 *
+	 * @param value  the string to check
+	 * @return boolean
+	 */
+	private static boolean isEmpty(String value) {
+		return (value == null) || (value.trim().length() == 0);
+	}
+	
+	/**
+	 * The kinds of values that can be randomized.
+	 */
+	private enum ValueType { NONE, STRING, NUMBER, ENUMERATION }
+	
+	/**
+	 * Constraint on the values of a single field.
+	 */
+	private static class ValueConstraint {
+		
+		private ValueType type;
+		private List<String> literals = new ArrayList<>();
+		private List<BigDecimal> minInclusive = new ArrayList<>();
+		private List<BigDecimal> maxInclusive = new ArrayList<>();
+		private List<BigDecimal> minExclusive = new ArrayList<>();
+		private List<BigDecimal> maxExclusive = new ArrayList<>();
+		
+		/**
+		 * Constructor that specifies the type of value.
+		 *
+		 * @param type  the type of value that is constrained
+		 */
+		public ValueConstraint(ValueType type) {
+			this.type = type;
+		}
+		
+		/**
+		 * Adds the given bounds to this constraint.  Bounds that are not specified or are
+		 * not numeric are ignored.
+		 *
+		 * @param minInclusiveValue  the inclusive lower bound (may be null)
+		 * @param maxInclusiveValue  the inclusive upper bound (may be null)
+		 * @param minExclusiveValue  the exclusive lower bound (may be null)
+		 * @param maxExclusiveValue  the exclusive upper bound (may be null)
+		 */
+		public void addBounds(String minInclusiveValue, String maxInclusiveValue,
+				String minExclusiveValue, String maxExclusiveValue) {
+			addBound( minInclusive, minInclusiveValue );
+			addBound( maxInclusive, maxInclusiveValue );
+			addBound( minExclusive, minExclusiveValue );
+			addBound( maxExclusive, maxExclusiveValue );
+		}
+		
+		/**
+		 * Returns true if the given number is within all of the bounds of this constraint.
+		 *
+		 * @param number  the number to check
+		 * @return boolean
+		 */
+		public boolean isWithinBounds(BigDecimal number) {
+			boolean result = true;
+			
+			for (BigDecimal bound : minInclusive) {
+				result &= (number.compareTo( bound ) >= 0);
+			}
+			for (BigDecimal bound : maxInclusive) {
+				result &= (number.compareTo( bound ) <= 0);
+			}
+			for (BigDecimal bound : minExclusive) {
+				result &= (number.compareTo( bound ) > 0);
+			}
+			for (BigDecimal bound : maxExclusive) {
+				result &= (number.compareTo( bound ) < 0);
+			}
+			return result;
+		}
+		
+		/**
+		 * Adds the given numeric bound to the list of bounds if it is a valid number.
+		 *
+		 * @param bounds  the list of bounds to which the value should be added
+		 * @param boundValue  the value of the bound (may be null)
+		 */
+		private static void addBound(List<BigDecimal> bounds, String boundValue) {
+			if (!isEmpty( boundValue )) {
+				try {
+					bounds.add( new BigDecimal( boundValue.trim() ) );
+					
+				} catch (NumberFormatException e) {
+					// Ignore - not a numeric bound
+				}
+			}
+		}
+		
+		/**
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof ValueConstraint) && toString().equals( obj.toString() );
+		}
+		
+		/**
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return toString().hashCode();
+		}
+		
+		/**
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return type + "|" + literals + "|" + minInclusive + "|" + maxInclusive
+					+ "|" + minExclusive + "|" + maxExclusive;
+		}
+		
+	}
+	
+	static {
+		for (String typeName : new String[] { "string", "normalizedString", "token" }) {
+			xsdStringTypes.add( typeName );
+		}
+		xsdNumericTypes.put( "decimal", new String[] { null, null } );
+		xsdNumericTypes.put( "double", new String[] { null, null } );
+		xsdNumericTypes.put( "float", new String[] { null, null } );
+		xsdNumericTypes.put( "integer", new String[] { null, null } );
+		xsdNumericTypes.put( "long", new String[] { "-9223372036854775808", "9223372036854775807" } );
+		xsdNumericTypes.put( "int", new String[] { "-2147483648", "2147483647" } );
+		xsdNumericTypes.put( "short", new String[] { "-32768", "32767" } );
+		xsdNumericTypes.put( "byte", new String[] { "-128", "127" } );
+		xsdNumericTypes.put( "nonNegativeInteger", new String[] { "0", null } );
+		xsdNumericTypes.put( "positiveInteger", new String[] { "1", null } );
+		xsdNumericTypes.put( "nonPositiveInteger", new String[] { null, "0" } );
+		xsdNumericTypes.put( "negativeInteger", new String[] { null, "-1" } );
+		xsdNumericTypes.put( "unsignedLong", new String[] { "0", "18446744073709551615" } );
+		xsdNumericTypes.put( "unsignedInt", new String[] { "0", "4294967295" } );
+		xsdNumericTypes.put( "unsignedShort", new String[] { "0", "65535" } );
+		xsdNumericTypes.put( "unsignedByte", new String[] { "0", "255" } );
+	}
+	
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Verifies the value randomization and placeholder substitution of the <code>ExampleVariantFilter</code>.
+ *
+ * @author S. Livezey
+ */
+public class ExampleVariantFilterTest {
+	
+	private static final List<String> STATUS_LITERALS = Arrays.asList( "Active", "Inactive", "Closed" );
+	
+	private static final List<String> JSON_EXAMPLE = Arrays.asList(
+			"{",
+			"    \"Name\" : \"HotelName\",",
+			"    \"Status\" : \"Active\",",
+			"    \"Rating\" : 3,",
+			"    \"Escaped\" : \"Line\\nBreak\",",
+			"    \"Other\" : \"Unchanged\",",
+			"    \"Count\" : 42",
+			"}" );
+	
+	private static final List<String> XML_EXAMPLE = Arrays.asList(
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+			"<ns1:Hotel xmlns:ns1=\"http://www.example.com/hotel\" code=\"ABC\">",
+			"    <ns1:Name>HotelName</ns1:Name>",
+			"    <ns1:Status>Active</ns1:Status>",
+			"    <ns1:Rating>3</ns1:Rating>",
+			"    <ns1:Other>Unchanged</ns1:Other>",
+			"    <ns1:Empty/>",
+			"</ns1:Hotel>" );
+	
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+	
+	@Test
+	public void testJsonValuesRandomizedWithinConstraints() throws IOException {
+		boolean nameChanged = false;
+		
+		for (long seed = 0; seed < 20; seed++) {
+			List<String> lines = filter( JSON_EXAMPLE, true, new Random( seed ), Collections.<String>emptyList() );
+			String name = getJsonValue( lines.get( 1 ) );
+			
+			assertTrue( name, name.matches( "\"[A-Z][a-z]{4}[A-Z][a-z]{3}\"" ) );
+			assertTrue( lines.get( 2 ), STATUS_LITERALS.contains( unquote( getJsonValue( lines.get( 2 ) ) ) ) );
+			assertWithinBounds( getJsonValue( lines.get( 3 ) ), 1, 5 );
+			assertEquals( JSON_EXAMPLE.get( 4 ), lines.get( 4 ) );
+			assertEquals( JSON_EXAMPLE.get( 5 ), lines.get( 5 ) );
+			assertTrue( lines.get( 6 ), lines.get( 6 ).matches( "    \"Count\" : [1-9]\\d" ) );
+			assertEquals( JSON_EXAMPLE.get( 7 ), lines.get( 7 ) );
+			nameChanged |= !name.equals( "\"HotelName\"" );
+		}
+		assertTrue( nameChanged );
+	}
+	
+	@Test
+	public void testXmlValuesRandomizedWithinConstraints() throws IOException {
+		for (long seed = 0; seed < 20; seed++) {
+			List<String> lines = filter( XML_EXAMPLE, false, new Random( seed ), Collections.<String>emptyList() );
+			
+			assertEquals( XML_EXAMPLE.get( 0 ), lines.get( 0 ) );
+			assertTrue( lines.get( 1 ), lines.get( 1 ).matches(
+					"<ns1:Hotel xmlns:ns1=\"http://www\\.example\\.com/hotel\" code=\"[A-Z]{3}\">" ) );
+			assertTrue( lines.get( 2 ), lines.get( 2 ).matches( "    <ns1:Name>[A-Z][a-z]{4}[A-Z][a-z]{3}</ns1:Name>" ) );
+			assertTrue( lines.get( 3 ), STATUS_LITERALS.contains( getXmlValue( lines.get( 3 ) ) ) );
+			assertWithinBounds( getXmlValue( lines.get( 4 ) ), 1, 5 );
+			assertEquals( XML_EXAMPLE.subList( 5, 8 ), lines.subList( 5, 8 ) );
+		}
+	}
+	
+	@Test
+	public void testSameSeedProducesSameContent() throws IOException {
+		assertEquals( filter( JSON_EXAMPLE, true, new Random( 42 ), Collections.<String>emptyList() ),
+				filter( JSON_EXAMPLE, true, new Random( 42 ), Collections.<String>emptyList() ) );
+		assertEquals( filter( XML_EXAMPLE, false, new Random( 42 ), Collections.<String>emptyList() ),
+				filter( XML_EXAMPLE, false, new Random( 42 ), Collections.<String>emptyList() ) );
+	}
+	
+	@Test
+	public void testPathPlaceholdersWithoutRandomization() throws IOException {
+		List<String> pathParams = Arrays.asList( "name", "code" );
+		List<String> jsonLines = filter( JSON_EXAMPLE, true, null, pathParams );
+		List<String> xmlLines = filter( XML_EXAMPLE, false, null, pathParams );
+		
+		assertEquals( "    \"Name\" : \"{name}\",", jsonLines.get( 1 ) );
+		assertEquals( JSON_EXAMPLE.subList( 2, 8 ), jsonLines.subList( 2, 8 ) );
+		assertEquals( "<ns1:Hotel xmlns:ns1=\"http://www.example.com/hotel\" code=\"{code}\">", xmlLines.get( 1 ) );
+		assertEquals( "    <ns1:Name>{name}</ns1:Name>", xmlLines.get( 2 ) );
+		assertEquals( XML_EXAMPLE.subList( 3, 8 ), xmlLines.subList( 3, 8 ) );
+	}
+	
+	@Test
+	public void testAmbiguousFieldsAreNotRandomized() {
+		VariantValueConstraints constraints = new VariantValueConstraints();
+		Random random = new Random( 0 );
+		
+		constraints.addString( "Id" );
+		constraints.addNumber( "Id", null, null );
+		constraints.addNumber( "Id", null, null );
+		constraints.addNumber( "Size", "5", "5" );
+		constraints.addEnumeration( "Status", STATUS_LITERALS );
+		
+		for (int i = 0; i < 20; i++) {
+			assertEquals( "A123", constraints.randomize( "Id", "A123", random ) );
+			assertEquals( "12", constraints.randomize( "Size", "12", random ) );
+			assertEquals( "Unknown", constraints.randomize( "Status", "Unknown", random ) );
+		}
+	}
+	
+	@Test
+	public void testFilterWithoutRandomizationIsEmpty() {
+		assertTrue( new ExampleVariantFilter( null, null, Collections.<String>emptyList() ).isEmpty() );
+		assertTrue( new ExampleVariantFilter( new Random( 0 ), null, Collections.<String>emptyList() ).isEmpty() );
+		assertFalse( new ExampleVariantFilter( null, null, Arrays.asList( "id" ) ).isEmpty() );
+		assertFalse( new ExampleVariantFilter( new Random( 0 ), newConstraints(),
+				Collections.<String>emptyList() ).isEmpty() );
+	}
+	
+	/**
+	 * Copies the given example content through a filter and returns the filtered lines.
+	 *
+	 * @param example  the lines of the example content to filter
+	 * @param jsonFormat  flag indicating whether the example is JSON (true) or XML (false) content
+	 * @param random  the random number generator for the filter (null if values should not be randomized)
+	 * @param pathParams  the path parameters for which placeholders should be created
+	 * @return List<String>
+	 * @throws IOException  thrown if the example cannot be filtered
+	 */
+	private List<String> filter(List<String> example, boolean jsonFormat, Random random, List<String> pathParams)
+			throws IOException {
+		File sourceFile = tempFolder.newFile();
+		File targetFile = new File( tempFolder.getRoot(), sourceFile.getName() + (jsonFormat ? ".json" : ".xml") );
+		
+		Files.write( sourceFile.toPath(), example, StandardCharsets.UTF_8 );
+		new ExampleVariantFilter( random, newConstraints(), pathParams )
+				.copy( sourceFile.toPath(), targetFile.toPath(), jsonFormat );
+		return Files.readAllLines( targetFile.toPath(), StandardCharsets.UTF_8 );
+	}
+	
+	/**
+	 * Returns the value constraints of the fields in the test examples.
+	 *
+	 * @return VariantValueConstraints
+	 */
+	private static VariantValueConstraints newConstraints() {
+		VariantValueConstraints constraints = new VariantValueConstraints();
+		
+		constraints.addString( "Name" );
+		constraints.addString( "Escaped" );
+		constraints.addString( "code" );
+		constraints.addEnumeration( "Status", STATUS_LITERALS );
+		constraints.addNumber( "Rating", "1", "5" );
+		constraints.addNumber( "Count", null, null );
+		return constraints;
+	}
+	
+	/**
+	 * Asserts that the given value is a number within the given (inclusive) bounds.
+	 *
+	 * @param value  the value to check
+	 * @param minValue  the smallest allowed value
+	 * @param maxValue  the largest allowed value
+	 */
+	private static void assertWithinBounds(String value, int minValue, int maxValue) {
+		BigDecimal number = new BigDecimal( value );
+		
+		assertTrue( value, number.compareTo( BigDecimal.valueOf( minValue ) ) >= 0 );
+		assertTrue( value, number.compareTo( BigDecimal.valueOf( maxValue ) ) <= 0 );
+	}
+	
+	/**
+	 * Returns the (possibly quoted) value of the given JSON field line.
+	 *
+	 * @param line  the JSON line whose value is to be returned
+	 * @return String
+	 */
+	private static String getJsonValue(String line) {
+		String value = line.substring( line.indexOf( ':' ) + 1 ).trim();
+		
+		return value.endsWith( "," ) ? value.substring( 0, value.length() - 1 ) : value;
+	}
+	
+	/**
+	 * Returns the text value of the given XML element line.
+	 *
+	 * @param line  the XML line whose value is to be returned
+	 * @return String
+	 */
+	private static String getXmlValue(String line) {
+		return line.substring( line.indexOf( '>' ) + 1, line.lastIndexOf( '<' ) );
+	}
+	
+	/**
+	 * Returns the given JSON string value without its enclosing quotes.
+	 *
+	 * @param value  the quoted value
+	 * @return String
+	 */
+	private static String unquote(String value) {
+		return value.substring( 1, value.length() - 1 );
+	}
+	
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2016 OpenTravel Alliance (info@opentravel.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opentravel.otm.forum2016;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opentravel.otm.forum2016.PayloadProfileReport.PayloadStats;
+
+/**
+ * Verifies the size, nesting depth and placeholder measurements of the <code>PayloadProfiler</code>.
+ *
+ * @author S. Livezey
+ */
+public class PayloadProfilerTest {
+	
+	private static final List<String> JSON_PAYLOAD = Arrays.asList(
+			"{",
+			"    \"Hotel\" : {",
+			"        \"Rooms\" : [ { \"Id\" : \"{hotelId}\" }, { \"Id\" : \"{roomId}\" } ],",
+			"        \"Note\" : \"Brackets { [ in a string \\\" ] }\"",
+			"    }",
+			"}" );
+	
+	private static final List<String> XML_PAYLOAD = Arrays.asList(
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+			"<!-- <Ignored><Nested/></Ignored> -->",
+			"<ns1:Hotel xmlns:ns1=\"http://www.example.com/hotel\" code=\"a>b\" name='x/>y'>",
+			"    <!--",
+			"        <Ignored>",
+			"    -->",
+			"    <ns1:Rooms>",
+			"        <ns1:Room id=\"{roomId}\"/>",
+			"        <ns1:Room id=\"2\"><ns1:Rate>10</ns1:Rate></ns1:Room>",
+			"    </ns1:Rooms>",
+			"    <ns1:Description><![CDATA[<b>Bold</b>]]></ns1:Description>",
+			"    <ns1:Empty />",
+			"</ns1:Hotel>" );
+	
+	@Rule
+	public TemporaryFolder projectFolder = new TemporaryFolder();
+	
+	@Test
+	public void testJsonDepthAndSize() throws IOException {
+		File mockFile = newMockFile( "hotels", "Hotel.GET.json", JSON_PAYLOAD );
+		PayloadProfileReport report = profile( 0, 0 );
+		
+		assertFileStats( report, "travel/hotels/Hotel.GET.json", mockFile.length(), 4, 2 );
+		assertEquals( Collections.<String>emptyList(), report.getViolations() );
+	}
+	
+	@Test
+	public void testXmlDepthAndSize() throws IOException {
+		File mockFile = newMockFile( "hotels", "Hotel-02.GET.xml", XML_PAYLOAD );
+		PayloadProfileReport report = profile( 0, 0 );
+		
+		assertFileStats( report, "travel/hotels/Hotel-02.GET.xml", mockFile.length(), 4, 1 );
+		assertEquals( Collections.<String>emptyList(), report.getViolations() );
+	}
+	
+	@Test
+	public void testBudgetViolations() throws IOException {
+		File jsonFile = newMockFile( "hotels", "Hotel.GET.json", JSON_PAYLOAD );
+		File xmlFile = newMockFile( "rooms", "Room.GET.xml", XML_PAYLOAD );
+		long maxSize = Math.max( jsonFile.length(), xmlFile.length() );
+		
+		assertEquals( Collections.<String>emptyList(), profile( maxSize, 4 ).getViolations() );
+		assertEquals( Arrays.asList(
+				"travel/hotels/Hotel.GET.json: nesting depth of 4 exceeds the budget of 3",
+				"travel/rooms/Room.GET.xml: nesting depth of 4 exceeds the budget of 3" ),
+				getSortedViolations( profile( maxSize, 3 ) ) );
+		assertEquals( Arrays.asList(
+				"travel/hotels/Hotel.GET.json: payload size of " + jsonFile.length()
+						+ " bytes exceeds the budget of " + (jsonFile.length() - 1) + " bytes" ),
+				getSortedViolations( profile( jsonFile.length() - 1, 0 ) ).subList( 0, 1 ) );
+	}
+	
+	@Test
+	public void testOnlyVisibleMockFilesAreProfiled() throws IOException {
+		newMockFile( "hotels", "Hotel.GET.json", JSON_PAYLOAD );
+		newMockFile( ".hidden", "Hotel.GET.json", JSON_PAYLOAD );
+		newMockFile( "hotels", "readme.txt", JSON_PAYLOAD );
+		newMockFile( "hotels", "Hotel.get.json", JSON_PAYLOAD );
+		
+		assertEquals( 1, profile( 0, 0 ).getFileCount() );
+	}
+	
+	/**
+	 * Creates a mock file with the given content in the <code>travel</code> context folder.
+	 *
+	 * @param folderName  the name of the folder within the context that will contain the file
+	 * @param filename  the name of the mock file to create
+	 * @param content  the lines of content to write
+	 * @return File
+	 * @throws IOException  thrown if the file cannot be created
+	 */
+	private File newMockFile(String folderName, String filename, List<String> content) throws IOException {
+		File folder = new File( new File( projectFolder.getRoot(), "travel" ), folderName );
+		File mockFile = new File( folder, filename );
+		
+		folder.mkdirs();
+		Files.write( mockFile.toPath(), content, StandardCharsets.UTF_8 );
+		return mockFile;
+	}
+	
+	/**
+	 * Profiles the <code>travel</code> context folder using the given budgets.
+	 *
+	 * @param maxPayloadSize  the maximum payload size in bytes (zero if unlimited)
+	 * @param maxNestingDepth  the maximum nesting depth (zero if unlimited)
+	 * @return PayloadProfileReport
+	 * @throws IOException  thrown if the context folder cannot be read
+	 */
+	private PayloadProfileReport profile(long maxPayloadSize, int maxNestingDepth) throws IOException {
+		PayloadProfiler profiler = new PayloadProfiler( projectFolder.getRoot() );
+		PayloadProfileReport report;
+		
+		profiler.setMaxPayloadSize( maxPayloadSize );
+		profiler.setMaxNestingDepth( maxNestingDepth );
+		report = profiler.newReport();
+		profiler.profile( "travel", report );
+		return report;
+	}
+	
+	/**
+	 * Returns the budget violations of the given report in sorted order.
+	 *
+	 * @param report  the report whose violations are to be returned
+	 * @return List<String>
+	 */
+	private static List<String> getSortedViolations(PayloadProfileReport report) {
+		List<String> violations = report.getViolations();
+		
+		Collections.sort( violations );
+		return violations;
+	}
+	
+	/**
+	 * Asserts that the report contains a single file with the given statistics.
+	 *
+	 * @param report  the report to check
+	 * @param filePath  the expected path of the file relative to the project folder
+	 * @param size  the expected size of the file in bytes
+	 * @param depth  the expected nesting depth of the file
+	 * @param placeholders  the expected number of placeholders in the file
+	 */
+	private static void assertFileStats(PayloadProfileReport report, String filePath, long size,
+			int depth, int placeholders) {
+		List<PayloadStats> files = report.getFiles();
+		
+		assertEquals( 1, files.size() );
+		assertEquals( filePath, files.get( 0 ).getName() );
+		assertEquals( size, files.get( 0 ).getMaxBytes() );
+		assertEquals( depth, files.get( 0 ).getMaxDepth() );
+		assertEquals( placeholders, files.get( 0 ).getPlaceholders() );
+	}
+	
+}